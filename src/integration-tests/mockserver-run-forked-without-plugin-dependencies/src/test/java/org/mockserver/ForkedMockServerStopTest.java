@@ -0,0 +1,13 @@
+package org.mockserver;
+
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+
+public class ForkedMockServerStopTest {
+
+    @Test(expected = RuntimeException.class)
+    public void shouldNotBeAbleToReachMockServer() {
+        new MockServerClient("127.0.0.1", 1098).reset();
+    }
+
+}
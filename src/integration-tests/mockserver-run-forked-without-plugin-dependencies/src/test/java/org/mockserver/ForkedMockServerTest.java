@@ -0,0 +1,30 @@
+package org.mockserver;
+
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class ForkedMockServerTest {
+
+    @Test
+    public void shouldReachMockServerForkedWithoutPluginDependencies() throws Exception {
+        // given
+        MockServerClient mockServerClient = new MockServerClient("127.0.0.1", 1098);
+        mockServerClient.reset();
+        mockServerClient.when(request().withPath("/forked")).respond(response().withStatusCode(202));
+
+        // when
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:1098/forked").openConnection();
+
+        // then
+        assertThat(connection.getResponseCode(), is(202));
+    }
+
+}
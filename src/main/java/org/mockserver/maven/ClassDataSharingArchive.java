@@ -0,0 +1,131 @@
+package org.mockserver.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AppCDS (class data sharing) archive for the forked MockServer JVM, the archive is
+ * dumped by the first fork using -XX:ArchiveClassesAtExit and mapped by later forks
+ * using -XX:SharedArchiveFile, which avoids most of the class loading cost at startup
+ * <p>
+ * Archives are keyed by JVM version, MockServer version and a hash of the classpath,
+ * so any change to these creates a new archive instead of reusing a stale one
+ */
+public class ClassDataSharingArchive {
+
+    private static final int MINIMUM_JAVA_VERSION = 13;
+
+    private final File archiveFile;
+    private final List<String> classpath;
+
+    ClassDataSharingArchive(File archiveFile, List<String> classpath) {
+        this.archiveFile = archiveFile;
+        this.classpath = classpath;
+    }
+
+    public static ClassDataSharingArchive forClasspath(File cacheDirectory, String version, List<String> classpath) {
+        StringBuilder key = new StringBuilder()
+                .append(System.getProperty("java.vm.vendor")).append('|')
+                .append(System.getProperty("java.vm.version")).append('|')
+                .append(version);
+        for (String entry : classpath) {
+            File file = new File(entry);
+            key.append('|').append(file.getAbsolutePath()).append(':').append(file.length()).append(':').append(file.lastModified());
+        }
+        String fileName = "mockserver-" + version + "-java" + javaVersion() + "-" + sha256(key.toString()).substring(0, 16) + ".jsa";
+        return new ClassDataSharingArchive(new File(cacheDirectory, fileName), classpath);
+    }
+
+    static int javaVersion() {
+        String specificationVersion = System.getProperty("java.specification.version", "1.8");
+        if (specificationVersion.startsWith("1.")) {
+            specificationVersion = specificationVersion.substring(2);
+        }
+        try {
+            return Integer.parseInt(specificationVersion);
+        } catch (NumberFormatException nfe) {
+            return 8;
+        }
+    }
+
+    /**
+     * @return null if class data sharing can be used, otherwise the reason it can't
+     */
+    public String unsupportedReason() {
+        if (javaVersion() < MINIMUM_JAVA_VERSION) {
+            return "dynamic class data sharing archives require Java " + MINIMUM_JAVA_VERSION + " or later but running Java " + javaVersion();
+        }
+        for (String entry : classpath) {
+            // the JVM refuses to archive classes loaded from directories
+            if (!new File(entry).isFile()) {
+                return "classpath entry " + entry + " is not a jar file";
+            }
+        }
+        return null;
+    }
+
+    public boolean exists() {
+        return archiveFile.isFile() && archiveFile.length() > 0;
+    }
+
+    public File getArchiveFile() {
+        return archiveFile;
+    }
+
+    public List<String> jvmArguments() {
+        if (exists()) {
+            return new ArrayList<>(Arrays.asList("-Xshare:auto", "-XX:SharedArchiveFile=" + archiveFile.getAbsolutePath()));
+        } else {
+            File directory = archiveFile.getAbsoluteFile().getParentFile();
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IllegalStateException("Unable to create class data sharing archive directory " + directory.getAbsolutePath());
+            }
+            return new ArrayList<>(Arrays.asList("-XX:ArchiveClassesAtExit=" + archiveFile.getAbsolutePath()));
+        }
+    }
+
+    private File startupTimeFile() {
+        return new File(archiveFile.getAbsolutePath() + ".startup");
+    }
+
+    /**
+     * Records the startup time of the fork that created the archive to compare later forks against
+     */
+    public void recordStartupTimeWithoutArchive(long startupTimeMillis) {
+        try {
+            Files.write(startupTimeFile().toPath(), String.valueOf(startupTimeMillis).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ignore) {
+            // only used for reporting
+        }
+    }
+
+    public Long startupTimeWithoutArchive() {
+        try {
+            if (startupTimeFile().isFile()) {
+                return Long.parseLong(new String(Files.readAllBytes(startupTimeFile().toPath()), StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException | NumberFormatException ignore) {
+            // only used for reporting
+        }
+        return null;
+    }
+
+    static String sha256(String value) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new RuntimeException(nsae.getMessage(), nsae);
+        }
+    }
+}
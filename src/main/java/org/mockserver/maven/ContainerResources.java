@@ -0,0 +1,240 @@
+package org.mockserver.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CPUs and memory available to the build, limited by the cgroup (v2 or v1) CPU quota
+ * and memory limit when running in a container, used to size MockServer threads and the
+ * forked heap so several instances fit inside a container's limits
+ * <p>
+ * The limits are read from the process's own cgroup, found in /proc/self/cgroup, and each
+ * of its parents up to the cgroup root, taking the lowest, so limits set on a parent slice
+ * or on a cgroup other than the root still apply
+ */
+public class ContainerResources {
+
+    public static final String AUTO = "auto";
+    private static final File CGROUP_ROOT = new File("/sys/fs/cgroup");
+    private static final File PROC_SELF_CGROUP = new File("/proc/self/cgroup");
+    private static final String UNIFIED = "";
+    private static final long MINIMUM_HEAP_BYTES = 64L * 1024 * 1024;
+
+    private final int processors;
+    private final long memory;
+
+    ContainerResources(int processors, long memory) {
+        this.processors = processors;
+        this.memory = memory;
+    }
+
+    public static ContainerResources detect() {
+        return detect(CGROUP_ROOT, PROC_SELF_CGROUP, Runtime.getRuntime().availableProcessors(), hostMemory());
+    }
+
+    static ContainerResources detect(File cgroupRoot, File procSelfCgroup, int hostProcessors, long hostMemory) {
+        Map<String, String> cgroupPaths = cgroupPaths(procSelfCgroup);
+        int processors = hostProcessors;
+        Integer cpuQuota = cpuQuota(cgroupRoot, cgroupPaths);
+        if (cpuQuota != null) {
+            processors = Math.min(processors, cpuQuota);
+        }
+        long memory = hostMemory;
+        Long memoryLimit = memoryLimit(cgroupRoot, cgroupPaths);
+        if (memoryLimit != null) {
+            memory = Math.min(memory, memoryLimit);
+        }
+        return new ContainerResources(Math.max(1, processors), memory);
+    }
+
+    /**
+     * @return null if the sizing mode is valid, otherwise the reason it isn't
+     */
+    public static String unsupportedReason(String sizing) {
+        if (sizing != null && !sizing.isEmpty() && !AUTO.equals(sizing)) {
+            return "sizing \"" + sizing + "\" is not " + AUTO;
+        }
+        return null;
+    }
+
+    public int getProcessors() {
+        return processors;
+    }
+
+    public long getMemory() {
+        return memory;
+    }
+
+    /**
+     * @return the CPUs each of the given number of MockServer instances should use, at least one
+     */
+    public int processorsPerInstance(int instances) {
+        return Math.max(1, processors / Math.max(1, instances));
+    }
+
+    /**
+     * Half the memory is left for Maven and the test JVMs, the rest is split between the forked
+     * MockServer instances with a quarter of each share left for metaspace, thread stacks and
+     * direct buffers
+     *
+     * @return the maximum heap size in megabytes for each of the given number of forked MockServer instances or null if the memory is unknown
+     */
+    public Long maxHeapMegabytesPerInstance(int instances) {
+        if (memory == Long.MAX_VALUE) {
+            return null;
+        }
+        long heapBytes = Math.max(MINIMUM_HEAP_BYTES, memory / 2 / Math.max(1, instances) / 4 * 3);
+        return heapBytes / (1024 * 1024);
+    }
+
+    /**
+     * @return the CPU quota rounded up to whole CPUs or null if there is no quota
+     */
+    private static Integer cpuQuota(File cgroupRoot, Map<String, String> cgroupPaths) {
+        Integer cpuQuota = null;
+        for (File cgroup : hierarchy(cgroupRoot, cgroupPaths.get(UNIFIED))) {
+            // cgroup v2 "$MAX $PERIOD" where $MAX is "max" when unlimited
+            String cpuMax = read(new File(cgroup, "cpu.max"));
+            if (cpuMax != null) {
+                String[] values = cpuMax.split("\\s+");
+                cpuQuota = lowest(cpuQuota, values.length == 2 ? processors(values[0], values[1]) : null);
+            }
+        }
+        for (File cgroup : hierarchy(new File(cgroupRoot, "cpu"), cgroupPaths.get("cpu"))) {
+            // cgroup v1 quota is -1 when unlimited
+            cpuQuota = lowest(cpuQuota, processors(read(new File(cgroup, "cpu.cfs_quota_us")), read(new File(cgroup, "cpu.cfs_period_us"))));
+        }
+        return cpuQuota;
+    }
+
+    private static Integer processors(String quota, String period) {
+        try {
+            if (quota != null && period != null) {
+                long quotaMicros = Long.parseLong(quota);
+                long periodMicros = Long.parseLong(period);
+                if (quotaMicros > 0 && periodMicros > 0) {
+                    return (int) ((quotaMicros + periodMicros - 1) / periodMicros);
+                }
+            }
+        } catch (NumberFormatException ignore) {
+            // "max" or unreadable means no quota
+        }
+        return null;
+    }
+
+    /**
+     * @return the memory limit in bytes or null if there is no limit
+     */
+    private static Long memoryLimit(File cgroupRoot, Map<String, String> cgroupPaths) {
+        Long memoryLimit = null;
+        for (File cgroup : hierarchy(cgroupRoot, cgroupPaths.get(UNIFIED))) {
+            memoryLimit = lowest(memoryLimit, bytes(read(new File(cgroup, "memory.max"))));
+        }
+        for (File cgroup : hierarchy(new File(cgroupRoot, "memory"), cgroupPaths.get("memory"))) {
+            // cgroup v1 reports a very large number rather than -1 when unlimited which is ignored as larger than host memory
+            memoryLimit = lowest(memoryLimit, bytes(read(new File(cgroup, "memory.limit_in_bytes"))));
+        }
+        return memoryLimit;
+    }
+
+    private static Long bytes(String memoryLimit) {
+        try {
+            if (memoryLimit != null) {
+                long bytes = Long.parseLong(memoryLimit);
+                return bytes > 0 ? bytes : null;
+            }
+        } catch (NumberFormatException ignore) {
+            // "max" means no limit
+        }
+        return null;
+    }
+
+    private static <T extends Comparable<T>> T lowest(T current, T limit) {
+        return current == null || (limit != null && limit.compareTo(current) < 0) ? limit : current;
+    }
+
+    /**
+     * Reads the cgroup v2 path, from the "0::$PATH" line, and the cgroup v1 path of each
+     * controller, from the "$ID:$CONTROLLERS:$PATH" lines, of /proc/self/cgroup
+     *
+     * @return the cgroup path by controller with the cgroup v2 path under the empty controller name
+     */
+    private static Map<String, String> cgroupPaths(File procSelfCgroup) {
+        Map<String, String> cgroupPaths = new HashMap<>();
+        String content = read(procSelfCgroup);
+        if (content != null) {
+            for (String line : content.split("\\r?\\n")) {
+                String[] fields = line.split(":", 3);
+                if (fields.length == 3) {
+                    if (fields[1].isEmpty()) {
+                        cgroupPaths.put(UNIFIED, fields[2]);
+                    } else {
+                        for (String controller : fields[1].split(",")) {
+                            cgroupPaths.put(controller, fields[2]);
+                        }
+                    }
+                }
+            }
+        }
+        return cgroupPaths;
+    }
+
+    /**
+     * Without a cgroup namespace the path is the one on the host, which isn't mounted in the
+     * container, so only the directories that exist are read, always ending with the root
+     *
+     * @return the cgroup directory for the path and each of its parents up to and including the root
+     */
+    private static List<File> hierarchy(File root, String path) {
+        List<File> cgroups = new ArrayList<>();
+        if (path != null) {
+            File cgroup = root;
+            List<File> parents = new ArrayList<>();
+            for (String name : path.split("/")) {
+                if (!name.isEmpty() && !name.equals(".") && !name.equals("..")) {
+                    cgroup = new File(cgroup, name);
+                    parents.add(0, cgroup);
+                }
+            }
+            for (File parent : parents) {
+                if (parent.isDirectory()) {
+                    cgroups.add(parent);
+                }
+            }
+        }
+        cgroups.add(root);
+        return cgroups;
+    }
+
+    private static String read(File file) {
+        try {
+            if (file.isFile()) {
+                return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+            }
+        } catch (IOException ignore) {
+            // treated as no limit
+        }
+        return null;
+    }
+
+    private static long hostMemory() {
+        OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getTotalPhysicalMemorySize();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public String toString() {
+        return processors + " CPUs and " + (memory == Long.MAX_VALUE ? "unknown" : (memory / (1024 * 1024)) + "MB") + " memory";
+    }
+}
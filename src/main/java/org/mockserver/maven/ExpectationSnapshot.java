@@ -0,0 +1,316 @@
+package org.mockserver.maven;
+
+import com.google.common.io.ByteStreams;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.client.initialize.ExpectationInitializer;
+import org.mockserver.logging.MockServerLogger;
+import org.mockserver.mock.Expectation;
+import org.mockserver.netty.MockServer;
+import org.mockserver.serialization.ExpectationSerializer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The expectations of an initializationClass and initializationJson compiled into a gzip compressed
+ * json file that is loaded like any other initializationJson, so an unchanged initializer isn't
+ * re-run or re-validated, the snapshot is keyed by a hash of the json file, of the bytecode of the
+ * initializer class and the project classes it uses, and of the jars and resources it can read, so
+ * any change to them writes a new snapshot but recompiling unchanged classes doesn't
+ * <p>
+ * Class initializers are run against a client that records the expectations they add, those
+ * that do anything else, i.e. register object callbacks, can't be snapshot
+ */
+public class ExpectationSnapshot {
+
+    private static final String FORMAT_VERSION = "1";
+    private static final String FILE_PREFIX = "expectations-";
+    private static final String FILE_SUFFIX = ".json.gz";
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final Pattern DESCRIPTOR_TYPE = Pattern.compile("L([\\w/$]+);");
+
+    private final File file;
+    private final ExpectationInitializer initializerClass;
+    private final InitializationJson initializerJson;
+
+    ExpectationSnapshot(File file, ExpectationInitializer initializerClass, InitializationJson initializerJson) {
+        this.file = file;
+        this.initializerClass = initializerClass;
+        this.initializerJson = initializerJson;
+    }
+
+    public static ExpectationSnapshot forInitializers(File directory, ExpectationInitializer initializerClass, InitializationJson initializerJson, List<String> classpath) {
+        return new ExpectationSnapshot(new File(directory, FILE_PREFIX + key(initializerClass, initializerJson, classpath).substring(0, 16) + FILE_SUFFIX), initializerClass, initializerJson);
+    }
+
+    static String key(ExpectationInitializer initializerClass, InitializationJson initializerJson, List<String> classpath) {
+        StringBuilder key = new StringBuilder();
+        key.append("format=").append(FORMAT_VERSION).append('\n');
+        key.append("mockserver=").append(MockServer.class.getPackage().getImplementationVersion()).append('\n');
+        if (initializerJson != null) {
+            key.append("json=").append(initializerJson.contentHash()).append('\n');
+        }
+        if (initializerClass != null) {
+            // the bytecode of the initializer and the project classes it uses, so recompiling unchanged classes keeps the snapshot
+            for (Map.Entry<String, String> bytecodeHash : bytecodeHashes(initializerClass.getClass()).entrySet()) {
+                key.append("class=").append(bytecodeHash.getKey()).append('|').append(bytecodeHash.getValue()).append('\n');
+            }
+            // and the dependencies and resources it may read, neither of which is rewritten by a compile
+            if (classpath != null) {
+                for (String entry : classpath) {
+                    fingerprint(key, new File(entry));
+                }
+            }
+        }
+        return ClassDataSharingArchive.sha256(key.toString());
+    }
+
+    /**
+     * @return a hash of the bytecode of the initializer class and of every class it references, directly or
+     * indirectly, that is loaded from a classpath directory, i.e. not from a jar, sorted by class name
+     */
+    private static Map<String, String> bytecodeHashes(Class<?> initializerClass) {
+        ClassLoader classLoader = initializerClass.getClassLoader() != null ? initializerClass.getClassLoader() : ClassLoader.getSystemClassLoader();
+        Map<String, String> bytecodeHashes = new TreeMap<>();
+        Deque<String> classesToHash = new ArrayDeque<>();
+        classesToHash.add(initializerClass.getName().replace('.', '/'));
+        while (!classesToHash.isEmpty()) {
+            String className = classesToHash.poll();
+            if (!bytecodeHashes.containsKey(className)) {
+                URL resource = classLoader.getResource(className + ".class");
+                if (resource == null) {
+                    if (bytecodeHashes.isEmpty()) {
+                        throw new IllegalStateException("Unable to read bytecode of initializationClass " + initializerClass.getName());
+                    }
+                } else if (bytecodeHashes.isEmpty() || "file".equals(resource.getProtocol())) {
+                    try (InputStream inputStream = resource.openStream()) {
+                        byte[] bytecode = ByteStreams.toByteArray(inputStream);
+                        bytecodeHashes.put(className, sha256(new ByteArrayInputStream(bytecode)));
+                        classesToHash.addAll(referencedClasses(bytecode));
+                    } catch (IOException ioe) {
+                        throw new UncheckedIOException(ioe);
+                    }
+                }
+            }
+        }
+        return bytecodeHashes;
+    }
+
+    /**
+     * @return the classes named by the class and descriptor entries of the constant pool
+     */
+    private static Set<String> referencedClasses(byte[] bytecode) throws IOException {
+        DataInputStream classFile = new DataInputStream(new ByteArrayInputStream(bytecode));
+        // magic and version
+        classFile.skipBytes(8);
+        int constantPoolCount = classFile.readUnsignedShort();
+        Map<Integer, String> utf8 = new HashMap<>();
+        List<Integer> classNameIndexes = new ArrayList<>();
+        for (int index = 1; index < constantPoolCount; index++) {
+            int tag = classFile.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8.put(index, classFile.readUTF());
+                    break;
+                case 7:
+                    classNameIndexes.add(classFile.readUnsignedShort());
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    classFile.skipBytes(2);
+                    break;
+                case 15:
+                    classFile.skipBytes(3);
+                    break;
+                case 5:
+                case 6:
+                    classFile.skipBytes(8);
+                    // longs and doubles take two entries
+                    index++;
+                    break;
+                default:
+                    classFile.skipBytes(4);
+            }
+        }
+        Set<String> referencedClasses = new TreeSet<>();
+        for (Integer classNameIndex : classNameIndexes) {
+            String className = utf8.get(classNameIndex);
+            // array classes are named by their descriptor
+            if (className != null && !className.startsWith("[")) {
+                referencedClasses.add(className);
+            }
+        }
+        for (String value : utf8.values()) {
+            if (value.startsWith("(") || value.startsWith("L") || value.startsWith("[")) {
+                Matcher descriptorType = DESCRIPTOR_TYPE.matcher(value);
+                while (descriptorType.find()) {
+                    referencedClasses.add(descriptorType.group(1));
+                }
+            }
+        }
+        return referencedClasses;
+    }
+
+    private static void fingerprint(StringBuilder key, File entry) {
+        if (entry.isDirectory()) {
+            try (Stream<Path> paths = Files.walk(entry.toPath())) {
+                // compiled classes are covered by their bytecode hash
+                paths.filter(path -> Files.isRegularFile(path) && !path.toString().endsWith(".class")).sorted().forEach(path -> {
+                    File file = path.toFile();
+                    key.append(file.getAbsolutePath()).append('|').append(file.length()).append('|').append(file.lastModified()).append('\n');
+                });
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        } else {
+            key.append(entry.getAbsolutePath()).append('|').append(entry.length()).append('|').append(entry.lastModified()).append('\n');
+        }
+    }
+
+    static String sha256(InputStream inputStream) throws IOException {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : messageDigest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new RuntimeException(nsae.getMessage(), nsae);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean exists() {
+        return file.isFile();
+    }
+
+    /**
+     * Runs the initializers and writes the expectations they add to the snapshot, replacing any earlier snapshot in the same directory
+     *
+     * @return the number of expectations written
+     */
+    public int write() throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory.getAbsolutePath());
+        }
+        File temporaryFile = new File(directory, file.getName() + ".tmp");
+        try {
+            int count;
+            try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile))), StandardCharsets.UTF_8)) {
+                RecordingMockServerClient recordingClient = new RecordingMockServerClient(writer);
+                writer.write("[");
+                if (initializerClass != null) {
+                    initializerClass.initializeExpectations(recordingClient);
+                }
+                if (initializerJson != null) {
+                    initializerJson.forEachBatch(InitializationJson.BATCH_SIZE, recordingClient::upsert);
+                }
+                writer.write("]");
+                count = recordingClient.count;
+            }
+            // readers never see a partly written snapshot
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteStaleSnapshots(directory);
+            return count;
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    private void deleteStaleSnapshots(File directory) {
+        File[] snapshots = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX) && !name.equals(file.getName()));
+        if (snapshots != null) {
+            for (File snapshot : snapshots) {
+                if (!snapshot.delete()) {
+                    snapshot.deleteOnExit();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the expectations in the snapshot, read incrementally as for any other initializationJson but without
+     * validating them again as they were validated when the snapshot was written
+     */
+    public InitializationJson load() throws IOException {
+        return InitializationJson.ofSnapshot(file);
+    }
+
+    /**
+     * Writes each expectation it is given to the snapshot instead of sending it to a MockServer,
+     * every other operation fails as there is no MockServer for it to connect to
+     */
+    private static class RecordingMockServerClient extends MockServerClient {
+
+        private final Writer writer;
+        private final ExpectationSerializer expectationSerializer = new ExpectationSerializer(new MockServerLogger());
+        private int count;
+
+        RecordingMockServerClient(Writer writer) {
+            super("127.0.0.1", 0);
+            this.writer = writer;
+        }
+
+        @Override
+        public Expectation[] upsert(Expectation... expectations) {
+            List<Expectation> recordedExpectations = new ArrayList<>();
+            if (expectations != null) {
+                for (Expectation expectation : expectations) {
+                    try {
+                        writer.write((count++ > 0 ? "," : "") + expectationSerializer.serialize(expectation));
+                    } catch (IOException ioe) {
+                        throw new UncheckedIOException(ioe);
+                    }
+                    recordedExpectations.add(expectation);
+                }
+            }
+            return recordedExpectations.toArray(new Expectation[0]);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Expectation[] sendExpectation(Expectation... expectations) {
+            return upsert(expectations);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package org.mockserver.maven;
+
+import org.mockserver.log.model.LogEntry;
+import org.mockserver.logging.MockServerLogger;
+import org.slf4j.event.Level;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Uploads the expectations of an initializationJson to MockServer over HTTP in batches, with up to
+ * concurrency batches in flight at once on keep-alive connections, each request body is optionally
+ * gzip compressed, batches read ahead of the uploads are bounded by the concurrency so memory
+ * stays flat however many expectations there are
+ * <p>
+ * With a concurrency greater than 1 batches may be added out of order, as expectations with the same
+ * priority match in the order they were added overlapping expectations should set a priority
+ */
+public class ExpectationUploader {
+
+    public static final ExpectationUploader DEFAULT = new ExpectationUploader(InitializationJson.BATCH_SIZE, 1, false);
+    private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger(ExpectationUploader.class);
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final int batchSize;
+    private final int concurrency;
+    private final boolean gzip;
+
+    public ExpectationUploader(int batchSize, int concurrency, boolean gzip) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("initialization batchSize must be greater than 0 but was " + batchSize);
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("initialization concurrency must be greater than 0 but was " + concurrency);
+        }
+        this.batchSize = batchSize;
+        this.concurrency = concurrency;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @return the number of expectations uploaded
+     */
+    public int upload(String host, int port, InitializationJson initializationJson) {
+        long startTime = System.currentTimeMillis();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService executorService = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "MockServer-expectation-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> uploadFutures = new ArrayList<>();
+        try {
+            int count = initializationJson.forEachJsonBatch(batchSize, batch -> {
+                try {
+                    // blocks reading the next batch until an upload completes
+                    inFlight.acquire();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while uploading expectations from " + initializationJson, ie);
+                }
+                uploadFutures.add(executorService.submit(() -> {
+                    try {
+                        put(host, port, batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+                failFast(uploadFutures);
+            });
+            for (Future<?> uploadFuture : uploadFutures) {
+                uploadFuture.get();
+            }
+            long uploadTime = Math.max(1, System.currentTimeMillis() - startTime);
+            MOCK_SERVER_LOGGER.logEvent(
+                    new LogEntry()
+                            .setType(LogEntry.LogMessageType.SERVER_CONFIGURATION)
+                            .setLogLevel(Level.INFO)
+                            .setMessageFormat("uploaded " + count + " expectations from " + initializationJson + " to port " + port + " in " + uploadTime + "ms, " + (count * 1000L / uploadTime) + " expectations/s using batches of " + batchSize + " on " + concurrency + " connection" + (concurrency > 1 ? "s" : "") + (gzip ? " with gzip" : ""))
+            );
+            return count;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while uploading expectations from " + initializationJson, ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new RuntimeException(ee.getCause().getMessage(), ee.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void failFast(List<Future<?>> uploadFutures) {
+        for (Iterator<Future<?>> futures = uploadFutures.iterator(); futures.hasNext(); ) {
+            Future<?> uploadFuture = futures.next();
+            if (uploadFuture.isDone()) {
+                futures.remove();
+                try {
+                    uploadFuture.get();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ee) {
+                    // stop reading the file once any batch has failed
+                    throw ee.getCause() instanceof RuntimeException ? (RuntimeException) ee.getCause() : new RuntimeException(ee.getCause().getMessage(), ee.getCause());
+                }
+            }
+        }
+    }
+
+    private void put(String host, int port, String batch) throws IOException {
+        byte[] body = body(batch);
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", host, port, "/mockserver/expectation").openConnection();
+        connection.setRequestMethod("PUT");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+        if (gzip) {
+            connection.setRequestProperty("Content-Encoding", "gzip");
+        }
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body);
+        }
+        int statusCode = connection.getResponseCode();
+        if (statusCode >= 300) {
+            throw new IllegalStateException("MockServer on port " + port + " rejected expectations with status " + statusCode + " " + drain(connection.getErrorStream()));
+        }
+        // fully reading the response lets the connection be reused for the next batch
+        drain(connection.getInputStream());
+    }
+
+    private byte[] body(String batch) throws IOException {
+        byte[] json = batch.getBytes(StandardCharsets.UTF_8);
+        if (!gzip) {
+            return json;
+        }
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
+            gzipOutputStream.write(json);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private String drain(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            return "";
+        }
+        try (InputStream closeable = inputStream) {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = closeable.read(buffer)) != -1) {
+                byteArrayOutputStream.write(buffer, 0, read);
+            }
+            return new String(byteArrayOutputStream.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
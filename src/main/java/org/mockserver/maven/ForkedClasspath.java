@@ -0,0 +1,131 @@
+package org.mockserver.maven;
+
+import com.google.common.base.Joiner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Builds the JVM arguments that put the classpath on the forked MockServer JVM, either inline
+ * as -cp, as a JVM @argfile (Java 9+) or as a manifest only jar with a Class-Path attribute,
+ * the last two keep the command line short however many plugin dependencies are added
+ * <p>
+ * Argument files and manifest jars are named by a hash of the classpath so they are only
+ * written when the classpath changes
+ */
+public class ForkedClasspath {
+
+    public static final String INLINE = "inline";
+    public static final String ARG_FILE = "argFile";
+    public static final String MANIFEST_JAR = "manifestJar";
+    private static final int MINIMUM_ARG_FILE_JAVA_VERSION = 9;
+
+    private final File directory;
+    private final List<String> classPath;
+
+    public ForkedClasspath(File directory, List<String> classPath) {
+        this.directory = directory;
+        this.classPath = classPath;
+    }
+
+    /**
+     * @return null if the launch mode can be used, otherwise the reason it can't
+     */
+    public static String unsupportedReason(String launchMode) {
+        if (ARG_FILE.equals(launchMode) && ClassDataSharingArchive.javaVersion() < MINIMUM_ARG_FILE_JAVA_VERSION) {
+            return "argument files require Java " + MINIMUM_ARG_FILE_JAVA_VERSION + " or later but running Java " + ClassDataSharingArchive.javaVersion();
+        } else if (!INLINE.equals(launchMode) && !ARG_FILE.equals(launchMode) && !MANIFEST_JAR.equals(launchMode)) {
+            return "launch mode \"" + launchMode + "\" is not one of " + Arrays.asList(INLINE, ARG_FILE, MANIFEST_JAR);
+        }
+        return null;
+    }
+
+    public List<String> jvmArguments(String launchMode) {
+        if (ARG_FILE.equals(launchMode)) {
+            return Collections.singletonList("@" + argFile().getAbsolutePath());
+        } else if (MANIFEST_JAR.equals(launchMode)) {
+            return new ArrayList<>(Arrays.asList("-cp", manifestJar().getAbsolutePath()));
+        } else {
+            return new ArrayList<>(Arrays.asList("-cp", Joiner.on(File.pathSeparator).join(classPath)));
+        }
+    }
+
+    File argFile() {
+        File argFile = new File(directory, "runForked-" + hash() + ".argfile");
+        if (!argFile.isFile()) {
+            // backslashes are escape characters inside quoted argument file values
+            String content = "-cp \"" + Joiner.on(File.pathSeparator).join(classPath).replace("\\", "\\\\") + "\"";
+            write(argFile, content.getBytes(StandardCharsets.UTF_8));
+        }
+        return argFile;
+    }
+
+    File manifestJar() {
+        File manifestJar = new File(directory, "runForked-" + hash() + ".jar");
+        if (!manifestJar.isFile()) {
+            List<String> urls = new ArrayList<>();
+            for (String entry : classPath) {
+                // toURI encodes spaces and adds the trailing slash directories need
+                urls.add(new File(entry).toURI().toString());
+            }
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, Joiner.on(" ").join(urls));
+            File temporaryFile = temporaryFile(manifestJar);
+            try (OutputStream outputStream = new JarOutputStream(new FileOutputStream(temporaryFile), manifest)) {
+                outputStream.flush();
+            } catch (IOException ioe) {
+                throw new RuntimeException("Exception writing manifest jar " + manifestJar.getAbsolutePath(), ioe);
+            }
+            move(temporaryFile, manifestJar);
+        }
+        return manifestJar;
+    }
+
+    private String hash() {
+        return ClassDataSharingArchive.sha256(Joiner.on(File.pathSeparator).join(classPath)).substring(0, 16);
+    }
+
+    private void write(File file, byte[] content) {
+        File temporaryFile = temporaryFile(file);
+        try {
+            Files.write(temporaryFile.toPath(), content);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception writing " + file.getAbsolutePath(), ioe);
+        }
+        move(temporaryFile, file);
+    }
+
+    private void move(File from, File to) {
+        try {
+            // rename so concurrent forks never read a partial file
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception writing " + to.getAbsolutePath(), ioe);
+        }
+    }
+
+    private File temporaryFile(File file) {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IllegalStateException("Unable to create directory " + directory.getAbsolutePath());
+        }
+        try {
+            // unique so parallel builds sharing the directory don't write the same temporary file
+            return Files.createTempFile(directory.toPath(), file.getName(), ".tmp").toFile();
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception writing " + file.getAbsolutePath(), ioe);
+        }
+    }
+}
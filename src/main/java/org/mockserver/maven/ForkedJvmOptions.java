@@ -0,0 +1,139 @@
+package org.mockserver.maven;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Builds the JVM options for the forked MockServer from a profile, garbage collector,
+ * heap size and any extra options
+ * <p>
+ * Profiles:
+ * <ul>
+ * <li>fast-start - for short lived test servers, C1 only JIT, serial GC, class data sharing and no perf data file</li>
+ * <li>low-latency - for performance tests, ZGC (G1 with a short pause target before Java 15) and a pre-touched heap</li>
+ * </ul>
+ */
+public class ForkedJvmOptions {
+
+    public static final String FAST_START = "fast-start";
+    public static final String LOW_LATENCY = "low-latency";
+    private static final List<String> GARBAGE_COLLECTORS = Arrays.asList("serial", "parallel", "g1", "z", "shenandoah", "epsilon");
+
+    private final String profile;
+    private final String garbageCollector;
+    private final String heapSize;
+    private final String jvmOptions;
+    private final List<String> jvmArguments;
+    private Integer activeProcessorCount;
+    private Long maxHeapMegabytes;
+
+    public ForkedJvmOptions(String profile, String garbageCollector, String heapSize, String jvmOptions, List<String> jvmArguments) {
+        if (isNotBlank(profile) && !FAST_START.equals(profile) && !LOW_LATENCY.equals(profile)) {
+            throw new IllegalArgumentException("jvmProfile \"" + profile + "\" is not one of " + Arrays.asList(FAST_START, LOW_LATENCY));
+        }
+        if (isNotBlank(garbageCollector) && !GARBAGE_COLLECTORS.contains(garbageCollector)) {
+            throw new IllegalArgumentException("garbageCollector \"" + garbageCollector + "\" is not one of " + GARBAGE_COLLECTORS);
+        }
+        this.profile = profile;
+        this.garbageCollector = garbageCollector;
+        this.heapSize = heapSize;
+        this.jvmOptions = jvmOptions;
+        this.jvmArguments = jvmArguments;
+    }
+
+    /**
+     * Limits the CPUs the forked JVM sizes its GC and compiler threads from and its maximum
+     * heap, both only added when not set explicitly by heapSize or the JVM options
+     */
+    public ForkedJvmOptions withContainerLimits(Integer activeProcessorCount, Long maxHeapMegabytes) {
+        this.activeProcessorCount = activeProcessorCount;
+        this.maxHeapMegabytes = maxHeapMegabytes;
+        return this;
+    }
+
+    public String getProfile() {
+        return isNotBlank(profile) ? profile : "default";
+    }
+
+    public List<String> arguments() {
+        List<String> arguments = new ArrayList<>();
+        if (FAST_START.equals(profile)) {
+            arguments.add("-XX:TieredStopAtLevel=1");
+            arguments.add("-Xshare:auto");
+            arguments.add("-XX:-UsePerfData");
+            if (isBlank(garbageCollector)) {
+                arguments.add("-XX:+UseSerialGC");
+            }
+        } else if (LOW_LATENCY.equals(profile)) {
+            arguments.add("-XX:+AlwaysPreTouch");
+            if (isBlank(garbageCollector)) {
+                if (ClassDataSharingArchive.javaVersion() >= 15) {
+                    arguments.add("-XX:+UseZGC");
+                } else {
+                    arguments.add("-XX:+UseG1GC");
+                    arguments.add("-XX:MaxGCPauseMillis=10");
+                }
+            }
+        }
+        if (isNotBlank(garbageCollector)) {
+            arguments.addAll(garbageCollectorArguments(garbageCollector));
+        }
+        if (isNotBlank(heapSize)) {
+            // fixed size heap avoids resizing during short runs
+            arguments.add("-Xms" + heapSize);
+            arguments.add("-Xmx" + heapSize);
+        } else if (maxHeapMegabytes != null && !explicitlyConfigured("-Xmx")) {
+            arguments.add("-Xmx" + maxHeapMegabytes + "m");
+        }
+        if (activeProcessorCount != null && ClassDataSharingArchive.javaVersion() >= 10 && !explicitlyConfigured("-XX:ActiveProcessorCount=")) {
+            arguments.add("-XX:ActiveProcessorCount=" + activeProcessorCount);
+        }
+        if (isNotBlank(jvmOptions)) {
+            arguments.add(jvmOptions);
+        }
+        if (jvmArguments != null) {
+            for (String jvmArgument : jvmArguments) {
+                if (isNotBlank(jvmArgument)) {
+                    arguments.add(jvmArgument.trim());
+                }
+            }
+        }
+        return arguments;
+    }
+
+    private boolean explicitlyConfigured(String option) {
+        if (jvmOptions != null && jvmOptions.contains(option)) {
+            return true;
+        }
+        if (jvmArguments != null) {
+            for (String jvmArgument : jvmArguments) {
+                if (jvmArgument != null && jvmArgument.trim().startsWith(option)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<String> garbageCollectorArguments(String garbageCollector) {
+        switch (garbageCollector) {
+            case "serial":
+                return Arrays.asList("-XX:+UseSerialGC");
+            case "parallel":
+                return Arrays.asList("-XX:+UseParallelGC");
+            case "g1":
+                return Arrays.asList("-XX:+UseG1GC");
+            case "z":
+                return Arrays.asList("-XX:+UseZGC");
+            case "shenandoah":
+                return Arrays.asList("-XX:+UseShenandoahGC");
+            default:
+                // never collects so only suitable for short runs with a large enough heap
+                return Arrays.asList("-XX:+UnlockExperimentalVMOptions", "-XX:+UseEpsilonGC");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.mockserver.maven;
+
+import org.mockserver.cli.Main;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.netty.MockServer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point for the forked MockServer JVM, delegates to {@link Main} and then
+ * signals readiness (or failure) to the plugin using a {@link ReadinessHandshake},
+ * including the ports actually bound when any serverPort is 0
+ * <p>
+ * The forked classpath is only mockserver-netty-no-dependencies, which relocates the
+ * libraries it bundles, and this plugin so this class, and the plugin classes it uses,
+ * must only use JDK and MockServer classes, see ForkedMockServerLauncherTest
+ */
+public class ForkedMockServerLauncher {
+
+    public static void main(String... arguments) {
+        String readinessFile = System.getProperty(ReadinessHandshake.READINESS_FILE_PROPERTY);
+        ReadinessHandshake readinessHandshake = readinessFile != null ? new ReadinessHandshake(new File(readinessFile)) : null;
+        try {
+            List<Integer> ports = serverPorts(arguments);
+            if (ports.contains(0)) {
+                // Main doesn't expose the server so start it directly to find out which ports were bound
+                ports = startOnEphemeralPorts(ports, arguments);
+            } else {
+                // returns once MockServer has bound its ports or failed to start
+                Main.main(arguments);
+            }
+            if (readinessHandshake != null) {
+                List<Integer> unboundPorts = new ArrayList<>();
+                for (Integer port : ports) {
+                    if (!PortProbe.isListening(port)) {
+                        unboundPorts.add(port);
+                    }
+                }
+                if (!unboundPorts.isEmpty()) {
+                    throw new IllegalStateException("MockServer failed to bind to port " + unboundPorts);
+                }
+                readinessHandshake.signalReady(ports);
+            }
+            String daemonLeaseFile = System.getProperty(MockServerDaemon.LEASE_FILE_PROPERTY);
+            if (daemonLeaseFile != null) {
+                MockServerDaemon.exitWhenIdle(new File(daemonLeaseFile), Long.getLong(MockServerDaemon.IDLE_TIMEOUT_PROPERTY, 1800L));
+            }
+        } catch (Throwable throwable) {
+            // MockServer's threads may already be running so the JVM must exit and the plugin be told why
+            // straight away rather than leaving it waiting for the startTimeout
+            if (readinessHandshake != null) {
+                try {
+                    readinessHandshake.signalFailed(throwable.getClass().getName() + ": " + throwable.getMessage());
+                } catch (Throwable signalThrowable) {
+                    signalThrowable.printStackTrace();
+                }
+            }
+            throwable.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static List<Integer> startOnEphemeralPorts(List<Integer> ports, String... arguments) {
+        String logLevel = argument("-logLevel", arguments);
+        if (logLevel != null) {
+            ConfigurationProperties.logLevel(logLevel);
+        }
+        String proxyRemotePort = argument("-proxyRemotePort", arguments);
+        MockServer mockServer;
+        if (proxyRemotePort != null) {
+            String proxyRemoteHost = argument("-proxyRemoteHost", arguments);
+            mockServer = new MockServer(Integer.parseInt(proxyRemotePort), proxyRemoteHost != null ? proxyRemoteHost : "localhost", ports.toArray(new Integer[0]));
+        } else {
+            mockServer = new MockServer(ports.toArray(new Integer[0]));
+        }
+        return mockServer.getLocalPorts();
+    }
+
+    static List<Integer> serverPorts(String... arguments) {
+        String serverPort = argument("-serverPort", arguments);
+        return serverPort != null ? ReadinessHandshake.toPorts(serverPort) : new ArrayList<>();
+    }
+
+    static String argument(String name, String... arguments) {
+        for (int i = 0; i < arguments.length - 1; i++) {
+            if (name.equals(arguments[i])) {
+                return arguments[i + 1];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,204 @@
+package org.mockserver.maven;
+
+import com.google.common.base.Joiner;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Drains the combined stdout and stderr of a forked MockServer on a daemon thread so the
+ * forked JVM never blocks writing to a full pipe, the output is written to a log file
+ * rotated when it reaches a maximum size, and before the first write so the log of an earlier
+ * run is kept, and the last lines are kept in memory so they
+ * can be added to the error when the forked MockServer fails to start or stop
+ */
+public class ForkedProcessOutput {
+
+    private static final ConcurrentMap<String, ForkedProcessOutput> forkedProcessOutputs = new ConcurrentHashMap<>();
+
+    private final File logFile;
+    private final long maxFileSize;
+    private final int maxFiles;
+    private final int tailLines;
+    private final Deque<String> tail = new ArrayDeque<>();
+    private Thread thread;
+    private OutputStream outputStream;
+    private long fileSize;
+    private boolean opened;
+
+    ForkedProcessOutput(File logFile, long maxFileSize, int maxFiles, int tailLines) {
+        this.logFile = logFile;
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+        this.tailLines = tailLines;
+    }
+
+    /**
+     * Starts draining the output of a process started with redirectErrorStream(true)
+     */
+    public static ForkedProcessOutput drain(Process process, File logFile, long maxFileSize, int maxFiles, int tailLines) {
+        return new ForkedProcessOutput(logFile, maxFileSize, maxFiles, tailLines).drain(process.getInputStream());
+    }
+
+    /**
+     * Records the output of the forked MockServer on the given ports so the stopForked goal can report it
+     */
+    public void register(Integer[] ports) {
+        forkedProcessOutputs.put(Arrays.toString(ports), this);
+    }
+
+    /**
+     * @return the output of the forked MockServer on the given ports started by this build or null if there isn't one
+     */
+    public static ForkedProcessOutput forPorts(Integer[] ports) {
+        return ports != null ? forkedProcessOutputs.get(Arrays.toString(ports)) : null;
+    }
+
+    public static void unregister(Integer[] ports) {
+        if (ports != null) {
+            forkedProcessOutputs.remove(Arrays.toString(ports));
+        }
+    }
+
+    ForkedProcessOutput drain(InputStream inputStream) {
+        thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    append(line);
+                }
+            } catch (IOException ignore) {
+                // stream closed when the process is destroyed
+            } finally {
+                closeLogFile();
+            }
+        }, "MockServer-forked-output-" + logFile.getName());
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    public File getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Waits for the process output to end, i.e. after the process has exited
+     */
+    public void awaitEnd(long timeoutMillis) throws InterruptedException {
+        if (thread != null) {
+            thread.join(timeoutMillis);
+        }
+    }
+
+    /**
+     * @return the last lines of output
+     */
+    public String tail() {
+        synchronized (tail) {
+            return Joiner.on(System.lineSeparator()).join(new ArrayList<>(tail));
+        }
+    }
+
+    /**
+     * @return the last lines of output formatted to add to an error message
+     */
+    public String describe() {
+        String tail = tail();
+        return System.lineSeparator() + "output of forked MockServer is in " + logFile.getAbsolutePath()
+            + (tail.isEmpty() ? "" : ", last lines:" + System.lineSeparator() + tail);
+    }
+
+    private void append(String line) {
+        synchronized (tail) {
+            if (tailLines > 0) {
+                if (tail.size() == tailLines) {
+                    tail.removeFirst();
+                }
+                tail.addLast(line);
+            }
+        }
+        byte[] bytes = (line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        try {
+            if (outputStream == null) {
+                openLogFile();
+            } else if (fileSize + bytes.length > maxFileSize) {
+                rotate();
+            }
+            outputStream.write(bytes);
+            fileSize += bytes.length;
+        } catch (IOException ignore) {
+            // keep draining without the log file so the forked JVM never blocks
+            closeLogFile();
+        }
+    }
+
+    private void openLogFile() throws IOException {
+        File directory = logFile.getAbsoluteFile().getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory.getAbsolutePath());
+        }
+        if (!opened) {
+            opened = true;
+            // the log of an earlier run is kept as the most recent rotated file instead of being overwritten
+            if (logFile.length() > 0) {
+                rotateFiles();
+            }
+            outputStream = new FileOutputStream(logFile);
+            fileSize = 0;
+        } else {
+            // reopened after an error so the output already written is kept
+            outputStream = new FileOutputStream(logFile, true);
+            fileSize = logFile.length();
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeLogFile();
+        rotateFiles();
+        outputStream = new FileOutputStream(logFile);
+        fileSize = 0;
+    }
+
+    private void rotateFiles() throws IOException {
+        // log.1 is the most recent rotated file and log.<maxFiles> the oldest
+        for (int index = maxFiles - 1; index >= 1; index--) {
+            File rotated = rotatedFile(index);
+            if (rotated.exists()) {
+                Files.move(rotated.toPath(), rotatedFile(index + 1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (maxFiles > 0) {
+            Files.move(logFile.toPath(), rotatedFile(1).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    File rotatedFile(int index) {
+        return new File(logFile.getPath() + "." + index);
+    }
+
+    private void closeLogFile() {
+        if (outputStream != null) {
+            try {
+                outputStream.close();
+            } catch (IOException ignore) {
+                // nothing more to write
+            }
+            outputStream = null;
+        }
+    }
+}
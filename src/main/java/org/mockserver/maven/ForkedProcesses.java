@@ -0,0 +1,62 @@
+package org.mockserver.maven;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The forked MockServer JVMs started by this build by the ports they are bound to, so a
+ * forked MockServer that doesn't respond to a stop request can be killed
+ */
+public class ForkedProcesses {
+
+    private static final ConcurrentMap<String, Process> forkedProcesses = new ConcurrentHashMap<>();
+
+    public static void register(Integer[] ports, Process process) {
+        if (ports != null && process != null) {
+            forkedProcesses.put(Arrays.toString(ports), process);
+        }
+    }
+
+    /**
+     * @return the forked JVM bound to the given ports started by this build or null if there isn't one
+     */
+    public static Process forPorts(Integer[] ports) {
+        return ports != null ? forkedProcesses.get(Arrays.toString(ports)) : null;
+    }
+
+    public static void unregister(Integer[] ports) {
+        if (ports != null) {
+            forkedProcesses.remove(Arrays.toString(ports));
+        }
+    }
+
+    /**
+     * Destroys the forked JVM bound to the given ports, forcibly if it hasn't exited within half the timeout
+     *
+     * @return true if there was a forked JVM and it has exited
+     */
+    public static boolean kill(Integer[] ports, long timeout, TimeUnit unit) {
+        Process process = forPorts(ports);
+        if (process == null) {
+            return false;
+        }
+        long timeoutMillis = unit.toMillis(timeout);
+        try {
+            process.destroy();
+            if (!process.waitFor(timeoutMillis / 2, MILLISECONDS)) {
+                process.destroyForcibly().waitFor(timeoutMillis - timeoutMillis / 2, MILLISECONDS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        if (!process.isAlive()) {
+            unregister(ports);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package org.mockserver.maven;
+
+import org.mockserver.client.MockServerClient;
+import org.mockserver.mock.Expectation;
+import org.mockserver.mock.HttpState;
+import org.mockserver.netty.MockServer;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client for a MockServer running in the Maven JVM that adds expectations straight into its
+ * in-memory state instead of serialising them and sending them to it over loopback HTTP, every
+ * other operation, i.e. verify or reset, still uses HTTP
+ */
+public class InProcessMockServerClient extends MockServerClient {
+
+    private final HttpState httpState;
+
+    InProcessMockServerClient(MockServer mockServer, HttpState httpState) {
+        super("127.0.0.1", mockServer.getLocalPort());
+        this.httpState = httpState;
+    }
+
+    /**
+     * @return a client for the given MockServer or null if its in-memory state can't be reached,
+     * in which case expectations must be sent over HTTP
+     */
+    public static InProcessMockServerClient forMockServer(MockServer mockServer) {
+        HttpState httpState = httpState(mockServer);
+        return httpState != null ? new InProcessMockServerClient(mockServer, httpState) : null;
+    }
+
+    private static HttpState httpState(MockServer mockServer) {
+        // MockServer doesn't expose its state so the field is found by type rather than name
+        for (Class<?> type = mockServer.getClass(); type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (HttpState.class.isAssignableFrom(field.getType())) {
+                    try {
+                        field.setAccessible(true);
+                        return (HttpState) field.get(mockServer);
+                    } catch (IllegalAccessException | RuntimeException exception) {
+                        // i.e. InaccessibleObjectException if MockServer is in a module that isn't open
+                        return null;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Expectation[] upsert(Expectation... expectations) {
+        List<Expectation> upsertedExpectations = new ArrayList<>();
+        if (expectations != null) {
+            for (Expectation expectation : expectations) {
+                upsertedExpectations.addAll(httpState.add(expectation));
+            }
+        }
+        return upsertedExpectations.toArray(new Expectation[0]);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public Expectation[] sendExpectation(Expectation... expectations) {
+        return upsert(expectations);
+    }
+}
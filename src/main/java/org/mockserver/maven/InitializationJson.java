@@ -0,0 +1,493 @@
+package org.mockserver.maven;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import org.mockserver.log.model.LogEntry;
+import org.mockserver.logging.MockServerLogger;
+import org.mockserver.mock.Expectation;
+import org.mockserver.serialization.ExpectationSerializer;
+import org.mockserver.serialization.ObjectMapperFactory;
+import org.mockserver.serialization.model.ExpectationDTO;
+import org.slf4j.event.Level;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The expectations of an initializationJson file, parsed incrementally and handed on in bounded
+ * batches so only one batch is held in memory however large the file is, files ending .gz are
+ * decompressed as they are read
+ * <p>
+ * An initializationJson can also be a comma separated list of files and glob patterns, i.e.
+ * mocks/**&#47;*.json, the matched files are parsed in parallel, with at most one file per thread
+ * parsed ahead and each holding at most a couple of batches, but their expectations are handed on in the order the files were listed, and
+ * matched files in order of their path, so expectations with the same priority match the same
+ * way on every build
+ */
+public class InitializationJson {
+
+    public static final int BATCH_SIZE = 1000;
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.createObjectMapper();
+    private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger(InitializationJson.class);
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUED_BATCHES = 2;
+    private static final Pattern GLOB = Pattern.compile("[*?\\[{]");
+
+    private final String description;
+    private final File file;
+    private final byte[] content;
+    private final List<InitializationJson> files;
+    private final boolean validate;
+
+    private InitializationJson(String description, File file, byte[] content, List<InitializationJson> files, boolean validate) {
+        this.description = description;
+        this.file = file;
+        this.content = content;
+        this.files = files;
+        this.validate = validate;
+    }
+
+    public static InitializationJson ofFile(File file) throws FileNotFoundException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getAbsolutePath());
+        }
+        return new InitializationJson(file.getAbsolutePath(), file, null, null, true);
+    }
+
+    /**
+     * @return the expectations of a snapshot written by {@link ExpectationSnapshot}, which are read without
+     * validating them against the json schema again as they were validated before they were written
+     */
+    public static InitializationJson ofSnapshot(File file) throws FileNotFoundException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getAbsolutePath());
+        }
+        return new InitializationJson(file.getAbsolutePath(), file, null, null, false);
+    }
+
+    public static InitializationJson ofContent(String json) {
+        return new InitializationJson("inline json", null, json.getBytes(StandardCharsets.UTF_8), null, true);
+    }
+
+    /**
+     * @return the expectations of each file in turn
+     */
+    public static InitializationJson ofFiles(List<File> files) throws FileNotFoundException {
+        if (files.size() == 1) {
+            return ofFile(files.get(0));
+        }
+        List<InitializationJson> initializationJsons = new ArrayList<>();
+        for (File file : files) {
+            initializationJsons.add(ofFile(file));
+        }
+        return new InitializationJson(files.size() + " files", null, null, initializationJsons, true);
+    }
+
+    /**
+     * Resolves a comma separated list of files and glob patterns, relative entries are resolved against the
+     * first resource directory that contains them, a file in an earlier directory hides the same file in a
+     * later one, as a file in target/classes hides the same file in target/test-classes
+     *
+     * @return the matched files or null if there are no resource directories to resolve relative entries against
+     * @throws FileNotFoundException if a file doesn't exist or a glob pattern doesn't match any file
+     */
+    public static InitializationJson resolve(String initializationJson, List<File> resourceDirectories) throws FileNotFoundException {
+        return resolve(initializationJson, resourceDirectories, false);
+    }
+
+    /**
+     * As {@link #resolve(String, List)} but files that don't exist and glob patterns that don't match any file are
+     * left out, so while initializationJson is watched a file that is deleted removes its expectations
+     *
+     * @return the matched files, with no expectations if none match, or null if there are no resource directories
+     * to resolve relative entries against
+     */
+    public static InitializationJson resolveExisting(String initializationJson, List<File> resourceDirectories) throws FileNotFoundException {
+        return resolve(initializationJson, resourceDirectories, true);
+    }
+
+    private static InitializationJson resolve(String initializationJson, List<File> resourceDirectories, boolean existingOnly) throws FileNotFoundException {
+        Set<File> files = new LinkedHashSet<>();
+        boolean resolvable = false;
+        for (String entry : Splitter.on(',').trimResults().omitEmptyStrings().split(initializationJson)) {
+            List<File> baseDirectories = new File(entry).isAbsolute() ? Collections.singletonList(null) : resourceDirectories;
+            if (!baseDirectories.isEmpty()) {
+                resolvable = true;
+                files.addAll(GLOB.matcher(entry).find() ? matchGlob(entry, baseDirectories, existingOnly) : findFile(entry, baseDirectories, existingOnly));
+            }
+        }
+        if (files.isEmpty()) {
+            return existingOnly && resolvable ? ofFiles(Collections.emptyList()) : null;
+        }
+        return ofFiles(new ArrayList<>(files));
+    }
+
+    /**
+     * @return the existing directories that files matching initializationJson are in or could be added to, that is
+     * the directory of each file and, for glob patterns, every directory below the directory before the first glob
+     * segment, a directory that doesn't exist yet is replaced by its nearest existing parent so its creation is seen
+     */
+    public static Set<File> directories(String initializationJson, List<File> resourceDirectories) {
+        Set<File> directories = new LinkedHashSet<>();
+        for (String entry : Splitter.on(',').trimResults().omitEmptyStrings().split(initializationJson)) {
+            List<File> baseDirectories = new File(entry).isAbsolute() ? Collections.singletonList(null) : resourceDirectories;
+            for (File baseDirectory : baseDirectories) {
+                if (GLOB.matcher(entry).find()) {
+                    File root = globRoot(entry, baseDirectory);
+                    if (root.isDirectory()) {
+                        try (Stream<Path> paths = Files.walk(root.toPath())) {
+                            paths.filter(Files::isDirectory).forEach(path -> directories.add(path.toFile().getAbsoluteFile()));
+                        } catch (IOException ioe) {
+                            throw new UncheckedIOException(ioe);
+                        }
+                    } else {
+                        addExistingParent(directories, root);
+                    }
+                } else {
+                    addExistingParent(directories, new File(baseDirectory, entry).getAbsoluteFile().getParentFile());
+                }
+            }
+        }
+        return directories;
+    }
+
+    private static void addExistingParent(Set<File> directories, File directory) {
+        File existingDirectory = directory != null ? directory.getAbsoluteFile() : null;
+        while (existingDirectory != null && !existingDirectory.isDirectory()) {
+            existingDirectory = existingDirectory.getParentFile();
+        }
+        if (existingDirectory != null) {
+            directories.add(existingDirectory);
+        }
+    }
+
+    private static List<File> findFile(String entry, List<File> baseDirectories, boolean existingOnly) throws FileNotFoundException {
+        File file = null;
+        for (File baseDirectory : baseDirectories) {
+            file = new File(baseDirectory, entry);
+            if (file.isFile()) {
+                return Collections.singletonList(file);
+            }
+        }
+        if (existingOnly) {
+            return Collections.emptyList();
+        }
+        throw new FileNotFoundException(file.getAbsolutePath());
+    }
+
+    /**
+     * @return the directories before the first glob segment of the entry
+     */
+    private static File globRoot(String entry, File baseDirectory) {
+        List<String> segments = Splitter.onPattern("[/\\\\]").splitToList(entry);
+        String directory = Joiner.on(File.separator).join(segments.subList(0, globSegment(segments)));
+        return baseDirectory != null ? new File(baseDirectory, directory) : new File(directory.isEmpty() ? File.separator : directory);
+    }
+
+    private static int globSegment(List<String> segments) {
+        int globSegment = 0;
+        while (!GLOB.matcher(segments.get(globSegment)).find()) {
+            globSegment++;
+        }
+        return globSegment;
+    }
+
+    private static List<File> matchGlob(String entry, List<File> baseDirectories, boolean existingOnly) throws FileNotFoundException {
+        // the directories before the first glob segment are walked rather than the whole resource directory
+        List<String> segments = Splitter.onPattern("[/\\\\]").splitToList(entry);
+        String glob = Joiner.on('/').join(segments.subList(globSegment(segments), segments.size()));
+        PathMatcher pathMatcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        // so mocks/**/*.json also matches files directly in mocks as it would with ant
+        PathMatcher topLevelMatcher = glob.startsWith("**/") ? FileSystems.getDefault().getPathMatcher("glob:" + glob.substring(3)) : pathMatcher;
+        Map<String, File> matches = new TreeMap<>();
+        for (File baseDirectory : baseDirectories) {
+            Path root = globRoot(entry, baseDirectory).toPath();
+            if (Files.isDirectory(root)) {
+                try (Stream<Path> paths = Files.walk(root)) {
+                    paths.filter(Files::isRegularFile).forEach(path -> {
+                        Path relativePath = root.relativize(path);
+                        if (pathMatcher.matches(relativePath) || topLevelMatcher.matches(relativePath)) {
+                            matches.putIfAbsent(relativePath.toString().replace(File.separatorChar, '/'), path.toFile());
+                        }
+                    });
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            }
+        }
+        if (matches.isEmpty() && !existingOnly) {
+            throw new FileNotFoundException("no files match initializationJson " + entry);
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return every file the expectations are read from, none for inline json
+     */
+    public List<File> getFiles() {
+        List<File> allFiles = new ArrayList<>();
+        if (file != null) {
+            allFiles.add(file);
+        } else if (files != null) {
+            for (InitializationJson initializationJson : files) {
+                allFiles.add(initializationJson.file);
+            }
+        }
+        return allFiles;
+    }
+
+    /**
+     * @return a sha256 of the json as it is stored, i.e. still compressed for files ending .gz
+     */
+    public String contentHash() {
+        if (files != null) {
+            StringBuilder contentHashes = new StringBuilder();
+            for (InitializationJson initializationJson : files) {
+                contentHashes.append(initializationJson.description).append('|').append(initializationJson.contentHash()).append('\n');
+            }
+            return ClassDataSharingArchive.sha256(contentHashes.toString());
+        }
+        try (InputStream inputStream = file != null ? new FileInputStream(file) : new ByteArrayInputStream(content)) {
+            return ExpectationSnapshot.sha256(inputStream);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception reading initializationJson " + description, ioe);
+        }
+    }
+
+    private InputStream open() throws IOException {
+        if (file == null) {
+            return new ByteArrayInputStream(content);
+        }
+        InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+        return file.getName().endsWith(".gz") ? new GZIPInputStream(inputStream) : inputStream;
+    }
+
+    /**
+     * Passes the expectations to the consumer in batches of at most batchSize
+     *
+     * @return the number of expectations
+     */
+    public int forEachBatch(int batchSize, Consumer<Expectation[]> batchConsumer) {
+        if (files != null) {
+            return forEachFile((initializationJson, fileBatchConsumer) -> initializationJson.forEachBatch(batchSize, fileBatchConsumer), batchConsumer);
+        }
+        ExpectationSerializer expectationSerializer = new ExpectationSerializer(new MockServerLogger());
+        List<Expectation> batch = new ArrayList<>();
+        int count = forEachExpectation(expectation -> {
+            if (validate) {
+                batch.add(expectationSerializer.deserialize(expectation.toString()));
+            } else {
+                try {
+                    batch.add(OBJECT_MAPPER.treeToValue(expectation, ExpectationDTO.class).buildObject());
+                } catch (IOException ioe) {
+                    throw new UncheckedIOException(ioe);
+                }
+            }
+            if (batch.size() >= batchSize) {
+                batchConsumer.accept(batch.toArray(new Expectation[0]));
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            batchConsumer.accept(batch.toArray(new Expectation[0]));
+        }
+        return count;
+    }
+
+    /**
+     * Passes the expectations to the consumer as json arrays of at most batchSize expectations
+     * without deserialising them, so they can be sent to MockServer over HTTP as they are
+     *
+     * @return the number of expectations
+     */
+    public int forEachJsonBatch(int batchSize, Consumer<String> batchConsumer) {
+        if (files != null) {
+            return forEachFile((initializationJson, fileBatchConsumer) -> initializationJson.forEachJsonBatch(batchSize, fileBatchConsumer), batchConsumer);
+        }
+        List<String> batch = new ArrayList<>();
+        int count = forEachExpectation(expectation -> {
+            batch.add(expectation.toString());
+            if (batch.size() >= batchSize) {
+                batchConsumer.accept("[" + Joiner.on(",").join(batch) + "]");
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            batchConsumer.accept("[" + Joiner.on(",").join(batch) + "]");
+        }
+        return count;
+    }
+
+    /**
+     * Parses the files on a bounded pool and passes their batches to the consumer in the order of the files, each
+     * file hands its batches on through a queue of QUEUED_BATCHES so memory is bounded by batches not whole files
+     */
+    private <T> int forEachFile(BiFunction<InitializationJson, Consumer<T>, Integer> parser, Consumer<T> batchConsumer) {
+        int threads = Math.max(1, Math.min(files.size(), PARALLELISM));
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "MockServer-initialization-json");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Deque<ParsingFile<T>> parsing = new ArrayDeque<>();
+            int next = 0;
+            while (next < files.size() && parsing.size() < threads) {
+                parsing.add(new ParsingFile<>(executorService, files.get(next++), parser));
+            }
+            int count = 0;
+            while (!parsing.isEmpty()) {
+                ParsingFile<T> parsingFile = parsing.poll();
+                for (T batch = parsingFile.take(); batch != null; batch = parsingFile.take()) {
+                    batchConsumer.accept(batch);
+                }
+                count += parsingFile.parsed.get();
+                // only one file per thread is parsed ahead of the consumer
+                if (next < files.size()) {
+                    parsing.add(new ParsingFile<>(executorService, files.get(next++), parser));
+                }
+            }
+            return count;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading initializationJson " + description, ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new RuntimeException(ee.getCause().getMessage(), ee.getCause());
+        } finally {
+            // also interrupts any file blocked handing on a batch once the consumer has failed
+            executorService.shutdownNow();
+        }
+    }
+
+    private static class ParsingFile<T> {
+
+        private static final Object END_OF_FILE = new Object();
+
+        private final BlockingQueue<Object> batches = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        private final Future<Integer> parsed;
+
+        ParsingFile(ExecutorService executorService, InitializationJson initializationJson, BiFunction<InitializationJson, Consumer<T>, Integer> parser) {
+            this.parsed = executorService.submit(() -> {
+                long startTime = System.currentTimeMillis();
+                try {
+                    int count = parser.apply(initializationJson, batch -> {
+                        try {
+                            batches.put(batch);
+                        } catch (InterruptedException ie) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException("Interrupted while reading initializationJson " + initializationJson, ie);
+                        }
+                    });
+                    MOCK_SERVER_LOGGER.logEvent(
+                            new LogEntry()
+                                    .setType(LogEntry.LogMessageType.SERVER_CONFIGURATION)
+                                    .setLogLevel(Level.INFO)
+                                    .setMessageFormat("read " + count + " expectations from initializationJson " + initializationJson + " in " + (System.currentTimeMillis() - startTime) + "ms")
+                    );
+                    return count;
+                } finally {
+                    // also sent on failure so the consumer stops waiting and sees the exception
+                    batches.put(END_OF_FILE);
+                }
+            });
+        }
+
+        /**
+         * @return the next batch or null once the file has been read
+         */
+        @SuppressWarnings("unchecked")
+        T take() throws InterruptedException {
+            Object batch = batches.take();
+            return batch != END_OF_FILE ? (T) batch : null;
+        }
+    }
+
+    /**
+     * Passes each expectation of either a json array of expectations or a single expectation to the consumer
+     */
+    private int forEachExpectation(Consumer<JsonNode> expectationConsumer) {
+        int count = 0;
+        try (InputStream inputStream = open(); JsonParser parser = OBJECT_MAPPER.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                expectationConsumer.accept(OBJECT_MAPPER.readTree(parser));
+                requireEndOfInput(parser);
+                return 1;
+            } else if (token != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("initializationJson " + description + " must contain a json array of expectations or a single expectation");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                // only one expectation is read into a tree at a time
+                expectationConsumer.accept(OBJECT_MAPPER.readTree(parser));
+                count++;
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw invalidJson(parser, "expected an expectation or the end of the array but found " + parser.currentToken());
+            }
+            requireEndOfInput(parser);
+            return count;
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception reading initializationJson " + description, ioe);
+        }
+    }
+
+    private void requireEndOfInput(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != null) {
+            throw invalidJson(parser, "expected the end of the file but found " + token);
+        }
+    }
+
+    private IllegalArgumentException invalidJson(JsonParser parser, String message) {
+        JsonLocation location = parser.getTokenLocation();
+        return new IllegalArgumentException("initializationJson " + description + " is invalid at line " + location.getLineNr() + " column " + location.getColumnNr() + ", " + message);
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
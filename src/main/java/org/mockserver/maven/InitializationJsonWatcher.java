@@ -0,0 +1,250 @@
+package org.mockserver.maven;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.log.model.LogEntry;
+import org.mockserver.logging.MockServerLogger;
+import org.mockserver.mock.Expectation;
+import org.mockserver.model.ClearType;
+import org.mockserver.serialization.ExpectationSerializer;
+import org.mockserver.serialization.ObjectMapperFactory;
+import org.slf4j.event.Level;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static org.mockserver.model.ExpectationId.expectationId;
+
+/**
+ * Watches the initializationJson files of a running MockServer and, when any change, applies only
+ * the expectations that were added, changed or removed, so the request log and every other
+ * expectation are left as they are, deleting a file removes its expectations
+ * <p>
+ * Expectations are matched by id, those without an id in the json are given one from a hash of
+ * their content so an unchanged expectation keeps its id, changed or added expectations are
+ * upserted so they match after any expectation that wasn't changed
+ */
+public class InitializationJsonWatcher implements Closeable {
+
+    private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger(InitializationJsonWatcher.class);
+    private static final ObjectMapper OBJECT_MAPPER = ObjectMapperFactory.createObjectMapper();
+    // editors often write a file in several steps so changes are applied once the directory is quiet
+    private static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final String initializationJson;
+    private final List<File> resourceDirectories;
+    private final MockServerClient mockServerClient;
+    private final ExpectationSerializer expectationSerializer = new ExpectationSerializer(new MockServerLogger());
+    private final Set<Path> watchedDirectories = new HashSet<>();
+    private Map<String, String> contentHashes = new HashMap<>();
+    private WatchService watchService;
+    private Thread watchThread;
+
+    /**
+     * @param initializationJson  the comma separated files and glob patterns, resolved again each time any change
+     *                            so files that newly match a glob pattern are added and deleted files are removed
+     * @param resourceDirectories the directories relative entries are resolved against, these should be the source
+     *                            directories, i.e. src/main/resources, as the build doesn't copy them while it waits
+     */
+    public InitializationJsonWatcher(String initializationJson, List<File> resourceDirectories, MockServerClient mockServerClient) {
+        this.initializationJson = initializationJson;
+        this.resourceDirectories = resourceDirectories;
+        this.mockServerClient = mockServerClient;
+    }
+
+    /**
+     * Reads the initializationJson and applies any expectations that have changed since it was last read, the first
+     * read adds all of them, the expectations of files that no longer exist are removed, if it can't be read, i.e.
+     * while a file is half written, the running expectations are kept
+     *
+     * @return the number of expectations added, changed or removed
+     */
+    public synchronized int reload() {
+        InitializationJson currentInitializationJson;
+        Map<String, Expectation> expectations = new LinkedHashMap<>();
+        Map<String, String> currentContentHashes = new HashMap<>();
+        try {
+            // directories are watched first so a change made while the files are read is seen
+            watch();
+            currentInitializationJson = InitializationJson.resolveExisting(initializationJson, resourceDirectories);
+            if (currentInitializationJson == null) {
+                return 0;
+            }
+            read(currentInitializationJson, expectations, currentContentHashes);
+        } catch (IOException | RuntimeException e) {
+            MOCK_SERVER_LOGGER.logEvent(
+                    new LogEntry()
+                            .setType(LogEntry.LogMessageType.EXCEPTION)
+                            .setLogLevel(Level.WARN)
+                            .setMessageFormat("Exception reloading initializationJson " + initializationJson + ", keeping the running expectations")
+                            .setThrowable(e)
+            );
+            return 0;
+        }
+        List<Expectation> upserts = new ArrayList<>();
+        int added = 0;
+        for (Map.Entry<String, Expectation> expectation : expectations.entrySet()) {
+            String contentHash = contentHashes.get(expectation.getKey());
+            if (contentHash == null) {
+                added++;
+                upserts.add(expectation.getValue());
+            } else if (!contentHash.equals(currentContentHashes.get(expectation.getKey()))) {
+                upserts.add(expectation.getValue());
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String id : contentHashes.keySet()) {
+            if (!currentContentHashes.containsKey(id)) {
+                removed.add(id);
+            }
+        }
+        for (String id : removed) {
+            // only the expectation is cleared, the request log is kept
+            mockServerClient.clear(expectationId(id), ClearType.EXPECTATIONS);
+        }
+        if (!upserts.isEmpty()) {
+            mockServerClient.upsert(upserts.toArray(new Expectation[0]));
+        }
+        contentHashes = currentContentHashes;
+        int changes = upserts.size() + removed.size();
+        if (changes > 0) {
+            MOCK_SERVER_LOGGER.logEvent(
+                    new LogEntry()
+                            .setType(LogEntry.LogMessageType.SERVER_CONFIGURATION)
+                            .setLogLevel(Level.INFO)
+                            .setMessageFormat("reloaded initializationJson " + currentInitializationJson + " added " + added + " changed " + (upserts.size() - added) + " and removed " + removed.size() + " expectations")
+            );
+        }
+        return changes;
+    }
+
+    private void read(InitializationJson initializationJson, Map<String, Expectation> expectations, Map<String, String> contentHashes) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        initializationJson.forEachJsonBatch(InitializationJson.BATCH_SIZE, batch -> {
+            try {
+                for (JsonNode expectationNode : OBJECT_MAPPER.readTree(batch)) {
+                    String json = expectationNode.toString();
+                    String contentHash = ClassDataSharingArchive.sha256(json);
+                    String id;
+                    if (expectationNode.hasNonNull("id")) {
+                        id = expectationNode.get("id").asText();
+                    } else {
+                        // identical expectations are told apart by the order they appear in
+                        int occurrence = occurrences.merge(contentHash, 1, Integer::sum);
+                        id = "initializationJson-" + contentHash.substring(0, 16) + (occurrence > 1 ? "-" + occurrence : "");
+                        ((ObjectNode) expectationNode).put("id", id);
+                    }
+                    expectations.put(id, expectationSerializer.deserialize(expectationNode.toString()));
+                    contentHashes.put(id, contentHash);
+                }
+            } catch (IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        });
+    }
+
+    /**
+     * Registers any directory that has appeared since the last reload, i.e. below a glob pattern
+     */
+    private void watch() {
+        if (watchService != null) {
+            for (File file : InitializationJson.directories(initializationJson, resourceDirectories)) {
+                Path directory = file.toPath();
+                if (watchedDirectories.add(directory)) {
+                    try {
+                        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                    } catch (IOException ioe) {
+                        // i.e. deleted since it was found, it is tried again on the next reload
+                        watchedDirectories.remove(directory);
+                        MOCK_SERVER_LOGGER.logEvent(
+                                new LogEntry()
+                                        .setType(LogEntry.LogMessageType.EXCEPTION)
+                                        .setLogLevel(Level.WARN)
+                                        .setMessageFormat("Exception watching directory " + directory + " of initializationJson " + initializationJson)
+                                        .setThrowable(ioe)
+                        );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the expectations then watches the directories of the initializationJson files, and those below its glob
+     * patterns, on a daemon thread until closed
+     *
+     * @return the number of expectations added
+     */
+    public int start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        int count = reload();
+        watchThread = new Thread(this::watchForChanges, "MockServer-initialization-json-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        return count;
+    }
+
+    private void watchForChanges() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey watchKey = watchService.take();
+                do {
+                    watchKey.pollEvents();
+                    if (!watchKey.reset()) {
+                        // the directory was deleted, it is registered again if it comes back
+                        synchronized (this) {
+                            watchedDirectories.remove((Path) watchKey.watchable());
+                        }
+                    }
+                    watchKey = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                } while (watchKey != null);
+                try {
+                    reload();
+                } catch (RuntimeException re) {
+                    // i.e. MockServer rejected an expectation, the next change is applied as usual
+                    MOCK_SERVER_LOGGER.logEvent(
+                            new LogEntry()
+                                    .setType(LogEntry.LogMessageType.EXCEPTION)
+                                    .setLogLevel(Level.WARN)
+                                    .setMessageFormat("Exception applying initializationJson " + initializationJson + " changes")
+                                    .setThrowable(re)
+                    );
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignore) {
+            // closed
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchThread != null) {
+            watchThread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -3,15 +3,30 @@ package org.mockserver.maven;
 import com.google.common.base.Strings;
 import org.mockserver.client.MockServerClient;
 import org.mockserver.client.initialize.ExpectationInitializer;
+import org.mockserver.configuration.Configuration;
 import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.log.model.LogEntry;
 import org.mockserver.logging.MockServerLogger;
-import org.mockserver.mock.Expectation;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
 import org.mockserver.netty.MockServer;
-import org.mockserver.serialization.ExpectationSerializer;
+import org.slf4j.event.Level;
 
-import static java.util.concurrent.TimeUnit.SECONDS;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * @author jamesdbloom
@@ -19,9 +34,25 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 @SuppressWarnings("deprecation")
 public class InstanceHolder extends ObjectWithReflectiveEqualsHashCodeToString {
 
-    private MockServer mockServer;
+    private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger(InstanceHolder.class);
+
+    private final List<MockServer> mockServers = new CopyOnWriteArrayList<>();
+    private final List<LazyMockServer> lazyMockServers = new CopyOnWriteArrayList<>();
+    private volatile CompletableFuture<Void> backgroundStart;
+    private volatile Configuration configuration;
+
+    /**
+     * Sends the initializers over HTTP to the MockServer listening on the given ports, i.e. a forked MockServer
+     */
+    public static void runInitialization(Integer[] mockServerPorts, ExpectationInitializer expectationClassInitializer, InitializationJson expectationJsonInitializer) {
+        runInitialization(mockServerPorts, expectationClassInitializer, expectationJsonInitializer, ExpectationUploader.DEFAULT);
+    }
 
-    public static void runInitialization(Integer[] mockServerPorts, ExpectationInitializer expectationClassInitializer, String expectationJsonInitializer) {
+    /**
+     * Sends the initializers over HTTP to the MockServer listening on the given ports, i.e. a forked MockServer,
+     * the expectations of the initializationJson are uploaded in batches as they are read, see {@link ExpectationUploader}
+     */
+    public static void runInitialization(Integer[] mockServerPorts, ExpectationInitializer expectationClassInitializer, InitializationJson expectationJsonInitializer, ExpectationUploader expectationUploader) {
         if (mockServerPorts != null && mockServerPorts.length > 0) {
             if (expectationClassInitializer != null) {
                 expectationClassInitializer
@@ -29,63 +60,378 @@ public class InstanceHolder extends ObjectWithReflectiveEqualsHashCodeToString {
                                 new MockServerClient("127.0.0.1", mockServerPorts[0])
                         );
             }
-            if (isNotBlank(expectationJsonInitializer)) {
-                Expectation[] expectations = new ExpectationSerializer(new MockServerLogger()).deserializeArray(expectationJsonInitializer, false);
-                new MockServerClient("127.0.0.1", mockServerPorts[0]).sendExpectation(expectations);
+            if (expectationJsonInitializer != null) {
+                expectationUploader.upload("127.0.0.1", mockServerPorts[0], expectationJsonInitializer);
+            }
+        }
+    }
+
+    /**
+     * Loads the initializers into MockServer running in this JVM straight into its in-memory state,
+     * see {@link InProcessMockServerClient}, falling back to HTTP if that state can't be reached
+     */
+    public static void runInitialization(MockServer mockServer, ExpectationInitializer expectationClassInitializer, InitializationJson expectationJsonInitializer) {
+        if (expectationClassInitializer != null || expectationJsonInitializer != null) {
+            InProcessMockServerClient mockServerClient = InProcessMockServerClient.forMockServer(mockServer);
+            if (mockServerClient == null) {
+                runInitialization(mockServer.getLocalPorts().toArray(new Integer[0]), expectationClassInitializer, expectationJsonInitializer);
+                return;
+            }
+            if (expectationClassInitializer != null) {
+                expectationClassInitializer.initializeExpectations(mockServerClient);
+            }
+            if (expectationJsonInitializer != null) {
+                long startTime = System.currentTimeMillis();
+                int count = expectationJsonInitializer.forEachBatch(InitializationJson.BATCH_SIZE, mockServerClient::upsert);
+                long loadTime = Math.max(1, System.currentTimeMillis() - startTime);
+                MOCK_SERVER_LOGGER.logEvent(
+                        new LogEntry()
+                                .setType(LogEntry.LogMessageType.SERVER_CONFIGURATION)
+                                .setLogLevel(Level.INFO)
+                                .setMessageFormat("loaded " + count + " expectations from " + expectationJsonInitializer + " in process in " + loadTime + "ms, " + (count * 1000L / loadTime) + " expectations/s")
+                );
             }
         }
     }
 
-    public void start(final Integer[] mockServerPorts,
-                      final Integer proxyRemotePort,
-                      String proxyRemoteHost,
-                      final String logLevel,
-                      ExpectationInitializer expectationClassInitializer,
-                      String expectationJsonInitializer) {
-        if (mockServer == null || !mockServer.isRunning()) {
+    public synchronized void start(final Integer[] mockServerPorts,
+                                   final Integer proxyRemotePort,
+                                   String proxyRemoteHost,
+                                   final String logLevel,
+                                   ExpectationInitializer expectationClassInitializer,
+                                   InitializationJson expectationJsonInitializer) {
+        if (!isRunning()) {
             if (logLevel != null) {
                 ConfigurationProperties.logLevel(logLevel);
             }
             if (mockServerPorts != null && mockServerPorts.length > 0) {
-                if (proxyRemotePort != null && proxyRemotePort != -1) {
-                    if (Strings.isNullOrEmpty(proxyRemoteHost)) {
-                        proxyRemoteHost = "localhost";
-                    }
-                    mockServer = new MockServer(proxyRemotePort, proxyRemoteHost, mockServerPorts);
-                } else {
-                    mockServer = new MockServer(mockServerPorts);
-                }
-                MockServerAbstractMojo.mockServerPort(mockServer.getLocalPort());
+                MockServer mockServer = createMockServer(mockServerPorts, proxyRemotePort, proxyRemoteHost);
+                mockServers.add(mockServer);
+                runInitialization(mockServer, expectationClassInitializer, expectationJsonInitializer);
             }
-            runInitialization(mockServerPorts, expectationClassInitializer, expectationJsonInitializer);
         } else {
             throw new IllegalStateException("MockServer is already running!");
         }
     }
 
-    public void stop(final Integer[] mockServerPorts, boolean ignoreFailure) {
+    /**
+     * Runs the start on a background thread so the build can continue, use
+     * {@link #awaitStart(long, TimeUnit)} to wait for it to complete
+     */
+    public synchronized void startInBackground(Runnable start) {
+        if (isRunning() || isStarting()) {
+            throw new IllegalStateException("MockServer is already running!");
+        }
+        backgroundStart = CompletableFuture.runAsync(start, runnable -> {
+            Thread thread = new Thread(runnable, "MockServer-background-start");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    private boolean isStarting() {
+        return backgroundStart != null && !backgroundStart.isDone();
+    }
+
+    /**
+     * Blocks until a start running in the background has completed, returns immediately if there isn't one
+     *
+     * @return the ports each running instance is bound to
+     */
+    public List<Integer[]> awaitStart(long timeout, TimeUnit unit) {
+        CompletableFuture<Void> start = backgroundStart;
+        if (start != null) {
+            try {
+                start.get(timeout, unit);
+            } catch (TimeoutException te) {
+                throw new IllegalStateException("MockServer did not start within " + unit.toMillis(timeout) + "ms", te);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for MockServer to start", ie);
+            } catch (ExecutionException ee) {
+                throw new RuntimeException("Exception while starting MockServer " + ee.getCause().getMessage(), ee.getCause());
+            }
+        }
+        return getLocalPorts();
+    }
+
+    /**
+     * Binds the ports immediately but only starts MockServer, and runs the initializers,
+     * when the first connection arrives, see {@link LazyMockServer}
+     *
+     * @param maxConnections the most connections relayed to MockServer at once
+     */
+    public synchronized void startLazy(final Integer[] mockServerPorts,
+                                       final int maxConnections,
+                                       final Integer proxyRemotePort,
+                                       final String proxyRemoteHost,
+                                       final String logLevel,
+                                       final ExpectationInitializer expectationClassInitializer,
+                                       final InitializationJson expectationJsonInitializer) {
+        if (isRunning()) {
+            throw new IllegalStateException("MockServer is already running!");
+        }
+        if (logLevel != null) {
+            ConfigurationProperties.logLevel(logLevel);
+        }
         if (mockServerPorts != null && mockServerPorts.length > 0) {
+            lazyMockServers.add(new LazyMockServer(mockServerPorts, maxConnections, () -> {
+                // port unification means a single free port can serve connections relayed from every configured port
+                MockServer mockServer = createMockServer(new Integer[]{0}, proxyRemotePort, proxyRemoteHost);
+                runInitialization(mockServer, expectationClassInitializer, expectationJsonInitializer);
+                return mockServer;
+            }));
+        }
+    }
+
+    /**
+     * Starts a pool of MockServer instances in parallel, instance n (starting from 1) listens on
+     * the configured ports offset by (n - 1) * number of ports, so each surefire / failsafe fork
+     * can use its own instance, see {@link MockServerPort#mockServerPort()}, ports configured as 0
+     * bind each instance to a free port
+     *
+     * @return the ports of each instance in the pool
+     */
+    public synchronized List<Integer[]> startPool(final int poolSize,
+                                     final Integer[] mockServerPorts,
+                                     final Integer proxyRemotePort,
+                                     final String proxyRemoteHost,
+                                     final String logLevel,
+                                     final ExpectationInitializer expectationClassInitializer,
+                                     final InitializationJson expectationJsonInitializer) {
+        if (isRunning()) {
+            throw new IllegalStateException("MockServer is already running!");
+        }
+        if (logLevel != null) {
+            ConfigurationProperties.logLevel(logLevel);
+        }
+        if (mockServerPorts != null && mockServerPorts.length > 0) {
+            ExecutorService executorService = Executors.newFixedThreadPool(poolSize);
             try {
-                new MockServerClient("127.0.0.1", mockServerPorts[0]).stop(ignoreFailure).get().hasStopped();
-            } catch (Throwable throwable) {
-                if (!ignoreFailure) {
-                    throw new RuntimeException(throwable.getMessage(), throwable);
+                List<Future<MockServer>> startFutures = new ArrayList<>();
+                for (int instance = 1; instance <= poolSize; instance++) {
+                    Integer[] ports = poolPorts(mockServerPorts, instance);
+                    startFutures.add(executorService.submit(() -> createMockServer(ports, proxyRemotePort, proxyRemoteHost)));
+                }
+                ExecutionException startFailure = null;
+                for (Future<MockServer> startFuture : startFutures) {
+                    try {
+                        // keep every instance that did start so stop() can clean up after a partial failure
+                        mockServers.add(startFuture.get());
+                    } catch (ExecutionException ee) {
+                        startFailure = ee;
+                    }
+                }
+                if (startFailure != null) {
+                    throw startFailure;
+                }
+                List<Future<?>> initializationFutures = new ArrayList<>();
+                for (MockServer mockServer : mockServers) {
+                    initializationFutures.add(executorService.submit(() -> runInitialization(mockServer, expectationClassInitializer, expectationJsonInitializer)));
                 }
+                for (Future<?> initializationFuture : initializationFutures) {
+                    initializationFuture.get();
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting MockServer pool", ie);
+            } catch (ExecutionException ee) {
+                throw new RuntimeException("Exception while starting MockServer pool " + ee.getCause().getMessage(), ee.getCause());
+            } finally {
+                executorService.shutdown();
             }
         }
+        return getLocalPorts();
     }
 
-    public void stop() {
-        if (mockServer != null && mockServer.isRunning()) {
-            mockServer.stop();
+    static Integer[] poolPorts(Integer[] mockServerPorts, int instance) {
+        Integer[] ports = new Integer[mockServerPorts.length];
+        for (int i = 0; i < mockServerPorts.length; i++) {
+            ports[i] = mockServerPorts[i] == 0 ? 0 : mockServerPorts[i] + (instance - 1) * mockServerPorts.length;
+        }
+        return ports;
+    }
+
+    /**
+     * Sets the configuration of the MockServer instances this holder starts, each holder has its own so embedded
+     * MockServer instances of different projects in the same JVM don't share the JVM wide ConfigurationProperties
+     */
+    public void configure(Configuration configuration) {
+        this.configuration = configuration;
+    }
 
+    private MockServer createMockServer(Integer[] mockServerPorts, Integer proxyRemotePort, String proxyRemoteHost) {
+        Configuration configuration = this.configuration != null ? this.configuration : Configuration.configuration();
+        if (proxyRemotePort != null && proxyRemotePort != -1) {
+            if (Strings.isNullOrEmpty(proxyRemoteHost)) {
+                proxyRemoteHost = "localhost";
+            }
+            return new MockServer(configuration, proxyRemotePort, proxyRemoteHost, mockServerPorts);
+        } else {
+            return new MockServer(configuration, mockServerPorts);
+        }
+    }
+
+    /**
+     * @return the ports each running instance is bound to
+     */
+    public List<Integer[]> getLocalPorts() {
+        List<Integer[]> localPorts = new ArrayList<>();
+        for (MockServer mockServer : mockServers) {
+            if (mockServer.isRunning()) {
+                localPorts.add(mockServer.getLocalPorts().toArray(new Integer[0]));
+            }
+        }
+        for (LazyMockServer lazyMockServer : lazyMockServers) {
+            if (lazyMockServer.isRunning()) {
+                localPorts.add(lazyMockServer.getLocalPorts().toArray(new Integer[0]));
+            }
+        }
+        return localPorts;
+    }
+
+    public boolean isRunning() {
+        for (MockServer mockServer : mockServers) {
+            if (mockServer.isRunning()) {
+                return true;
+            }
+        }
+        for (LazyMockServer lazyMockServer : lazyMockServers) {
+            if (lazyMockServer.isRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops the MockServer listening on each of the ports, which may be separate MockServer
+     * instances, by sending a stop request to every listening port concurrently and waiting
+     * until all ports are released, a forked MockServer started by this build whose ports are
+     * not released within half the timeout is killed, see {@link ForkedProcesses}
+     *
+     * @return the time in milliseconds taken to stop
+     */
+    public long stop(final Integer[] mockServerPorts, boolean ignoreFailure, long timeout, TimeUnit unit) {
+        long startTime = System.currentTimeMillis();
+        if (mockServerPorts != null && mockServerPorts.length > 0) {
+            long timeoutMillis = unit.toMillis(timeout);
+            List<Integer> listeningPorts = new ArrayList<>();
+            for (Integer port : new LinkedHashSet<>(Arrays.asList(mockServerPorts))) {
+                if (PortProbe.isListening(port)) {
+                    listeningPorts.add(port);
+                }
+            }
+            if (!listeningPorts.isEmpty()) {
+                ExecutorService executorService = Executors.newFixedThreadPool(listeningPorts.size());
+                try {
+                    List<Future<?>> stopFutures = new ArrayList<>();
+                    for (Integer port : listeningPorts) {
+                        stopFutures.add(executorService.submit(() -> new MockServerClient("127.0.0.1", port).stop(true).get(timeoutMillis / 2, MILLISECONDS)));
+                    }
+                    for (Future<?> stopFuture : stopFutures) {
+                        try {
+                            stopFuture.get(Math.max(0, timeoutMillis / 2 - (System.currentTimeMillis() - startTime)), MILLISECONDS);
+                        } catch (ExecutionException | TimeoutException ignore) {
+                            // a port of an instance already stopped through another of its ports fails, only released ports matter
+                        }
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return System.currentTimeMillis() - startTime;
+                } finally {
+                    executorService.shutdownNow();
+                }
+                long remainingMillis = Math.max(0, timeoutMillis / 2 - (System.currentTimeMillis() - startTime));
+                if (!PortProbe.awaitReleased(remainingMillis, MILLISECONDS, listeningPorts)
+                    && !(ForkedProcesses.kill(mockServerPorts, timeoutMillis / 4, MILLISECONDS) && PortProbe.awaitReleased(timeoutMillis / 4, MILLISECONDS, listeningPorts))
+                    && !ignoreFailure) {
+                    throw new IllegalStateException("MockServer ports " + listeningPorts + " were not released within " + timeoutMillis + "ms");
+                }
+            }
+            ForkedProcesses.unregister(mockServerPorts);
+        }
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Stops the embedded MockServer and waits until its event loops have terminated
+     * and its ports are no longer accepting connections, this ensures shutdown has
+     * actually completed and won't cause class loader errors if the JVM starts
+     * unloading classes
+     *
+     * @return the time in milliseconds taken to stop
+     */
+    public long stop(long timeout, TimeUnit unit) {
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<Void> start = backgroundStart;
+        if (start != null) {
+            // let a background start finish so it doesn't leave MockServer running after stop,
+            // this must not hold the lock as the background start needs it
             try {
-                // ensure that shutdown has actually completed and won't
-                // cause class loader error if JVM starts unloading classes
-                SECONDS.sleep(3);
-            } catch (InterruptedException ignore) {
-                // ignore
+                start.get(timeout, unit);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return System.currentTimeMillis() - startTime;
+            } catch (ExecutionException | TimeoutException ignore) {
+                // stop whatever did start
+            }
+        }
+        return stopInstances(startTime, unit.toMillis(timeout));
+    }
+
+    private synchronized long stopInstances(long startTime, long timeoutMillis) {
+        backgroundStart = null;
+        List<Integer> localPorts = new ArrayList<>();
+        // every instance is asked to stop before waiting for any so they all shut down concurrently
+        Map<Future<?>, List<Integer>> stopFutures = new LinkedHashMap<>();
+        for (MockServer mockServer : mockServers) {
+            if (mockServer.isRunning()) {
+                localPorts.addAll(mockServer.getLocalPorts());
+                stopFutures.put(mockServer.stopAsync(), mockServer.getLocalPorts());
+            }
+        }
+        mockServers.clear();
+        for (LazyMockServer lazyMockServer : lazyMockServers) {
+            if (lazyMockServer.isRunning()) {
+                localPorts.addAll(lazyMockServer.getLocalPorts());
+                stopFutures.put(lazyMockServer.stopAsync(Math.max(0, timeoutMillis - (System.currentTimeMillis() - startTime)), MILLISECONDS), lazyMockServer.getLocalPorts());
+            }
+        }
+        lazyMockServers.clear();
+        List<String> failures = new ArrayList<>();
+        List<Throwable> causes = new ArrayList<>();
+        for (Map.Entry<Future<?>, List<Integer>> stopFuture : stopFutures.entrySet()) {
+            try {
+                stopFuture.getKey().get(Math.max(0, timeoutMillis - (System.currentTimeMillis() - startTime)), MILLISECONDS);
+            } catch (TimeoutException te) {
+                failures.add("MockServer on port(s) " + stopFuture.getValue() + " event loops did not terminate within " + timeoutMillis + "ms");
+                causes.add(te);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return System.currentTimeMillis() - startTime;
+            } catch (ExecutionException ee) {
+                failures.add("MockServer on port(s) " + stopFuture.getValue() + " failed to stop " + ee.getCause().getMessage());
+                causes.add(ee.getCause());
+            }
+        }
+        long remainingMillis = Math.max(0, timeoutMillis - (System.currentTimeMillis() - startTime));
+        if (!PortProbe.awaitReleased(remainingMillis, MILLISECONDS, localPorts)) {
+            List<Integer> listeningPorts = new ArrayList<>();
+            for (Integer localPort : localPorts) {
+                if (PortProbe.isListening(localPort)) {
+                    listeningPorts.add(localPort);
+                }
+            }
+            failures.add("MockServer ports " + listeningPorts + " were not released within " + timeoutMillis + "ms");
+        }
+        if (!failures.isEmpty()) {
+            IllegalStateException illegalStateException = new IllegalStateException(String.join(", ", failures), causes.isEmpty() ? null : causes.get(0));
+            for (Throwable cause : causes.subList(Math.min(1, causes.size()), causes.size())) {
+                illegalStateException.addSuppressed(cause);
             }
+            throw illegalStateException;
         }
+        return System.currentTimeMillis() - startTime;
     }
 }
@@ -0,0 +1,131 @@
+package org.mockserver.maven;
+
+import org.mockserver.log.model.LogEntry;
+import org.mockserver.logging.MockServerLogger;
+import org.mockserver.netty.MockServer;
+import org.slf4j.event.Level;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Binds the MockServer ports with a lightweight NIO acceptor and only boots MockServer,
+ * and runs the initializers, when the first connection arrives, so builds whose tests
+ * never connect don't pay the cost of starting MockServer
+ * <p>
+ * MockServer listens on a free port and accepted connections are relayed to it, so every
+ * request takes an extra loopback hop, connections accepted while MockServer boots are held
+ * until it is ready, once MockServer stops, i.e. after a request to /mockserver/stop, the
+ * acceptor is closed so the ports are released
+ */
+public class LazyMockServer {
+
+    private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger(LazyMockServer.class);
+
+    private final Supplier<MockServer> mockServerFactory;
+    private final CompletableFuture<MockServer> mockServer = new CompletableFuture<>();
+    private final AtomicBoolean booting = new AtomicBoolean(false);
+    private final TcpRelay relay;
+
+    public LazyMockServer(Integer[] ports, Supplier<MockServer> mockServerFactory) {
+        this(ports, TcpRelay.DEFAULT_MAX_CONNECTIONS, mockServerFactory);
+    }
+
+    /**
+     * @param maxConnections the most connections relayed at once, those beyond it are closed as soon as they are accepted
+     */
+    public LazyMockServer(Integer[] ports, int maxConnections, Supplier<MockServer> mockServerFactory) {
+        this.mockServerFactory = mockServerFactory;
+        this.relay = new TcpRelay("lazy", ports, maxConnections, client -> {
+            boot();
+            // connections accepted while MockServer boots are relayed once it is ready
+            return mockServer.thenApply(MockServer::getLocalPort);
+        });
+    }
+
+    public List<Integer> getLocalPorts() {
+        return relay.getLocalPorts();
+    }
+
+    public boolean isRunning() {
+        return relay.isRunning();
+    }
+
+    /**
+     * @return true once the first connection has arrived and MockServer has booted
+     */
+    public boolean isStarted() {
+        return mockServer.isDone() && !mockServer.isCompletedExceptionally();
+    }
+
+    /**
+     * @return true once the first connection has arrived, whether or not MockServer has finished booting
+     */
+    public boolean isBooting() {
+        return booting.get();
+    }
+
+    private void boot() {
+        if (booting.compareAndSet(false, true)) {
+            relay.execute(() -> {
+                long startTime = System.currentTimeMillis();
+                try {
+                    MockServer startedMockServer = mockServerFactory.get();
+                    mockServer.complete(startedMockServer);
+                    // nothing is left to relay to once MockServer is stopped by a request relayed to it
+                    relay.stopWhen(() -> !startedMockServer.isRunning());
+                    MOCK_SERVER_LOGGER.logEvent(
+                            new LogEntry()
+                                    .setType(LogEntry.LogMessageType.SERVER_CONFIGURATION)
+                                    .setLogLevel(Level.INFO)
+                                    .setMessageFormat("started MockServer for port(s) " + getLocalPorts() + " on first connection in " + (System.currentTimeMillis() - startTime) + "ms")
+                    );
+                } catch (Throwable throwable) {
+                    mockServer.completeExceptionally(throwable);
+                    MOCK_SERVER_LOGGER.logEvent(
+                            new LogEntry()
+                                    .setType(LogEntry.LogMessageType.EXCEPTION)
+                                    .setLogLevel(Level.ERROR)
+                                    .setMessageFormat("Exception starting lazy MockServer for port(s) " + getLocalPorts())
+                                    .setThrowable(throwable)
+                    );
+                }
+            });
+        }
+    }
+
+    /**
+     * Closes the acceptor and any relayed connections and stops MockServer if it was booted, a boot
+     * still in progress after the timeout is left to finish on its own and MockServer is stopped once
+     * it has started
+     *
+     * @return a future that completes once MockServer has stopped, or fails if the boot didn't finish in time
+     */
+    public Future<?> stopAsync(long timeout, TimeUnit unit) {
+        relay.closeAcceptor();
+        Future<?> stopFuture = CompletableFuture.completedFuture(null);
+        if (booting.get()) {
+            try {
+                // wait for a boot already in progress so MockServer isn't left running
+                stopFuture = mockServer.get(timeout, unit).stopAsync();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignore) {
+                // MockServer failed to start so there is nothing to stop
+            } catch (TimeoutException te) {
+                mockServer.thenAccept(MockServer::stopAsync);
+                CompletableFuture<Void> bootTimeout = new CompletableFuture<>();
+                bootTimeout.completeExceptionally(new IllegalStateException("MockServer for port(s) " + getLocalPorts() + " did not finish starting within " + unit.toMillis(timeout) + "ms, it is stopped once it has started", te));
+                stopFuture = bootTimeout;
+            }
+        }
+        relay.stop();
+        return stopFuture;
+    }
+}
@@ -5,8 +5,10 @@ import com.google.common.base.Splitter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
 import org.mockserver.client.initialize.ExpectationInitializer;
 import org.mockserver.configuration.IntegerStringListParser;
 import org.mockserver.log.model.LogEntry;
@@ -20,10 +22,21 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
-import static org.mockserver.file.FileReader.readFileFromClassPathOrPath;
 
 /**
  * @author jamesdbloom
@@ -38,16 +51,21 @@ import static org.mockserver.file.FileReader.readFileFromClassPathOrPath;
 public abstract class MockServerAbstractMojo extends AbstractMojo {
 
     private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger();
+    static final String DEFAULT_INSTANCE_KEY = "default";
+    static final String AUTO_PORT = "auto";
     /**
-     * Holds reference to jetty across plugin execution
+     * Holds reference to the MockServer instances of each project across plugin
+     * executions, keyed by project so parallel (-T) reactor builds don't share them
      */
     @VisibleForTesting
-    protected static InstanceHolder instanceHolder;
+    static final ConcurrentMap<String, InstanceHolder> instanceHolders = new ConcurrentHashMap<>();
 
     /**
      * The HTTP, HTTPS, SOCKS and HTTP CONNECT port for the MockServer
      * for both mocking and proxying requests. Port unification is used
      * to support all protocols for proxying and mocking on the same port.
+     * Use 0 or auto to bind to a free port, the port actually bound is
+     * published as the project property mockserver.mockServerPort
      */
     @Parameter(property = "mockserver.serverPort")
     protected String serverPort = "";
@@ -76,6 +94,12 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
     @Parameter(property = "mockserver.timeout")
     protected Integer timeout;
 
+    /**
+     * Maximum time in seconds to wait for MockServer to shut down and release its ports
+     */
+    @Parameter(property = "mockserver.stopTimeout", defaultValue = "10")
+    protected Integer stopTimeout = 10;
+
     /**
      * Optionally specify log level as TRACE, DEBUG, INFO, WARN, ERROR or
      * OFF. If not specified default is INFO.
@@ -83,6 +107,52 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
     @Parameter(property = "mockserver.logLevel", defaultValue = "INFO")
     protected String logLevel = "INFO";
 
+    /**
+     * Number of MockServer instances to start, each instance listens on the configured
+     * ports offset by the number of configured ports, i.e. with serverPort 1080 and a
+     * poolSize of 4 instances listen on 1080, 1081, 1082 and 1083. The ports of instance
+     * n are published as the system property mockserver.mockServerPort.n so that each
+     * surefire / failsafe fork can use its own instance by setting the system property
+     * mockserver.forkNumber to ${surefire.forkNumber}, see MockServerPort.mockServerPort()
+     */
+    @Parameter(property = "mockserver.poolSize", defaultValue = "1")
+    protected Integer poolSize = 1;
+
+    /**
+     * Independently configured MockServer instances, each with its own id, serverPort, proxyRemotePort,
+     * proxyRemoteHost, initializationClass, initializationJson and mode (embedded or forked), that are
+     * started concurrently and stopped concurrently so startup takes as long as the slowest instance,
+     * the ports of each instance are published as mockserver.mockServerPort.&lt;id&gt;, when set serverPort
+     * is ignored, see MockServerInstance
+     */
+    @Parameter
+    protected List<MockServerInstance> instances;
+
+    /**
+     * MockServer performance settings such as event loop and action handler thread counts,
+     * maxExpectations and maxLogEntries, see ServerConfiguration for all settings
+     */
+    @Parameter
+    protected ServerConfiguration serverConfiguration;
+
+    /**
+     * Set to auto to size the event loop and action handler threads (and the heap of forked
+     * MockServer JVMs) from the CPU quota and memory limit of the container the build runs in,
+     * read from cgroup v1 or v2 and falling back to the host, shared between the number of
+     * MockServer instances started at once, values set in serverConfiguration or heapSize win
+     */
+    @Parameter(property = "mockserver.sizing")
+    protected String sizing;
+
+    /**
+     * Project property the published MockServer ports are appended to as -Dmockserver.mockServerPort=...
+     * so surefire and failsafe forks receive them, by default argLine which surefire and failsafe use
+     * unless argLine is explicitly configured (in which case add @{argLine} to it), set to an empty
+     * value to disable
+     */
+    @Parameter(property = "mockserver.argLineProperty", defaultValue = "argLine")
+    protected String argLineProperty = "argLine";
+
     /**
      * Skip the plugin execution completely
      */
@@ -108,11 +178,22 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
     /**
      * To enable the creation of default expectations that are generic across all tests or mocking scenarios a json filed can be specified
      * to initialize expectations in the MockServer. It should be noted that it is generally better practice to create all expectations
-     * locally in each test (or test class) for clarity, simplicity and to avoid brittle tests
+     * locally in each test (or test class) for clarity, simplicity and to avoid brittle tests. A comma separated list of files and glob
+     * patterns, i.e. mocks/**&#47;*.json, can be specified, the files are parsed in parallel and their expectations added in the order
+     * listed, with the files matched by a pattern in order of their path
      */
     @Parameter(property = "mockserver.initializationJson")
     protected String initializationJson;
 
+    /**
+     * If true the expectations of initializationClass and initializationJson are compiled into a snapshot under
+     * target/mockserver/snapshots, keyed by a hash of the json file, of the bytecode of the initializer class and the
+     * project classes it uses and of the jars and resources on the classpath,
+     * later executions load the snapshot instead of re-running the class or re-validating the json until either changes
+     */
+    @Parameter(property = "mockserver.initializationSnapshot", defaultValue = "false")
+    protected boolean initializationSnapshot;
+
     /**
      * The main classpath location of the project using this plugin
      */
@@ -127,6 +208,8 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
 
     private String compileResourcePath;
     private String testResourcePath;
+    private InitializationJson initializationSnapshotJson;
+    private boolean initializationSnapshotCreated;
 
     /**
      * The plugin dependencies
@@ -137,28 +220,327 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
     @Parameter(defaultValue = "${session}", readonly = true, required = true)
     MavenSession session;
 
+    @Parameter(defaultValue = "${project}", readonly = true)
+    MavenProject project;
+
+    /**
+     * The build directory of the project using this plugin
+     */
+    @Parameter(defaultValue = "${project.build.directory}", readonly = true)
+    protected File buildDirectory;
+
     private Integer[] serverPorts;
 
+    ContainerResources containerResources;
+
     Integer[] getServerPorts() {
-        if (serverPorts == null && StringUtils.isNotEmpty(serverPort)) {
+        if (serverPorts == null) {
+            serverPorts = parseServerPorts(serverPort);
+        }
+        return serverPorts;
+    }
+
+    static Integer[] parseServerPorts(String serverPort) {
+        if (StringUtils.isNotEmpty(serverPort)) {
             List<Integer> ports = new ArrayList<>();
-            for (String port : Splitter.on(',').split(serverPort)) {
-                ports.add(Integer.parseInt(port));
+            for (String port : Splitter.on(',').trimResults().split(serverPort)) {
+                ports.add(AUTO_PORT.equalsIgnoreCase(port) ? 0 : Integer.parseInt(port));
             }
-            serverPorts = ports.toArray(new Integer[0]);
+            return ports.toArray(new Integer[0]);
         }
-        return serverPorts;
+        return null;
+    }
+
+    /**
+     * @return the ports published for the project being built by an earlier execution, or null if none have been published
+     */
+    protected Integer[] getPublishedMockServerPorts() {
+        return getPublishedMockServerPorts(MockServerPort.MOCK_SERVER_PORT_PROPERTY);
+    }
+
+    protected Integer[] getPublishedMockServerPorts(String property) {
+        String publishedPorts = project != null ? project.getProperties().getProperty(property) : null;
+        if (isNotBlank(publishedPorts)) {
+            return MockServerPort.toList(publishedPorts).toArray(new Integer[0]);
+        }
+        return null;
+    }
+
+    /**
+     * Directory used for files the plugin shares with forked MockServer JVMs
+     */
+    protected File getMockServerDirectory() {
+        return new File(buildDirectory != null ? buildDirectory : new File("target"), "mockserver");
+    }
+
+    /**
+     * Validates the serverConfiguration and uses it for the MockServer this project runs in the Maven JVM
+     */
+    protected void applyServerConfiguration() {
+        applyServerConfiguration(getLocalMockServerInstance());
+    }
+
+    private void applyServerConfiguration(InstanceHolder instanceHolder) {
+        ServerConfiguration serverConfiguration = effectiveServerConfiguration();
+        if (serverConfiguration != null) {
+            instanceHolder.configure(serverConfiguration.validate().toConfiguration());
+        }
+    }
+
+    /**
+     * @return the serverConfiguration with any auto sized values it doesn't set explicitly
+     */
+    protected ServerConfiguration effectiveServerConfiguration() {
+        if (isAutoSizing()) {
+            return ServerConfiguration.autoSized(getContainerResources().processorsPerInstance(concurrentInstances())).overriddenBy(serverConfiguration);
+        }
+        return serverConfiguration;
+    }
+
+    protected boolean isAutoSizing() {
+        String unsupportedReason = ContainerResources.unsupportedReason(sizing);
+        if (unsupportedReason != null) {
+            throw new IllegalArgumentException(unsupportedReason);
+        }
+        return ContainerResources.AUTO.equals(sizing);
+    }
+
+    /**
+     * @return the number of MockServer instances this execution runs at the same time
+     */
+    protected int concurrentInstances() {
+        if (hasInstances()) {
+            return instances.size();
+        }
+        return poolSize != null && poolSize > 1 ? poolSize : 1;
+    }
+
+    protected ContainerResources getContainerResources() {
+        if (containerResources == null) {
+            containerResources = ContainerResources.detect();
+            getLog().info("mockserver auto sizing for " + containerResources + " shared by " + concurrentInstances() + " MockServer instance" + (concurrentInstances() > 1 ? "s" : ""));
+        }
+        return containerResources;
+    }
+
+    /**
+     * @return the validated serverConfiguration as system property arguments for a forked MockServer
+     */
+    protected List<String> serverConfigurationArguments() {
+        List<String> arguments = new ArrayList<>();
+        ServerConfiguration serverConfiguration = effectiveServerConfiguration();
+        if (serverConfiguration != null) {
+            for (Map.Entry<String, String> systemProperty : serverConfiguration.validate().toSystemProperties().entrySet()) {
+                arguments.add("-D" + systemProperty.getKey() + "=" + systemProperty.getValue());
+            }
+        }
+        return arguments;
     }
 
     protected InstanceHolder getLocalMockServerInstance() {
-        if (instanceHolder == null) {
-            // create on demand to avoid log creation for skipped plugins
-            instanceHolder = new InstanceHolder();
+        // create on demand to avoid log creation for skipped plugins
+        return instanceHolders.computeIfAbsent(instanceKey(), key -> new InstanceHolder());
+    }
+
+    /**
+     * @return the holder of the embedded MockServer for an entry of instances, separate from the holder of serverPort
+     */
+    protected InstanceHolder getLocalMockServerInstance(MockServerInstance instance) {
+        return instanceHolders.computeIfAbsent(instanceKey(instance), key -> new InstanceHolder());
+    }
+
+    /**
+     * Forgets the holder once its MockServer has stopped, so a long running JVM, i.e. a Maven daemon,
+     * doesn't keep a holder for every project it has built, a later start creates a new holder
+     */
+    protected void removeLocalMockServerInstance(InstanceHolder instanceHolder) {
+        instanceHolders.remove(instanceKey(), instanceHolder);
+    }
+
+    protected boolean hasInstances() {
+        return instances != null && !instances.isEmpty();
+    }
+
+    /**
+     * Starts every entry of instances concurrently and waits for all of them to be ready, if any
+     * instance fails to start those that did start are stopped
+     */
+    protected void startInstances(String goal) {
+        Set<String> ids = new HashSet<>();
+        for (MockServerInstance instance : instances) {
+            if (!ids.add(instance.validate().getId())) {
+                throw new IllegalArgumentException("MockServer instance id \"" + instance.getId() + "\" is used more than once");
+            }
+        }
+        if (isNotBlank(serverPort)) {
+            getLog().warn(goal + " serverPort ignored as instances are configured");
+        }
+        // created on this thread as loading the initializers changes the context class loader
+        List<ExpectationInitializer> initializerClasses = new ArrayList<>();
+        List<InitializationJson> initializerJsons = new ArrayList<>();
+        for (MockServerInstance instance : instances) {
+            initializerClasses.add(createInitializerClass(instance.getInitializationClass()));
+            initializerJsons.add(createInitializerJson(instance.getInitializationJson()));
+        }
+        getLog().info(goal + " about to start " + instances.size() + " MockServer instances " + instances);
+        long startTime = System.currentTimeMillis();
+        ExecutorService executorService = Executors.newFixedThreadPool(instances.size());
+        try {
+            List<Future<Integer[]>> startFutures = new ArrayList<>();
+            for (int index = 0; index < instances.size(); index++) {
+                MockServerInstance instance = instances.get(index);
+                ExpectationInitializer initializerClass = initializerClasses.get(index);
+                InitializationJson initializerJson = initializerJsons.get(index);
+                startFutures.add(executorService.submit(() -> {
+                    long instanceStartTime = System.currentTimeMillis();
+                    Integer[] boundPorts = startInstance(instance, initializerClass, initializerJson);
+                    getLog().info(goal + " MockServer instance " + instance.getId() + " is running on: serverPort " + Arrays.toString(boundPorts) + " after " + (System.currentTimeMillis() - instanceStartTime) + "ms");
+                    return boundPorts;
+                }));
+            }
+            RuntimeException startFailure = null;
+            for (int index = 0; index < instances.size(); index++) {
+                try {
+                    Integer[] boundPorts = startFutures.get(index).get();
+                    publishMockServerPort(MockServerPort.MOCK_SERVER_PORT_PROPERTY + "." + instances.get(index).getId(), boundPorts);
+                } catch (ExecutionException ee) {
+                    if (startFailure == null) {
+                        startFailure = new RuntimeException("Exception while starting MockServer instance " + instances.get(index).getId() + " " + ee.getCause().getMessage(), ee.getCause());
+                    }
+                }
+            }
+            if (startFailure != null) {
+                // don't leave the instances that did start running for the next build
+                stopInstances(goal);
+                throw startFailure;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting MockServer instances", ie);
+        } finally {
+            executorService.shutdown();
+        }
+        getLog().info(goal + " started " + instances.size() + " MockServer instances in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    /**
+     * Starts an entry of instances, forked instances are only supported by goals that override this
+     *
+     * @return the ports the instance has bound
+     */
+    protected Integer[] startInstance(MockServerInstance instance, ExpectationInitializer initializerClass, InitializationJson initializerJson) {
+        if (instance.isForked()) {
+            throw new IllegalArgumentException("MockServer instance \"" + instance.getId() + "\" has mode " + MockServerInstance.FORKED + " which is only supported by the runForked goal");
+        }
+        InstanceHolder instanceHolder = getLocalMockServerInstance(instance);
+        applyServerConfiguration(instanceHolder);
+        instanceHolder.start(instance.getServerPorts(), instance.getProxyRemotePort(), instance.getProxyRemoteHost(), logLevel, initializerClass, initializerJson);
+        List<Integer[]> localPorts = instanceHolder.getLocalPorts();
+        return localPorts.isEmpty() ? instance.getServerPorts() : localPorts.get(0);
+    }
+
+    /**
+     * Stops every entry of instances concurrently, embedded instances are stopped in this JVM and
+     * forked instances are stopped using the ports published when they started
+     */
+    protected void stopInstances(String goal) {
+        long startTime = System.currentTimeMillis();
+        ExecutorService executorService = Executors.newFixedThreadPool(instances.size());
+        try {
+            List<Future<?>> stopFutures = new ArrayList<>();
+            for (MockServerInstance instance : instances) {
+                stopFutures.add(executorService.submit(() -> {
+                    long stopTime;
+                    InstanceHolder instanceHolder = getLocalMockServerInstance(instance);
+                    if (instance.isForked()) {
+                        Integer[] ports = getPublishedMockServerPorts(MockServerPort.MOCK_SERVER_PORT_PROPERTY + "." + instance.getId());
+                        stopTime = instanceHolder.stop(ports, true, stopTimeout, SECONDS);
+                    } else {
+                        stopTime = instanceHolder.stop(stopTimeout, SECONDS);
+                    }
+                    instanceHolders.remove(instanceKey(instance), instanceHolder);
+                    getLog().info(goal + " stopped MockServer instance " + instance.getId() + " in " + stopTime + "ms");
+                }));
+            }
+            for (Future<?> stopFuture : stopFutures) {
+                try {
+                    stopFuture.get();
+                } catch (ExecutionException ee) {
+                    getLog().warn(goal + " exception stopping MockServer instance " + ee.getCause().getMessage(), ee.getCause());
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executorService.shutdown();
+        }
+        getLog().info(goal + " stopped " + instances.size() + " MockServer instances in " + (System.currentTimeMillis() - startTime) + "ms");
+    }
+
+    private String instanceKey() {
+        if (project != null && project.getBasedir() != null) {
+            return project.getId() + "@" + project.getBasedir().getAbsolutePath();
+        } else if (project != null) {
+            return project.getId();
+        }
+        return DEFAULT_INSTANCE_KEY;
+    }
+
+    private String instanceKey(MockServerInstance instance) {
+        return instanceKey() + "#" + instance.getId();
+    }
+
+    /**
+     * Publishes the MockServer ports as the property mockserver.mockServerPort of the project
+     * being built, and as a system property for tests running in the Maven JVM, see
+     * {@link #publishMockServerPort(String, Integer...)}
+     */
+    protected void publishMockServerPort(Integer... ports) {
+        publishMockServerPort(MockServerPort.MOCK_SERVER_PORT_PROPERTY, ports);
+    }
+
+    /**
+     * Publishes the ports of each instance, for a pool the ports of instance n are also published as mockserver.mockServerPort.n
+     */
+    protected void publishMockServerPorts(List<Integer[]> instancePorts) {
+        if (!instancePorts.isEmpty()) {
+            publishMockServerPort(instancePorts.get(0));
+            if (instancePorts.size() > 1) {
+                for (int instance = 1; instance <= instancePorts.size(); instance++) {
+                    publishMockServerPort(MockServerPort.MOCK_SERVER_PORT_PROPERTY + "." + instance, instancePorts.get(instance - 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes the ports as a project property and on the argLine property so each module's forked tests see their
+     * own MockServer, the system property used by tests running in the Maven JVM (forkCount 0) is global to the JVM
+     * so the last module to publish it would win, in a parallel build it isn't set and such tests should pass the
+     * project property on, i.e. with the surefire systemPropertyVariables ${mockserver.mockServerPort}
+     */
+    protected void publishMockServerPort(String property, Integer... ports) {
+        String value = new IntegerStringListParser().toString(ports);
+        if (project != null) {
+            project.getProperties().setProperty(property, value);
+            if (isNotBlank(argLineProperty)) {
+                // replace any value published by an earlier execution and keep everything else, i.e. a jacoco agent
+                String argLine = project.getProperties().getProperty(argLineProperty, "").replaceAll("(^|\\s)-D" + Pattern.quote(property) + "=\\S*", "").trim();
+                project.getProperties().setProperty(argLineProperty, (argLine + " -D" + property + "=" + value).trim());
+            }
+        }
+        if (session == null || !session.isParallel()) {
+            System.setProperty(property, value);
         }
-        return instanceHolder;
     }
 
     protected ExpectationInitializer createInitializerClass() {
+        ExpectationInitializer initializerClass = createInitializerClass(initializationClass);
+        // the snapshot already holds the expectations the class adds
+        return createInitializationSnapshot() != null ? null : initializerClass;
+    }
+
+    protected ExpectationInitializer createInitializerClass(String initializationClass) {
         try {
             ClassLoader contextClassLoader = setupClasspath();
             HttpResponseClassCallbackActionHandler.setContextClassLoader(contextClassLoader);
@@ -187,15 +569,57 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
         return null;
     }
 
-    protected String createInitializerJson() {
-        try {
-            if (isNotBlank(initializationJson) && compileResourcePath != null) {
+    protected InitializationJson createInitializerJson() {
+        InitializationJson initializationSnapshotJson = createInitializationSnapshot();
+        return initializationSnapshotJson != null ? initializationSnapshotJson : createInitializerJson(initializationJson);
+    }
+
+    /**
+     * @return the expectations of initializationClass and initializationJson read from their snapshot, which is written
+     * first if there isn't one for their current content, or null if initializationSnapshot is false, neither initializer
+     * is configured or the snapshot can't be written, in which case the initializers are run as they are
+     */
+    protected InitializationJson createInitializationSnapshot() {
+        if (initializationSnapshot && !initializationSnapshotCreated) {
+            initializationSnapshotCreated = true;
+            ExpectationInitializer initializerClass = createInitializerClass(initializationClass);
+            InitializationJson initializerJson = createInitializerJson(initializationJson);
+            if (initializerClass != null || initializerJson != null) {
                 try {
-                    return readFileFromClassPathOrPath(compileResourcePath + "/" + initializationJson);
-                } catch (RuntimeException exception) {
-                    return readFileFromClassPathOrPath(testResourcePath + "/" + initializationJson);
+                    List<String> classpath = new ArrayList<>();
+                    if (compileClasspath != null) {
+                        classpath.addAll(compileClasspath);
+                    }
+                    if (testClasspath != null) {
+                        classpath.addAll(testClasspath);
+                    }
+                    ExpectationSnapshot expectationSnapshot = ExpectationSnapshot.forInitializers(new File(getMockServerDirectory(), "snapshots"), initializerClass, initializerJson, classpath);
+                    if (expectationSnapshot.exists()) {
+                        getLog().info("Loading expectations from snapshot " + expectationSnapshot.getFile().getAbsolutePath());
+                    } else {
+                        long startTime = System.currentTimeMillis();
+                        int count = expectationSnapshot.write();
+                        getLog().info("Wrote " + count + " expectations to snapshot " + expectationSnapshot.getFile().getAbsolutePath() + " in " + (System.currentTimeMillis() - startTime) + "ms");
+                    }
+                    initializationSnapshotJson = expectationSnapshot.load();
+                } catch (Throwable throwable) {
+                    getLog().warn("Unable to snapshot expectation initializers, running them without a snapshot", throwable);
                 }
             }
+        }
+        return initializationSnapshotJson;
+    }
+
+    /**
+     * @return the initializationJson files in the compile or test resources, or at absolute paths, read
+     * incrementally when used, or null if none are configured or any can't be found
+     */
+    protected InitializationJson createInitializerJson(String initializationJson) {
+        try {
+            if (isNotBlank(initializationJson)) {
+                // absolute paths, i.e. a snapshot published by another module, are used whatever the resource directories
+                return InitializationJson.resolve(initializationJson, resourceDirectories());
+            }
         } catch (Throwable throwable) {
             MOCK_SERVER_LOGGER.logEvent(
                     new LogEntry()
@@ -205,7 +629,38 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
                             .setThrowable(throwable)
             );
         }
-        return "";
+        return null;
+    }
+
+    private List<File> resourceDirectories() {
+        List<File> resourceDirectories = new ArrayList<>();
+        if (compileResourcePath != null) {
+            resourceDirectories.add(new File(compileResourcePath));
+            if (testResourcePath != null) {
+                resourceDirectories.add(new File(testResourcePath));
+            }
+        }
+        return resourceDirectories;
+    }
+
+    /**
+     * @return the directories resources are copied from, main then test, as the copies in target aren't updated while a
+     * goal such as run blocks the build, or the directories resources are copied to if the project has none
+     */
+    protected List<File> sourceResourceDirectories() {
+        List<File> sourceResourceDirectories = new ArrayList<>();
+        if (project != null && project.getBuild() != null) {
+            List<Resource> resources = new ArrayList<>(project.getBuild().getResources());
+            resources.addAll(project.getBuild().getTestResources());
+            for (Resource resource : resources) {
+                File directory = new File(resource.getDirectory());
+                if (!directory.isAbsolute() && project.getBasedir() != null) {
+                    directory = new File(project.getBasedir(), resource.getDirectory());
+                }
+                sourceResourceDirectories.add(directory);
+            }
+        }
+        return sourceResourceDirectories.isEmpty() ? resourceDirectories() : sourceResourceDirectories;
     }
 
     private ClassLoader setupClasspath() throws MalformedURLException {
@@ -232,7 +687,7 @@ public abstract class MockServerAbstractMojo extends AbstractMojo {
     }
 
     public static void mockServerPort(Integer... port) {
-        System.setProperty("mockserver.mockServerPort", new IntegerStringListParser().toString(port));
+        System.setProperty(MockServerPort.MOCK_SERVER_PORT_PROPERTY, new IntegerStringListParser().toString(port));
     }
 
 }
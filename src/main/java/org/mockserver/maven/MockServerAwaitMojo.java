@@ -0,0 +1,38 @@
+package org.mockserver.maven;
+
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Wait for a MockServer started in the background by the start goal (with backgroundStart) to be ready,
+ * fails the build if it failed to start
+ */
+@Mojo(name = "await", defaultPhase = LifecyclePhase.PRE_INTEGRATION_TEST)
+public class MockServerAwaitMojo extends MockServerAbstractMojo {
+
+    /**
+     * Maximum time in seconds to wait for MockServer to finish starting
+     */
+    @Parameter(property = "mockserver.startTimeout", defaultValue = "75")
+    protected Integer startTimeout = 75;
+
+    public void execute() {
+        if (skip) {
+            getLog().info("Skipping plugin execution");
+        } else {
+            long startTime = System.currentTimeMillis();
+            List<Integer[]> ports = getLocalMockServerInstance().awaitStart(startTimeout, SECONDS);
+            publishMockServerPorts(ports);
+            for (Integer[] instancePorts : ports) {
+                getLog().info("mockserver:await MockServer is running on: serverPort " + Arrays.toString(instancePorts));
+            }
+            getLog().info("mockserver:await waited " + (System.currentTimeMillis() - startTime) + "ms for MockServer to start");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.mockserver.maven;
+
+import org.mockserver.client.MockServerClient;
+import org.mockserver.mock.Expectation;
+import org.mockserver.model.RequestDefinition;
+import org.mockserver.verify.VerificationTimes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Verification and log retrieval across every shard of a MockServer cluster started by runForked
+ * with a clusterSize greater than 1, as each shard only records the requests that were relayed to it,
+ * each shard is queried concurrently and the results are merged, i.e.
+ * <pre>
+ * new MockServerCluster().verify(request().withPath("/orders"), VerificationTimes.exactly(1000));
+ * </pre>
+ */
+public class MockServerCluster {
+
+    private final List<Integer> shardPorts;
+    private final List<MockServerClient> shards = new ArrayList<>();
+
+    /**
+     * The cluster whose shard ports are published as the system property mockserver.mockServerShardPorts
+     */
+    public MockServerCluster() {
+        this("127.0.0.1", MockServerPort.mockServerShardPorts());
+    }
+
+    public MockServerCluster(String host, List<Integer> shardPorts) {
+        if (shardPorts.isEmpty()) {
+            throw new IllegalArgumentException("MockServer cluster shard ports have not been published as " + MockServerPort.MOCK_SERVER_SHARD_PORTS_PROPERTY);
+        }
+        this.shardPorts = shardPorts;
+        for (Integer shardPort : shardPorts) {
+            shards.add(new MockServerClient(host, shardPort));
+        }
+    }
+
+    /**
+     * Adds or updates the expectations on every shard
+     */
+    public MockServerCluster upsert(Expectation... expectations) {
+        forEachShard(shard -> shard.upsert(expectations));
+        return this;
+    }
+
+    /**
+     * Resets every shard clearing all expectations and recorded requests
+     */
+    public MockServerCluster reset() {
+        forEachShard(MockServerClient::reset);
+        return this;
+    }
+
+    /**
+     * @return the requests recorded by every shard that match the request definition
+     */
+    public RequestDefinition[] retrieveRecordedRequests(RequestDefinition requestDefinition) {
+        List<RequestDefinition> recordedRequests = new ArrayList<>();
+        for (RequestDefinition[] shardRequests : forEachShard(shard -> shard.retrieveRecordedRequests(requestDefinition))) {
+            recordedRequests.addAll(Arrays.asList(shardRequests));
+        }
+        return recordedRequests.toArray(new RequestDefinition[0]);
+    }
+
+    /**
+     * @return the log messages of every shard that match the request definition, grouped by shard
+     */
+    public String[] retrieveLogMessagesArray(RequestDefinition requestDefinition) {
+        List<String> logMessages = new ArrayList<>();
+        for (String[] shardLogMessages : forEachShard(shard -> shard.retrieveLogMessagesArray(requestDefinition))) {
+            logMessages.addAll(Arrays.asList(shardLogMessages));
+        }
+        return logMessages.toArray(new String[0]);
+    }
+
+    /**
+     * Verifies the number of requests received by the whole cluster matches the request definition
+     *
+     * @throws AssertionError if the number of matching requests across every shard doesn't match times
+     */
+    public MockServerCluster verify(RequestDefinition requestDefinition, VerificationTimes times) {
+        int count = retrieveRecordedRequests(requestDefinition).length;
+        if (!times.matches(count)) {
+            throw new AssertionError("Request not found " + times + " across MockServer cluster shards " + shardPorts + ", found " + count + " times, expected:<" + requestDefinition + ">");
+        }
+        return this;
+    }
+
+    private <T> List<T> forEachShard(Function<MockServerClient, T> action) {
+        ExecutorService executorService = Executors.newFixedThreadPool(shards.size());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (MockServerClient shard : shards) {
+                futures.add(executorService.submit(() -> action.apply(shard)));
+            }
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying MockServer cluster shards " + shardPorts, ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new RuntimeException(ee.getCause().getMessage(), ee.getCause());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.mockserver.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * A forked MockServer that is left running between Maven invocations
+ * <p>
+ * The daemon is identified by a hash of everything that affects how it was started
+ * (version, ports, JVM options, plugin dependencies, etc) which is stored in a lease
+ * file outside the build directory so it survives mvn clean. Each build that reattaches
+ * renews the lease and the forked JVM exits once the lease has not been renewed for the
+ * idle timeout
+ * <p>
+ * {@link #exitWhenIdle(File, long)} runs in the forked JVM so, as for {@link ReadinessHandshake},
+ * this class must only use JDK classes
+ */
+public class MockServerDaemon {
+
+    public static final String LEASE_FILE_PROPERTY = "mockserver.daemonLeaseFile";
+    public static final String IDLE_TIMEOUT_PROPERTY = "mockserver.daemonIdleTimeout";
+
+    private final File leaseFile;
+    private final String identity;
+
+    MockServerDaemon(File leaseFile, String identity) {
+        this.leaseFile = leaseFile;
+        this.identity = identity;
+    }
+
+    public static MockServerDaemon forConfiguration(File directory, Integer[] ports, Object... configuration) {
+        List<Object> configurationValues = new ArrayList<>();
+        for (Object value : configuration) {
+            configurationValues.add(value != null ? value : "");
+        }
+        String identity = ClassDataSharingArchive.sha256(ReadinessHandshake.join("|", Arrays.asList(ports)) + "|" + ReadinessHandshake.join("|", configurationValues));
+        return new MockServerDaemon(leaseFile(directory, ports), identity);
+    }
+
+    /**
+     * @return the daemon whose lease is for exactly these ports, or null if there is no lease for them
+     */
+    public static MockServerDaemon forLease(File directory, Integer[] ports) {
+        File leaseFile = leaseFile(directory, ports);
+        String identity = new MockServerDaemon(leaseFile, null).readIdentity();
+        return identity != null && !identity.isEmpty() ? new MockServerDaemon(leaseFile, identity) : null;
+    }
+
+    private static File leaseFile(File directory, Integer[] ports) {
+        return new File(directory, "daemon-" + ReadinessHandshake.join("-", Arrays.asList(ports)) + ".lease");
+    }
+
+    public static File defaultDirectory() {
+        return new File(System.getProperty("java.io.tmpdir"), "mockserver-daemons");
+    }
+
+    public File getLeaseFile() {
+        return leaseFile;
+    }
+
+    public File getLogFile() {
+        return new File(leaseFile.getAbsolutePath().replaceAll("\\.lease$", ".log"));
+    }
+
+    public String getIdentity() {
+        return identity;
+    }
+
+    /**
+     * @return true if a daemon started with the same configuration is still accepting connections on all ports
+     */
+    public boolean isRunning(Integer[] ports) {
+        if (!identity.equals(readIdentity())) {
+            return false;
+        }
+        for (Integer port : ports) {
+            if (!PortProbe.isListening(port)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String readIdentity() {
+        try {
+            if (leaseFile.isFile()) {
+                return new String(Files.readAllBytes(leaseFile.toPath()), StandardCharsets.UTF_8).trim();
+            }
+        } catch (IOException ignore) {
+            // treat as not running
+        }
+        return null;
+    }
+
+    public void renewLease() {
+        try {
+            File directory = leaseFile.getAbsoluteFile().getParentFile();
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IllegalStateException("Unable to create daemon directory " + directory.getAbsolutePath());
+            }
+            Files.write(leaseFile.toPath(), identity.getBytes(StandardCharsets.UTF_8));
+            if (!leaseFile.setLastModified(System.currentTimeMillis())) {
+                throw new IllegalStateException("Unable to renew daemon lease " + leaseFile.getAbsolutePath());
+            }
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception renewing daemon lease " + leaseFile.getAbsolutePath(), ioe);
+        }
+    }
+
+    /**
+     * Run in the forked JVM, exits the JVM once the lease file is removed or hasn't been renewed within the idle timeout
+     */
+    static void exitWhenIdle(File leaseFile, long idleTimeoutSeconds) {
+        long idleTimeoutMillis = SECONDS.toMillis(idleTimeoutSeconds);
+        long checkIntervalMillis = Math.max(1000, Math.min(SECONDS.toMillis(30), idleTimeoutMillis / 4));
+        Thread idleWatcher = new Thread(() -> {
+            while (true) {
+                try {
+                    MILLISECONDS.sleep(checkIntervalMillis);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                if (!leaseFile.isFile() || System.currentTimeMillis() - leaseFile.lastModified() > idleTimeoutMillis) {
+                    System.out.println("MockServer daemon idle for more than " + idleTimeoutSeconds + "s, shutting down");
+                    System.exit(0);
+                }
+            }
+        }, "MockServer-daemon-idle-watcher");
+        idleWatcher.setDaemon(true);
+        idleWatcher.start();
+    }
+}
@@ -0,0 +1,118 @@
+package org.mockserver.maven;
+
+import java.util.Arrays;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * An independently configured MockServer started alongside the others in an instances list, i.e.
+ * <pre>
+ * &lt;instances&gt;
+ *     &lt;instance&gt;
+ *         &lt;id&gt;payments&lt;/id&gt;
+ *         &lt;serverPort&gt;1080&lt;/serverPort&gt;
+ *         &lt;initializationJson&gt;payments.json&lt;/initializationJson&gt;
+ *     &lt;/instance&gt;
+ *     &lt;instance&gt;
+ *         &lt;id&gt;accounts&lt;/id&gt;
+ *         &lt;serverPort&gt;auto&lt;/serverPort&gt;
+ *         &lt;mode&gt;forked&lt;/mode&gt;
+ *     &lt;/instance&gt;
+ * &lt;/instances&gt;
+ * </pre>
+ * the ports of each instance are published as mockserver.mockServerPort.&lt;id&gt;
+ */
+public class MockServerInstance {
+
+    public static final String EMBEDDED = "embedded";
+    public static final String FORKED = "forked";
+
+    /**
+     * Identifies the instance in logs and in the published port property, must not be a number
+     */
+    String id;
+
+    /**
+     * The ports to listen on, 0 or auto binds a free port
+     */
+    String serverPort;
+
+    /**
+     * Optional port to proxy requests to
+     */
+    Integer proxyRemotePort;
+
+    /**
+     * Optional host to proxy requests to, defaults to localhost when proxyRemotePort is set
+     */
+    String proxyRemoteHost;
+
+    /**
+     * Optional class used to initialize expectations, see initializationClass on the plugin
+     */
+    String initializationClass;
+
+    /**
+     * Optional json file used to initialize expectations, see initializationJson on the plugin
+     */
+    String initializationJson;
+
+    /**
+     * embedded (default) runs MockServer in the Maven JVM, forked runs it in its own JVM
+     * and is only supported by the runForked goal
+     */
+    String mode = EMBEDDED;
+
+    public String getId() {
+        return id;
+    }
+
+    public Integer[] getServerPorts() {
+        return MockServerAbstractMojo.parseServerPorts(serverPort);
+    }
+
+    public Integer getProxyRemotePort() {
+        return proxyRemotePort != null ? proxyRemotePort : -1;
+    }
+
+    public String getProxyRemoteHost() {
+        return proxyRemoteHost;
+    }
+
+    public String getInitializationClass() {
+        return initializationClass;
+    }
+
+    public String getInitializationJson() {
+        return initializationJson;
+    }
+
+    public boolean isForked() {
+        return FORKED.equals(mode);
+    }
+
+    /**
+     * Checks the configuration so a misconfigured instance fails before any instance is started
+     */
+    public MockServerInstance validate() {
+        if (isBlank(id)) {
+            throw new IllegalArgumentException("MockServer instance id must be specified");
+        }
+        if (id.trim().matches("\\d+")) {
+            // numeric property suffixes are used by pools, see MockServerPort.mockServerPort()
+            throw new IllegalArgumentException("MockServer instance id \"" + id + "\" must not be a number");
+        }
+        if (isBlank(serverPort)) {
+            throw new IllegalArgumentException("MockServer instance \"" + id + "\" serverPort must be specified");
+        }
+        if (mode != null && !EMBEDDED.equals(mode) && !FORKED.equals(mode)) {
+            throw new IllegalArgumentException("MockServer instance \"" + id + "\" mode \"" + mode + "\" is not one of " + Arrays.asList(EMBEDDED, FORKED));
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return id + " on serverPort " + Arrays.toString(getServerPorts()) + " " + (isForked() ? FORKED : EMBEDDED);
+    }
+}
@@ -11,10 +11,25 @@ import java.util.List;
 
 public class MockServerPort {
 
+    public static final String MOCK_SERVER_PORT_PROPERTY = "mockserver.mockServerPort";
+    public static final String MOCK_SERVER_SHARD_PORTS_PROPERTY = "mockserver.mockServerShardPorts";
+    public static final String FORK_NUMBER_PROPERTY = "mockserver.forkNumber";
     private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger();
 
+    /**
+     * The ports of the MockServer started by the plugin, when a pool of instances has been
+     * started and the system property mockserver.forkNumber is set (i.e. to ${surefire.forkNumber})
+     * the ports of the instance for that fork are returned
+     */
     public static List<Integer> mockServerPort() {
-        final String mockServerPort = System.getProperty("mockserver.mockServerPort");
+        String mockServerPort = System.getProperty(MOCK_SERVER_PORT_PROPERTY);
+        String forkNumber = System.getProperty(FORK_NUMBER_PROPERTY);
+        if (forkNumber != null && System.getProperty(MOCK_SERVER_PORT_PROPERTY + "." + forkNumber.trim()) != null) {
+            mockServerPort = System.getProperty(MOCK_SERVER_PORT_PROPERTY + "." + forkNumber.trim());
+        }
+        if (mockServerPort == null) {
+            return Collections.emptyList();
+        }
         try {
             return toList(mockServerPort);
         } catch (NumberFormatException nfe) {
@@ -22,14 +37,31 @@ public class MockServerPort {
                     new LogEntry()
                             .setType(LogEntry.LogMessageType.EXCEPTION)
                             .setLogLevel(Level.ERROR)
-                            .setMessageFormat("NumberFormatException converting " + "mockserver.mockServerPort" + " with value [" + mockServerPort + "]")
+                            .setMessageFormat("NumberFormatException converting " + MOCK_SERVER_PORT_PROPERTY + " with value [" + mockServerPort + "]")
                             .setThrowable(nfe)
             );
             return Collections.emptyList();
         }
     }
 
-    private static List<Integer> toList(String integers) {
+    /**
+     * The ports of the MockServer instance with the given id from the instances list of the plugin
+     */
+    public static List<Integer> mockServerPort(String instanceId) {
+        String mockServerPort = System.getProperty(MOCK_SERVER_PORT_PROPERTY + "." + instanceId);
+        return mockServerPort != null ? toList(mockServerPort) : Collections.<Integer>emptyList();
+    }
+
+    /**
+     * The port of each shard of the MockServer cluster started by the plugin with a clusterSize
+     * greater than 1, see MockServerCluster
+     */
+    public static List<Integer> mockServerShardPorts() {
+        String shardPorts = System.getProperty(MOCK_SERVER_SHARD_PORTS_PROPERTY);
+        return shardPorts != null ? toList(shardPorts) : Collections.<Integer>emptyList();
+    }
+
+    static List<Integer> toList(String integers) {
         List<Integer> integerList = new ArrayList<>();
         for (String integer : Splitter.on(",").split(integers)) {
             try {
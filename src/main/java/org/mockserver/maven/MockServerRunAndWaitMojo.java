@@ -1,10 +1,14 @@
 package org.mockserver.maven;
 
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.mockserver.client.MockServerClient;
 import org.mockserver.client.initialize.ExpectationInitializer;
 import org.mockserver.configuration.ConfigurationProperties;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -24,6 +28,15 @@ public class MockServerRunAndWaitMojo extends MockServerAbstractMojo {
     @SuppressWarnings("FieldMayBeFinal")
     private CompletableFuture<Object> settableFuture = new CompletableFuture<>();
 
+    /**
+     * If true the initializationJson files are watched while MockServer runs and only the expectations that were added,
+     * changed or removed are applied to it when any of them change, leaving the request log as it is, expectations
+     * without an id are given one from a hash of their content, the initializationClass isn't reloaded, relative files are
+     * watched in the resource source directories, i.e. src/test/resources, so they are read without resource filtering
+     */
+    @Parameter(property = "mockserver.watchInitializationJson", defaultValue = "false")
+    protected boolean watchInitializationJson;
+
     public void execute() {
         if (isNotBlank(logLevel)) {
             ConfigurationProperties.logLevel(logLevel);
@@ -31,30 +44,61 @@ public class MockServerRunAndWaitMojo extends MockServerAbstractMojo {
         if (skip) {
             getLog().info("Skipping plugin execution");
         } else {
+            applyServerConfiguration();
             if (getLog().isInfoEnabled()) {
                 getLog().info("mockserver:run about to start MockServer on: "
                         + (getServerPorts() != null ? " serverPort " + Arrays.toString(getServerPorts()) : "")
                 );
             }
+            boolean watch = watchInitializationJson && isNotBlank(initializationJson);
+            if (watch && initializationSnapshot) {
+                getLog().warn("mockserver:run initializationSnapshot ignored as watchInitializationJson is true");
+                initializationSnapshot = false;
+            }
+            InitializationJsonWatcher initializationJsonWatcher = null;
             try {
                 ExpectationInitializer initializerClass = createInitializerClass();
-                String initializerJson = createInitializerJson();
+                // the watcher adds the json expectations itself so it knows the id of each of them
+                InitializationJson initializerJson = watch ? null : createInitializerJson();
+                getLocalMockServerInstance().start(getServerPorts(), proxyRemotePort, proxyRemoteHost, logLevel, initializerClass, initializerJson);
+                publishMockServerPorts(getLocalMockServerInstance().getLocalPorts());
+                if (watch) {
+                    initializationJsonWatcher = watchInitializationJson();
+                }
                 if (timeout != null && timeout > 0) {
-                    getLocalMockServerInstance().start(getServerPorts(), proxyRemotePort, proxyRemoteHost, logLevel, initializerClass, initializerJson);
                     try {
                         settableFuture.get(timeout, TimeUnit.SECONDS);
                     } catch (TimeoutException te) {
                         // do nothing this is an expected exception when the timeout expires
                     }
                 } else {
-                    getLocalMockServerInstance().start(getServerPorts(), proxyRemotePort, proxyRemoteHost, logLevel, initializerClass, initializerJson);
                     settableFuture.get();
                 }
             } catch (Exception e) {
                 getLog().error("Exception while running MockServer", e);
+            } finally {
+                if (initializationJsonWatcher != null) {
+                    try {
+                        initializationJsonWatcher.close();
+                    } catch (IOException ioe) {
+                        getLog().warn("mockserver:run exception closing initializationJson watcher", ioe);
+                    }
+                }
             }
         }
 
     }
 
+    private InitializationJsonWatcher watchInitializationJson() throws IOException {
+        List<Integer[]> localPorts = getLocalMockServerInstance().getLocalPorts();
+        if (localPorts.isEmpty() || localPorts.get(0).length == 0) {
+            return null;
+        }
+        // the source files are watched as resources aren't copied to target while run blocks the build
+        InitializationJsonWatcher initializationJsonWatcher = new InitializationJsonWatcher(initializationJson, sourceResourceDirectories(), new MockServerClient("127.0.0.1", localPorts.get(0)[0]));
+        int count = initializationJsonWatcher.start();
+        getLog().info("mockserver:run added " + count + " expectations from initializationJson " + initializationJson + " and is watching it for changes");
+        return initializationJsonWatcher;
+    }
+
 }
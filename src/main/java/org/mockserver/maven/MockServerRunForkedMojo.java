@@ -4,27 +4,38 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
+import org.apache.maven.RepositoryUtils;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.apache.maven.repository.RepositorySystem;
-import org.mockserver.cli.Main;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.ArtifactTypeRegistry;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.util.artifact.JavaScopes;
+import org.eclipse.aether.util.filter.DependencyFilterUtils;
 import org.mockserver.client.MockServerClient;
+import org.mockserver.client.initialize.ExpectationInitializer;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import static java.util.concurrent.TimeUnit.MILLISECONDS;
-import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockserver.maven.InstanceHolder.runInitialization;
 
 /**
@@ -40,19 +51,154 @@ import static org.mockserver.maven.InstanceHolder.runInitialization;
 public class MockServerRunForkedMojo extends MockServerAbstractMojo {
 
     /**
-     * Set JVM options for forked JVM
+     * Set JVM options for forked JVM, passed as a single argument, use jvmArguments for several options
      */
     @Parameter(property = "mockserver.jvmOptions")
     protected String jvmOptions;
 
+    /**
+     * JVM options for forked JVM, each passed as a separate argument after any jvmOptions
+     */
+    @Parameter
+    protected List<String> jvmArguments;
+
+    /**
+     * Built-in JVM options for the forked JVM, fast-start for short lived test servers
+     * (C1 only JIT, serial GC, class data sharing) or low-latency for performance tests
+     * (ZGC or G1 with a short pause target and a pre-touched heap)
+     */
+    @Parameter(property = "mockserver.jvmProfile")
+    protected String jvmProfile;
+
+    /**
+     * Garbage collector for the forked JVM, one of serial, parallel, g1, z, shenandoah or epsilon,
+     * overrides the garbage collector of the jvmProfile
+     */
+    @Parameter(property = "mockserver.garbageCollector")
+    protected String garbageCollector;
+
+    /**
+     * Initial and maximum heap size of the forked JVM, i.e. 256m
+     */
+    @Parameter(property = "mockserver.heapSize")
+    protected String heapSize;
+
+    /**
+     * How the classpath is passed to the forked JVM, inline as -cp (default), argFile to use
+     * a JVM @argfile (Java 9+) or manifestJar to use a jar with a Class-Path manifest
+     * attribute, the last two keep the command line short for large classpaths
+     */
+    @Parameter(property = "mockserver.launchMode", defaultValue = ForkedClasspath.INLINE)
+    protected String launchMode = ForkedClasspath.INLINE;
+
+    /**
+     * Maximum time in seconds to wait for the forked MockServer to signal it is ready
+     */
+    @Parameter(property = "mockserver.startTimeout", defaultValue = "75")
+    protected Integer startTimeout = 75;
+
+    /**
+     * Maximum size in bytes of the file the output of the forked MockServer is written to
+     * when pipeLogToConsole is false, the file is rotated when it reaches this size
+     */
+    @Parameter(property = "mockserver.forkedLogMaxFileSize", defaultValue = "10485760")
+    protected Long forkedLogMaxFileSize = 10485760L;
+
+    /**
+     * Number of rotated files of forked MockServer output to keep
+     */
+    @Parameter(property = "mockserver.forkedLogMaxFiles", defaultValue = "3")
+    protected Integer forkedLogMaxFiles = 3;
+
+    /**
+     * Number of the last lines of forked MockServer output added to the error if it fails to start or stop
+     */
+    @Parameter(property = "mockserver.forkedLogTailLines", defaultValue = "100")
+    protected Integer forkedLogTailLines = 100;
+
+    /**
+     * If true an AppCDS (class data sharing) archive is created by the first forked
+     * JVM for the MockServer version, JVM and classpath in use and is mapped by every
+     * later forked JVM to reduce startup time, requires Java 13 or later
+     */
+    @Parameter(property = "mockserver.classDataSharing", defaultValue = "false")
+    protected boolean classDataSharing;
+
+    /**
+     * If true the forked MockServer is left running after the build as a daemon, later
+     * builds with the same version, ports, JVM options and plugin dependencies reattach
+     * to it, reset it and reload expectations instead of forking a new JVM
+     */
+    @Parameter(property = "mockserver.daemon", defaultValue = "false")
+    protected boolean daemon;
+
+    /**
+     * Time in seconds after which a daemon that no build has reattached to shuts down
+     */
+    @Parameter(property = "mockserver.daemonIdleTimeout", defaultValue = "1800")
+    protected Integer daemonIdleTimeout = 1800;
+
+    /**
+     * Number of expectations from initializationJson sent to the forked MockServer in each request
+     */
+    @Parameter(property = "mockserver.initializationBatchSize", defaultValue = "1000")
+    protected Integer initializationBatchSize = InitializationJson.BATCH_SIZE;
+
+    /**
+     * Number of initializationJson batches uploaded to the forked MockServer at once on separate keep-alive
+     * connections, as expectations with the same priority match in the order they were added a value greater
+     * than 1 should only be used if overlapping expectations set a priority
+     */
+    @Parameter(property = "mockserver.initializationConcurrency", defaultValue = "1")
+    protected Integer initializationConcurrency = 1;
+
+    /**
+     * If true each initializationJson batch is gzip compressed before it is uploaded to the forked MockServer
+     */
+    @Parameter(property = "mockserver.initializationGzip", defaultValue = "false")
+    protected boolean initializationGzip;
+
+    /**
+     * Number of MockServer JVMs to fork as a cluster behind serverPort, connections to serverPort are
+     * spread across the shards by clusterBalancing and the initializers are loaded into every shard,
+     * the port of each shard is published as mockserver.mockServerShardPorts so tests can verify and
+     * retrieve logs across the cluster with MockServerCluster, the front end runs in the Maven JVM so
+     * the cluster must be stopped by stopForked in the same build
+     */
+    @Parameter(property = "mockserver.clusterSize", defaultValue = "1")
+    protected Integer clusterSize = 1;
+
+    /**
+     * How the cluster shards share connections, roundRobin (default) or clientAddress which uses a
+     * consistent hash of the client address so every connection from a client goes to the same shard,
+     * all clients on one host share an address so use roundRobin to spread the tests of a single build
+     */
+    @Parameter(property = "mockserver.clusterBalancing", defaultValue = ShardedMockServer.ROUND_ROBIN)
+    protected String clusterBalancing = ShardedMockServer.ROUND_ROBIN;
+
+    /**
+     * The most connections the cluster front end relays at once, connections beyond it are closed
+     * as soon as they are accepted so a load test sees the limit rather than stalling
+     */
+    @Parameter(property = "mockserver.clusterMaxConnections", defaultValue = "4096")
+    protected Integer clusterMaxConnections = 4096;
+
     /**
      * Used to look up Artifacts in the remote repository.
      */
     @Component
     protected RepositorySystem repositorySystem;
-    private ProcessBuildFactory processBuildFactory = new ProcessBuildFactory();
 
-    private MockServerClient mockServerClient = getServerPorts() != null && getServerPorts().length > 0 ? new MockServerClient("localhost", getServerPorts()[0]) : null;
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true)
+    protected RepositorySystemSession repositorySystemSession;
+
+    @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true)
+    protected List<RemoteRepository> remoteRepositories;
+    private ProcessBuildFactory processBuildFactory = new ProcessBuildFactory();
+    private String version;
+    private List<String> instanceClassPathArguments;
+    private ClassDataSharingArchive instanceClassDataSharingArchive;
+    private boolean classDataSharingArchiveDumping;
 
     private static String fileSeparators(String path) {
         StringBuilder ret = new StringBuilder();
@@ -70,135 +216,494 @@ public class MockServerRunForkedMojo extends MockServerAbstractMojo {
         if (skip) {
             getLog().info("Skipping plugin execution");
         } else {
-            getLocalMockServerInstance().stop(getServerPorts(), true);
-            try {
-                TimeUnit.SECONDS.sleep(1);
-            } catch (InterruptedException e) {
-                throw new RuntimeException("Exception while waiting for existing mock server JVM to stop", e);
-            }
-            if (getLog().isInfoEnabled()) {
-                getLog().info("mockserver:runForked about to start MockServer on: "
-                        + (getServerPorts() != null ? " serverPort " + Arrays.toString(getServerPorts()) : "")
-                );
-            }
-            List<String> arguments = new ArrayList<>(Collections.singletonList(getJavaBin()));
-//            arguments.add("-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=5010");
-            arguments.add("-Dfile.encoding=UTF-8");
-            if (isNotBlank(jvmOptions)) {
-                arguments.add(jvmOptions);
-            }
-            arguments.add("-cp");
-            StringBuilder classPath = new StringBuilder(resolvePathForJarWithDependencies());
-            if (dependencies != null && !dependencies.isEmpty()) {
-                for (Dependency dependency : dependencies) {
-                    classPath.append(System.getProperty("path.separator"));
-                    classPath.append(resolvePathForDependencyJar(dependency));
-                }
+            ServerConfiguration serverConfiguration = effectiveServerConfiguration();
+            if (serverConfiguration != null) {
+                // fail before resolving and forking
+                serverConfiguration.validate();
+            }
+            // fail for invalid initialization settings before forking
+            expectationUploader();
+            if (hasInstances()) {
+                startInstances();
+                return;
             }
-            arguments.add(classPath.toString());
-            arguments.add(Main.class.getName());
-            if (getServerPorts() != null) {
-                arguments.add("-serverPort");
-                arguments.add("" + Joiner.on(",").join(getServerPorts()));
-                MockServerAbstractMojo.mockServerPort(getServerPorts());
-            }
-            if (proxyRemotePort != -1) {
-                arguments.add("-proxyRemotePort");
-                arguments.add("" + proxyRemotePort);
-            }
-            if (!Strings.isNullOrEmpty(proxyRemoteHost)) {
-                arguments.add("-proxyRemoteHost");
-                arguments.add("" + proxyRemoteHost);
-            }
-            if (!Strings.isNullOrEmpty(logLevel)) {
-                arguments.add("-logLevel");
-                arguments.add("" + logLevel);
-            }
-            getLog().info(" ");
-            String message = Joiner.on(" ").join(arguments);
-            getLog().info(StringUtils.rightPad("", message.length(), "-"));
-            getLog().info(message);
-            getLog().info(StringUtils.rightPad("", message.length(), "-"));
-            getLog().info(" ");
-            ProcessBuilder processBuilder = processBuildFactory.create(arguments);
-            if (pipeLogToConsole) {
-                processBuilder.inheritIO();
-            }
-            try {
-                processBuilder.start();
-            } catch (IOException e) {
-                getLog().error("Exception while starting MockServer", e);
-            }
-            if (getServerPorts() != null && getServerPorts().length > 0) {
-                if (mockServerClient == null) {
-                    mockServerClient = new MockServerClient("localhost", getServerPorts()[0]);
+            boolean cluster = isCluster();
+            boolean pool = !cluster && poolSize != null && poolSize > 1 && getServerPorts() != null && getServerPorts().length > 0;
+            if (cluster) {
+                // fail before resolving and forking
+                ShardedMockServer.validateBalancing(clusterBalancing);
+                if (clusterMaxConnections == null || clusterMaxConnections < 1) {
+                    throw new IllegalArgumentException("mockserver:runForked clusterMaxConnections must be at least 1 but was " + clusterMaxConnections);
                 }
-                boolean hasStarted = mockServerClient.hasStarted(150, 500L, MILLISECONDS);
-                if (hasStarted) {
-                    getLog().info("mockserver:runForked MockServer is running on: "
-                            + (getServerPorts() != null ? " serverPort " + Arrays.toString(getServerPorts()) : "")
-                    );
+                if (poolSize != null && poolSize > 1) {
+                    getLog().warn("mockserver:runForked poolSize ignored as clusterSize is greater than 1");
+                }
+            }
+            MockServerDaemon mockServerDaemon = null;
+            if (daemon) {
+                if (cluster) {
+                    getLog().warn("mockserver:runForked daemon mode ignored as clusterSize is greater than 1");
+                } else if (pool) {
+                    getLog().warn("mockserver:runForked daemon mode ignored as poolSize is greater than 1");
+                } else if (PortProbe.isEphemeral(getServerPorts())) {
+                    getLog().warn("mockserver:runForked daemon mode ignored as serverPort is 0 or auto so a later build can't find the daemon");
+                } else if (getServerPorts() != null && getServerPorts().length > 0) {
+                    mockServerDaemon = MockServerDaemon.forConfiguration(MockServerDaemon.defaultDirectory(), getServerPorts(), getVersion(), serverConfigurationArguments(), forkedJvmOptions().arguments(), proxyRemotePort, proxyRemoteHost, logLevel, dependencyCoordinates());
+                    if (reattachToDaemon(mockServerDaemon)) {
+                        return;
+                    }
                 } else {
-                    getLog().info("mockserver:runForked Timed out waiting for MockServer to run on: "
+                    getLog().warn("mockserver:runForked daemon mode ignored as serverPort has not been specified");
+                }
+            }
+            List<String> classPath = resolveClasspath();
+            ClassDataSharingArchive classDataSharingArchive = classDataSharing ? classDataSharingArchive(classPath) : null;
+            List<String> classPathArguments = classPathArguments(classPath);
+            if (cluster) {
+                forkCluster(classPathArguments, classDataSharingArchive);
+            } else if (pool) {
+                forkPool(classPathArguments, classDataSharingArchive);
+            } else {
+                stopExistingInstance(getServerPorts());
+                if (getLog().isInfoEnabled()) {
+                    getLog().info("mockserver:runForked about to start MockServer on: "
                             + (getServerPorts() != null ? " serverPort " + Arrays.toString(getServerPorts()) : "")
                     );
                 }
+                Integer[] boundPorts = forkMockServer(forkedLogName(getServerPorts()), getServerPorts(), proxyRemotePort, proxyRemoteHost, classPathArguments, classDataSharingArchive, mockServerDaemon);
+                if (boundPorts != null) {
+                    publishMockServerPort(boundPorts);
+                }
+                runInitialization(boundPorts, createInitializerClass(), createInitializerJson(), expectationUploader());
             }
-            runInitialization(getServerPorts(), createInitializerClass(), createInitializerJson());
         }
 
     }
 
-    @VisibleForTesting
-    String getJavaBin() {
-        String javaBinary = "java";
-
-        File javaHomeDirectory = new File(System.getProperty("java.home"));
-        for (String javaExecutable : new String[]{"java", "java.exe"}) {
-            File javaExeLocation = new File(javaHomeDirectory, fileSeparators("bin/" + javaExecutable));
-            if (javaExeLocation.exists() && javaExeLocation.isFile()) {
-                javaBinary = javaExeLocation.getAbsolutePath();
+    private void startInstances() {
+        if (daemon) {
+            getLog().warn("mockserver:runForked daemon mode ignored as instances are configured");
+        }
+        for (MockServerInstance instance : instances) {
+            if (instance.validate().isForked()) {
+                // resolved once, before starting, for every forked instance
+                List<String> classPath = resolveClasspath();
+                instanceClassDataSharingArchive = classDataSharing ? classDataSharingArchive(classPath) : null;
+                instanceClassPathArguments = classPathArguments(classPath);
                 break;
             }
         }
+        startInstances("mockserver:runForked");
+    }
+
+    @Override
+    protected Integer[] startInstance(MockServerInstance instance, ExpectationInitializer initializerClass, InitializationJson initializerJson) {
+        if (!instance.isForked()) {
+            return super.startInstance(instance, initializerClass, initializerJson);
+        }
+        stopExistingInstance(instance.getServerPorts());
+        ClassDataSharingArchive classDataSharingArchive = null;
+        synchronized (this) {
+            // only one JVM may dump the archive, the others map it once it exists
+            if (instanceClassDataSharingArchive != null && (instanceClassDataSharingArchive.exists() || !classDataSharingArchiveDumping)) {
+                classDataSharingArchive = instanceClassDataSharingArchive;
+                classDataSharingArchiveDumping = true;
+            }
+        }
+        Integer[] boundPorts = forkMockServer("runForked-" + instance.getId().trim(), instance.getServerPorts(), instance.getProxyRemotePort(), instance.getProxyRemoteHost(), instanceClassPathArguments, classDataSharingArchive, null);
+        runInitialization(boundPorts, initializerClass, initializerJson, expectationUploader());
+        return boundPorts;
+    }
 
-        return javaBinary;
+    private void forkPool(List<String> classPathArguments, ClassDataSharingArchive classDataSharingArchive) {
+        getLog().info("mockserver:runForked about to start pool of " + poolSize + " MockServer instances from: serverPort " + Arrays.toString(getServerPorts()));
+        ExpectationInitializer initializerClass = createInitializerClass();
+        InitializationJson initializerJson = createInitializerJson();
+        ExecutorService executorService = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<Integer[]>> forkFutures = new ArrayList<>();
+            for (int instance = 1; instance <= poolSize; instance++) {
+                Integer[] ports = InstanceHolder.poolPorts(getServerPorts(), instance);
+                String logName = PortProbe.isEphemeral(ports) ? "runForked-pool-" + instance : forkedLogName(ports);
+                // only one JVM may dump the archive, the others map it once it exists
+                ClassDataSharingArchive instanceArchive = classDataSharingArchive != null && (classDataSharingArchive.exists() || instance == 1) ? classDataSharingArchive : null;
+                forkFutures.add(executorService.submit(() -> {
+                    stopExistingInstance(ports);
+                    Integer[] boundPorts = forkMockServer(logName, ports, proxyRemotePort, proxyRemoteHost, classPathArguments, instanceArchive, null);
+                    runInitialization(boundPorts, initializerClass, initializerJson, expectationUploader());
+                    return boundPorts;
+                }));
+            }
+            List<Integer[]> poolPorts = new ArrayList<>();
+            for (Future<Integer[]> forkFuture : forkFutures) {
+                poolPorts.add(forkFuture.get());
+            }
+            publishMockServerPorts(poolPorts);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("mockserver:runForked interrupted while starting MockServer pool", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new RuntimeException(ee.getCause().getMessage(), ee.getCause());
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private void forkCluster(List<String> classPathArguments, ClassDataSharingArchive classDataSharingArchive) {
+        getLog().info("mockserver:runForked about to start cluster of " + clusterSize + " MockServer shards behind: serverPort " + Arrays.toString(getServerPorts()));
+        long startTime = System.currentTimeMillis();
+        stopExistingInstance(getServerPorts());
+        ExpectationInitializer initializerClass = createInitializerClass();
+        InitializationJson initializerJson = createInitializerJson();
+        ExecutorService executorService = Executors.newFixedThreadPool(clusterSize);
+        try {
+            List<Future<Integer>> forkFutures = new ArrayList<>();
+            for (int shard = 1; shard <= clusterSize; shard++) {
+                String logName = "runForked-shard-" + shard;
+                // only one JVM may dump the archive, the others map it once it exists
+                ClassDataSharingArchive shardArchive = classDataSharingArchive != null && (classDataSharingArchive.exists() || shard == 1) ? classDataSharingArchive : null;
+                forkFutures.add(executorService.submit(() -> {
+                    // shards listen on free ports as only the front end listens on serverPort
+                    Integer[] boundPorts = forkMockServer(logName, new Integer[]{0}, proxyRemotePort, proxyRemoteHost, classPathArguments, shardArchive, null);
+                    runInitialization(boundPorts, initializerClass, initializerJson, expectationUploader());
+                    return boundPorts[0];
+                }));
+            }
+            List<Integer> shardPorts = new ArrayList<>();
+            for (Future<Integer> forkFuture : forkFutures) {
+                shardPorts.add(forkFuture.get());
+            }
+            ShardedMockServer shardedMockServer = new ShardedMockServer(getServerPorts(), shardPorts, clusterBalancing, clusterMaxConnections);
+            Integer[] boundPorts = shardedMockServer.getLocalPorts().toArray(new Integer[0]);
+            shardedMockServer.register(boundPorts);
+            publishMockServerPort(boundPorts);
+            publishMockServerPort(MockServerPort.MOCK_SERVER_SHARD_PORTS_PROPERTY, shardPorts.toArray(new Integer[0]));
+            getLog().info("mockserver:runForked MockServer cluster is running on: serverPort " + Arrays.toString(boundPorts) + " with shards on " + shardPorts + " balanced " + clusterBalancing + " after " + (System.currentTimeMillis() - startTime) + "ms");
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("mockserver:runForked interrupted while starting MockServer cluster", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new RuntimeException(ee.getCause().getMessage(), ee.getCause());
+        } finally {
+            executorService.shutdown();
+        }
     }
 
-    private String resolvePathForDependencyJar(Dependency dependency) {
-        String path = "";
-        Artifact dependencyArtifact = repositorySystem.createArtifactWithClassifier(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion(), dependency.getType(), dependency.getClassifier());
+    private ExpectationUploader expectationUploader() {
+        return new ExpectationUploader(initializationBatchSize, initializationConcurrency, initializationGzip);
+    }
+
+    private boolean isCluster() {
+        return !hasInstances() && clusterSize != null && clusterSize > 1 && getServerPorts() != null && getServerPorts().length > 0;
+    }
+
+    @Override
+    protected int concurrentInstances() {
+        return isCluster() ? clusterSize : super.concurrentInstances();
+    }
+
+    private ForkedJvmOptions forkedJvmOptions() {
+        ForkedJvmOptions forkedJvmOptions = new ForkedJvmOptions(jvmProfile, garbageCollector, heapSize, jvmOptions, jvmArguments);
+        if (isAutoSizing()) {
+            ContainerResources containerResources = getContainerResources();
+            forkedJvmOptions.withContainerLimits(containerResources.processorsPerInstance(concurrentInstances()), containerResources.maxHeapMegabytesPerInstance(concurrentInstances()));
+        }
+        return forkedJvmOptions;
+    }
+
+    private List<String> classPathArguments(List<String> classPath) {
+        String unsupportedReason = ForkedClasspath.unsupportedReason(launchMode);
+        if (unsupportedReason == null) {
+            return new ForkedClasspath(getMockServerDirectory(), classPath).jvmArguments(launchMode);
+        } else {
+            getLog().warn("mockserver:runForked passing classpath inline as " + unsupportedReason);
+            return new ForkedClasspath(getMockServerDirectory(), classPath).jvmArguments(ForkedClasspath.INLINE);
+        }
+    }
+
+    private ClassDataSharingArchive classDataSharingArchive(List<String> classPath) {
+        ClassDataSharingArchive classDataSharingArchive = ClassDataSharingArchive.forClasspath(getClassDataSharingDirectory(), getVersion(), classPath);
+        String unsupportedReason = classDataSharingArchive.unsupportedReason();
+        if (unsupportedReason == null) {
+            getLog().info("mockserver:runForked " + (classDataSharingArchive.exists() ? "using" : "creating") + " class data sharing archive " + classDataSharingArchive.getArchiveFile().getAbsolutePath());
+            return classDataSharingArchive;
+        } else {
+            getLog().warn("mockserver:runForked class data sharing disabled as " + unsupportedReason);
+            return null;
+        }
+    }
+
+    /**
+     * @return the ports the forked MockServer has bound, which differ from the requested ports for any port that is 0
+     */
+    private Integer[] forkMockServer(String logName, Integer[] ports, Integer proxyRemotePort, String proxyRemoteHost, List<String> classPathArguments, ClassDataSharingArchive classDataSharingArchive, MockServerDaemon mockServerDaemon) {
+        List<String> arguments = new ArrayList<>(Collections.singletonList(getJavaBin()));
+//        arguments.add("-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=5010");
+        arguments.add("-Dfile.encoding=UTF-8");
+        // before the JVM options so an explicit -D in jvmArguments still wins
+        arguments.addAll(serverConfigurationArguments());
+        arguments.addAll(forkedJvmOptions().arguments());
+        ReadinessHandshake readinessHandshake = null;
+        if (ports != null && ports.length > 0) {
+            readinessHandshake = ReadinessHandshake.forPorts(getMockServerDirectory(), ports);
+            readinessHandshake.reset();
+            arguments.add("-D" + ReadinessHandshake.READINESS_FILE_PROPERTY + "=" + readinessHandshake.getFile().getAbsolutePath());
+        }
+        if (classDataSharingArchive != null) {
+            arguments.addAll(classDataSharingArchive.jvmArguments());
+        }
+        if (mockServerDaemon != null) {
+            arguments.add("-D" + MockServerDaemon.LEASE_FILE_PROPERTY + "=" + mockServerDaemon.getLeaseFile().getAbsolutePath());
+            arguments.add("-D" + MockServerDaemon.IDLE_TIMEOUT_PROPERTY + "=" + daemonIdleTimeout);
+        }
+        arguments.addAll(classPathArguments);
+        arguments.add(ForkedMockServerLauncher.class.getName());
+        if (ports != null) {
+            arguments.add("-serverPort");
+            arguments.add("" + Joiner.on(",").join(ports));
+        }
+        if (proxyRemotePort != null && proxyRemotePort != -1) {
+            arguments.add("-proxyRemotePort");
+            arguments.add("" + proxyRemotePort);
+        }
+        if (!Strings.isNullOrEmpty(proxyRemoteHost)) {
+            arguments.add("-proxyRemoteHost");
+            arguments.add("" + proxyRemoteHost);
+        }
+        if (!Strings.isNullOrEmpty(logLevel)) {
+            arguments.add("-logLevel");
+            arguments.add("" + logLevel);
+        }
+        getLog().info(" ");
+        String message = Joiner.on(" ").join(arguments);
+        getLog().info(StringUtils.rightPad("", message.length(), "-"));
+        getLog().info(message);
+        getLog().info(StringUtils.rightPad("", message.length(), "-"));
+        getLog().info(" ");
+        ProcessBuilder processBuilder = processBuildFactory.create(arguments);
+        if (mockServerDaemon != null) {
+            // lease must exist before the forked JVM starts watching it
+            mockServerDaemon.renewLease();
+        }
+        if (pipeLogToConsole) {
+            processBuilder.inheritIO();
+        } else if (mockServerDaemon != null) {
+            // daemon outlives this build so must not write to a pipe nobody reads
+            processBuilder.redirectErrorStream(true);
+            processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(mockServerDaemon.getLogFile()));
+        } else {
+            // drained by this JVM as a full pipe blocks the forked JVM
+            processBuilder.redirectErrorStream(true);
+        }
+        long startTime = System.currentTimeMillis();
+        Process process = null;
+        ForkedProcessOutput forkedProcessOutput = null;
+        try {
+            process = processBuilder.start();
+            if (!pipeLogToConsole && mockServerDaemon == null) {
+                forkedProcessOutput = ForkedProcessOutput.drain(process, new File(getMockServerDirectory(), logName + ".log"), forkedLogMaxFileSize, forkedLogMaxFiles, forkedLogTailLines);
+            }
+        } catch (IOException e) {
+            getLog().error("Exception while starting MockServer", e);
+        }
+        if (readinessHandshake != null) {
+            ReadinessHandshake.Result result = readinessHandshake.await(process, startTimeout, SECONDS);
+            if (result.isReady()) {
+                long startupTime = System.currentTimeMillis() - startTime;
+                Integer[] boundPorts = result.getPorts().toArray(new Integer[0]);
+                ForkedProcesses.register(boundPorts, process);
+                if (forkedProcessOutput != null) {
+                    forkedProcessOutput.register(boundPorts);
+                    getLog().info("mockserver:runForked writing output of MockServer to " + forkedProcessOutput.getLogFile().getAbsolutePath());
+                }
+                getLog().info("mockserver:runForked MockServer is running on: serverPort " + Arrays.toString(boundPorts) + " after " + startupTime + "ms using JVM profile " + forkedJvmOptions().getProfile());
+                if (classDataSharingArchive != null) {
+                    reportClassDataSharingStartupTime(classDataSharingArchive, startupTime);
+                }
+                return boundPorts;
+            } else {
+                if (process != null && process.isAlive()) {
+                    process.destroyForcibly();
+                }
+                String output = "";
+                if (forkedProcessOutput != null) {
+                    try {
+                        // let the last lines written before exiting reach the tail
+                        forkedProcessOutput.awaitEnd(SECONDS.toMillis(1));
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    output = forkedProcessOutput.describe();
+                }
+                throw new IllegalStateException("mockserver:runForked MockServer failed to start on: serverPort " + Arrays.toString(ports) + " " + result.getFailure() + output);
+            }
+        }
+        return ports;
+    }
+
+    /**
+     * @return the name of the log file of a fork on the given ports, pool forks on ephemeral ports and
+     * instance and cluster forks are named by their index or id instead as they'd otherwise all share,
+     * and rotate over, runForked-0.log
+     */
+    private String forkedLogName(Integer[] ports) {
+        return "runForked" + (ports != null && ports.length > 0 ? "-" + Joiner.on("-").join(ports) : "");
+    }
+
+    private void reportClassDataSharingStartupTime(ClassDataSharingArchive classDataSharingArchive, long startupTime) {
+        if (classDataSharingArchive.exists()) {
+            Long startupTimeWithoutArchive = classDataSharingArchive.startupTimeWithoutArchive();
+            getLog().info("mockserver:runForked startup took " + startupTime + "ms with class data sharing archive"
+                    + (startupTimeWithoutArchive != null ? " compared to " + startupTimeWithoutArchive + "ms without" : "")
+            );
+        } else {
+            // archive is written when this JVM exits
+            classDataSharingArchive.recordStartupTimeWithoutArchive(startupTime);
+            getLog().info("mockserver:runForked startup took " + startupTime + "ms without class data sharing archive");
+        }
+    }
 
-        ArtifactResolutionRequest request = new ArtifactResolutionRequest();
-        request.setArtifact(dependencyArtifact);
+    private File getClassDataSharingDirectory() {
+        if (session != null && session.getLocalRepository() != null) {
+            return new File(session.getLocalRepository().getBasedir(), fileSeparators("org/mock-server/mockserver-netty-no-dependencies/" + getVersion() + "/cds"));
+        } else {
+            return new File(getMockServerDirectory(), "cds");
+        }
+    }
+
+    private List<String> resolveClasspath() {
+        String coordinates = "org.mock-server:mockserver-netty-no-dependencies:jar:" + getVersion() + "," + dependencyCoordinates();
+        ResolvedClasspathCache resolvedClasspathCache = ResolvedClasspathCache.forConfiguration(getMockServerDirectory(), coordinates);
+        List<String> classPath = resolvedClasspathCache.read();
+        if (classPath == null) {
+            long startTime = System.currentTimeMillis();
+            classPath = resolveDependencies();
+            getLog().info("mockserver:runForked resolved " + classPath.size() + " artifacts for forked MockServer in " + (System.currentTimeMillis() - startTime) + "ms");
+            resolvedClasspathCache.write(classPath);
+        } else {
+            getLog().info("mockserver:runForked using cached classpath " + resolvedClasspathCache.getFile().getAbsolutePath());
+        }
+        classPath = new ArrayList<>(classPath);
+        classPath.add(getPluginClasspathEntry());
+        return classPath;
+    }
 
-        request.setResolveRoot(true).setResolveTransitively(false);
-        if (session != null && session.getRequest() != null) {
-            request.setServers(session.getRequest().getServers());
-            request.setMirrors(session.getRequest().getMirrors());
-            request.setProxies(session.getRequest().getProxies());
-            request.setLocalRepository(session.getLocalRepository());
-            request.setRemoteRepositories(session.getRequest().getRemoteRepositories());
+    /**
+     * Resolves the server jar and each plugin dependency, including transitive dependencies, in
+     * a single request so the resolver can download them concurrently
+     */
+    private List<String> resolveDependencies() {
+        ArtifactTypeRegistry artifactTypeRegistry = repositorySystemSession.getArtifactTypeRegistry();
+        CollectRequest collectRequest = new CollectRequest();
+        collectRequest.addDependency(RepositoryUtils.toDependency(mockServerDependency(), artifactTypeRegistry));
+        if (dependencies != null) {
+            for (Dependency dependency : dependencies) {
+                collectRequest.addDependency(RepositoryUtils.toDependency(dependency, artifactTypeRegistry));
+            }
         }
-        repositorySystem.resolve(request);
-        if (dependencyArtifact != null && dependencyArtifact.getFile() != null) {
-            path = dependencyArtifact.getFile().getAbsolutePath();
+        collectRequest.setRepositories(remoteRepositories);
+        DependencyRequest dependencyRequest = new DependencyRequest(collectRequest, DependencyFilterUtils.classpathFilter(JavaScopes.RUNTIME));
+        try {
+            List<String> classPath = new ArrayList<>();
+            for (ArtifactResult artifactResult : repositorySystem.resolveDependencies(repositorySystemSession, dependencyRequest).getArtifactResults()) {
+                classPath.add(artifactResult.getArtifact().getFile().getAbsolutePath());
+            }
+            return classPath;
+        } catch (DependencyResolutionException dre) {
+            throw new IllegalStateException("mockserver:runForked failed to resolve classpath for forked MockServer " + dre.getMessage(), dre);
         }
-        return path;
     }
 
-    private String resolvePathForJarWithDependencies() {
+    private Dependency mockServerDependency() {
         Dependency dependency = new Dependency();
         dependency.setGroupId("org.mock-server");
         dependency.setArtifactId("mockserver-netty-no-dependencies");
         dependency.setVersion(getVersion());
         dependency.setType("jar");
-        return resolvePathForDependencyJar(dependency);
+        return dependency;
+    }
+
+    private String dependencyCoordinates() {
+        List<String> coordinates = new ArrayList<>();
+        if (dependencies != null) {
+            for (Dependency dependency : dependencies) {
+                coordinates.add(dependency.getManagementKey() + ":" + dependency.getVersion());
+            }
+        }
+        return Joiner.on(",").join(coordinates);
+    }
+
+    private boolean reattachToDaemon(MockServerDaemon mockServerDaemon) {
+        if (mockServerDaemon.isRunning(getServerPorts())) {
+            long startTime = System.currentTimeMillis();
+            mockServerDaemon.renewLease();
+            new MockServerClient("127.0.0.1", getServerPorts()[0]).reset();
+            publishMockServerPort(getServerPorts());
+            runInitialization(getServerPorts(), createInitializerClass(), createInitializerJson(), expectationUploader());
+            getLog().info("mockserver:runForked reattached to MockServer daemon on: serverPort " + Arrays.toString(getServerPorts()) + " in " + (System.currentTimeMillis() - startTime) + "ms");
+            return true;
+        }
+        return false;
+    }
+
+    private void stopExistingInstance(Integer[] ports) {
+        ShardedMockServer existingCluster = ShardedMockServer.forPorts(ports);
+        if (existingCluster != null) {
+            getLog().info("mockserver:runForked stopping existing MockServer cluster on: serverPort " + Arrays.toString(ports));
+            existingCluster.stop();
+            for (Integer shardPort : existingCluster.getShardPorts()) {
+                stopExistingInstance(new Integer[]{shardPort});
+            }
+        }
+        if (PortProbe.isAnyListening(ports)) {
+            long startTime = System.currentTimeMillis();
+            getLog().info("mockserver:runForked stopping existing MockServer on: serverPort " + Arrays.toString(ports));
+            getLocalMockServerInstance().stop(ports, true, stopTimeout, SECONDS);
+            if (!PortProbe.isAnyListening(ports)) {
+                getLog().info("mockserver:runForked stopped existing MockServer in " + (System.currentTimeMillis() - startTime) + "ms");
+            } else {
+                getLog().warn("mockserver:runForked existing MockServer did not release serverPort " + Arrays.toString(ports) + " within " + stopTimeout + "s");
+            }
+        }
+    }
+
+    @VisibleForTesting
+    String getPluginClasspathEntry() {
+        try {
+            return new File(ForkedMockServerLauncher.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+        } catch (URISyntaxException use) {
+            throw new RuntimeException("Exception resolving location of mockserver-maven-plugin", use);
+        }
+    }
+
+    @VisibleForTesting
+    String getJavaBin() {
+        String javaBinary = "java";
+
+        File javaHomeDirectory = new File(System.getProperty("java.home"));
+        for (String javaExecutable : new String[]{"java", "java.exe"}) {
+            File javaExeLocation = new File(javaHomeDirectory, fileSeparators("bin/" + javaExecutable));
+            if (javaExeLocation.exists() && javaExeLocation.isFile()) {
+                javaBinary = javaExeLocation.getAbsolutePath();
+                break;
+            }
+        }
+
+        return javaBinary;
     }
 
     @VisibleForTesting
     String getVersion() {
-        String version = "5.5.4";
+        if (version != null) {
+            return version;
+        }
+        version = "5.5.4";
         try {
             java.util.Properties p = new java.util.Properties();
             InputStream is = getClass().getResourceAsStream("/META-INF/maven/org.mock-server/mockserver-maven-plugin/pom.properties");
@@ -0,0 +1,50 @@
+package org.mockserver.maven;
+
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProjectHelper;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Compile the expectations of initializationClass and initializationJson into a snapshot once the test classes
+ * are compiled, so start and runForked with initializationSnapshot load it without running the initializers
+ */
+@Mojo(name = "snapshot", defaultPhase = LifecyclePhase.PROCESS_TEST_CLASSES, requiresDependencyResolution = ResolutionScope.TEST)
+public class MockServerSnapshotMojo extends MockServerAbstractMojo {
+
+    static final String SNAPSHOT_CLASSIFIER = "mockserver-expectations";
+    static final String SNAPSHOT_TYPE = "json.gz";
+
+    /**
+     * If true the snapshot is attached to the project with the classifier mockserver-expectations so it is
+     * installed and deployed with it, other modules can then copy it out of the repository and use it as
+     * their initializationJson
+     */
+    @Parameter(property = "mockserver.attachSnapshot", defaultValue = "false")
+    protected boolean attachSnapshot;
+
+    @Component
+    MavenProjectHelper projectHelper;
+
+    public void execute() {
+        if (skip) {
+            getLog().info("Skipping plugin execution");
+        } else {
+            initializationSnapshot = true;
+            InitializationJson initializationSnapshotJson = createInitializationSnapshot();
+            if (initializationSnapshotJson == null) {
+                if (isNotBlank(initializationClass) || isNotBlank(initializationJson)) {
+                    throw new IllegalStateException("mockserver:snapshot unable to snapshot expectations of initializationClass " + initializationClass + " and initializationJson " + initializationJson);
+                }
+                getLog().info("mockserver:snapshot skipped as no initializationClass or initializationJson is configured");
+            } else if (attachSnapshot && project != null) {
+                projectHelper.attachArtifact(project, SNAPSHOT_TYPE, SNAPSHOT_CLASSIFIER, initializationSnapshotJson.getFile());
+                getLog().info("mockserver:snapshot attached " + initializationSnapshotJson.getFile().getAbsolutePath() + " with classifier " + SNAPSHOT_CLASSIFIER);
+            }
+        }
+    }
+}
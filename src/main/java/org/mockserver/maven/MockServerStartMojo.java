@@ -2,10 +2,14 @@ package org.mockserver.maven;
 
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.mockserver.client.initialize.ExpectationInitializer;
 import org.mockserver.configuration.ConfigurationProperties;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -22,6 +26,33 @@ public class MockServerStartMojo extends MockServerAbstractMojo {
      */
     private InstanceHolder embeddedJettyHolder;
 
+    /**
+     * If true the ports are bound by a lightweight acceptor and MockServer is only started,
+     * and the initializers run, when the first connection arrives, so modules whose tests
+     * never use MockServer don't pay its startup cost
+     * <p>
+     * Every connection is then relayed by the acceptor to MockServer on another local port,
+     * which adds a loopback hop to each request, and if MockServer is stopped, i.e. by a
+     * request to /mockserver/stop, the acceptor is closed and the ports released
+     */
+    @Parameter(property = "mockserver.lazyStart", defaultValue = "false")
+    protected boolean lazyStart;
+
+    /**
+     * The most connections the lazyStart acceptor relays at once, connections beyond it are
+     * closed as soon as they are accepted
+     */
+    @Parameter(property = "mockserver.lazyMaxConnections", defaultValue = "4096")
+    protected Integer lazyMaxConnections = 4096;
+
+    /**
+     * If true MockServer is started, and the initializers run, on a background thread so
+     * compilation continues in parallel, bind the await goal before any tests that need
+     * MockServer to wait for it to be ready and fail the build if it failed to start
+     */
+    @Parameter(property = "mockserver.backgroundStart", defaultValue = "false")
+    protected boolean backgroundStart;
+
     public void execute() {
         if (isNotBlank(logLevel)) {
             ConfigurationProperties.logLevel(logLevel);
@@ -29,13 +60,70 @@ public class MockServerStartMojo extends MockServerAbstractMojo {
         if (skip) {
             getLog().info("Skipping plugin execution");
         } else {
+            applyServerConfiguration();
+            if (hasInstances()) {
+                if (backgroundStart) {
+                    getLocalMockServerInstance().startInBackground(() -> startInstances("mockserver:start"));
+                    getLog().info("mockserver:start MockServer instances are starting in the background");
+                } else {
+                    startInstances("mockserver:start");
+                }
+                return;
+            }
             if (getLog().isInfoEnabled()) {
                 getLog().info("mockserver:start about to start MockServer on: "
                         + (getServerPorts() != null ? " serverPort " + Arrays.toString(getServerPorts()) : "")
                 );
             }
-            getLocalMockServerInstance().start(getServerPorts(), proxyRemotePort, proxyRemoteHost, logLevel, createInitializerClass(), createInitializerJson());
+            if (lazyStart && poolSize != null && poolSize > 1) {
+                getLog().warn("mockserver:start lazyStart ignored as poolSize is greater than 1");
+            }
+            ExpectationInitializer initializerClass = createInitializerClass();
+            InitializationJson initializerJson = createInitializerJson();
+            if (backgroundStart) {
+                getLocalMockServerInstance().startInBackground(() -> {
+                    try {
+                        start(initializerClass, initializerJson);
+                    } catch (RuntimeException re) {
+                        getLog().error("mockserver:start exception starting MockServer in the background", re);
+                        throw re;
+                    }
+                });
+                getLog().info("mockserver:start MockServer is starting in the background");
+                if (!PortProbe.isEphemeral(getServerPorts())) {
+                    // published now so tests run before the await goal still see the ports
+                    publishMockServerPorts(expectedPorts());
+                }
+            } else {
+                start(initializerClass, initializerJson);
+                publishMockServerPorts(getLocalMockServerInstance().getLocalPorts());
+            }
+        }
+
+    }
+
+    private void start(ExpectationInitializer initializerClass, InitializationJson initializerJson) {
+        if (poolSize != null && poolSize > 1) {
+            List<Integer[]> poolPorts = getLocalMockServerInstance().startPool(poolSize, getServerPorts(), proxyRemotePort, proxyRemoteHost, logLevel, initializerClass, initializerJson);
+            for (int instance = 1; instance <= poolPorts.size(); instance++) {
+                getLog().info("mockserver:start MockServer instance " + instance + " is running on: serverPort " + Arrays.toString(poolPorts.get(instance - 1)));
+            }
+        } else if (lazyStart) {
+            getLocalMockServerInstance().startLazy(getServerPorts(), lazyMaxConnections, proxyRemotePort, proxyRemoteHost, logLevel, initializerClass, initializerJson);
+            getLog().info("mockserver:start MockServer will start on first connection to: serverPort " + Arrays.toString(getServerPorts()));
+        } else {
+            getLocalMockServerInstance().start(getServerPorts(), proxyRemotePort, proxyRemoteHost, logLevel, initializerClass, initializerJson);
         }
+    }
 
+    private List<Integer[]> expectedPorts() {
+        List<Integer[]> expectedPorts = new ArrayList<>();
+        if (getServerPorts() != null && getServerPorts().length > 0) {
+            int instances = poolSize != null && poolSize > 1 ? poolSize : 1;
+            for (int instance = 1; instance <= instances; instance++) {
+                expectedPorts.add(InstanceHolder.poolPorts(getServerPorts(), instance));
+            }
+        }
+        return expectedPorts;
     }
 }
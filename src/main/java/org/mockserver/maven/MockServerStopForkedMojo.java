@@ -1,9 +1,19 @@
 package org.mockserver.maven;
 
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.mockserver.configuration.ConfigurationProperties;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 
 /**
@@ -18,17 +28,135 @@ import java.util.Arrays;
 @Mojo(name = "stopForked", requiresProject = false)
 public class MockServerStopForkedMojo extends MockServerAbstractMojo {
 
+    /**
+     * If true the MockServer daemon started by runForked is left running for the next build,
+     * only when a daemon lease exists for exactly these ports, anything else is stopped as usual
+     */
+    @Parameter(property = "mockserver.daemon", defaultValue = "false")
+    protected boolean daemon;
+
+    File daemonDirectory = MockServerDaemon.defaultDirectory();
+
     public void execute() {
         if (logLevel != null) {
             ConfigurationProperties.logLevel(logLevel);
         }
         if (skip) {
             getLog().info("Skipping plugin execution");
+        } else if (hasInstances()) {
+            stopInstances("mockserver:stopForked");
+        } else if (daemon && runningDaemon() != null) {
+            getLog().info("Leaving MockServer daemon running on port " + Arrays.toString(getServerPorts()));
         } else {
-            getLocalMockServerInstance().stop(getServerPorts(), false);
-            if (getServerPorts() != null) {
-                getLog().info("Stopped MockServer running on port [" + Arrays.toString(getServerPorts()) + "]");
+            ShardedMockServer shardedMockServer = ShardedMockServer.forPorts(PortProbe.isEphemeral(getServerPorts()) ? getPublishedMockServerPorts() : getServerPorts());
+            if (shardedMockServer != null) {
+                // front end first so no new connections reach the shards as they stop
+                shardedMockServer.stop();
+                getLog().info("Stopped MockServer cluster running on port " + shardedMockServer.getLocalPorts());
+            }
+            List<Integer[]> instancePorts = shardedMockServer != null ? shardPorts(shardedMockServer) : forkedInstancePorts();
+            if (instancePorts.isEmpty()) {
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            // every instance is stopped concurrently so teardown takes as long as the slowest instance
+            ExecutorService executorService = Executors.newFixedThreadPool(instancePorts.size());
+            try {
+                List<Future<Long>> stopFutures = new ArrayList<>();
+                for (Integer[] ports : instancePorts) {
+                    stopFutures.add(executorService.submit(() -> stopForked(ports)));
+                }
+                RuntimeException stopFailure = null;
+                for (int index = 0; index < instancePorts.size(); index++) {
+                    try {
+                        getLog().info("Stopped MockServer running on port " + Arrays.toString(instancePorts.get(index)) + " in " + stopFutures.get(index).get() + "ms");
+                    } catch (ExecutionException ee) {
+                        if (stopFailure == null) {
+                            stopFailure = ee.getCause() instanceof RuntimeException ? (RuntimeException) ee.getCause() : new RuntimeException(ee.getCause().getMessage(), ee.getCause());
+                        }
+                    }
+                }
+                if (stopFailure != null) {
+                    throw stopFailure;
+                }
+                removeLocalMockServerInstance(getLocalMockServerInstance());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while stopping MockServer", ie);
+            } finally {
+                executorService.shutdown();
+            }
+            if (instancePorts.size() > 1) {
+                getLog().info("Stopped " + instancePorts.size() + " MockServer instances in " + (System.currentTimeMillis() - startTime) + "ms");
+            }
+        }
+    }
+
+    /**
+     * @return the daemon runForked left running on exactly the configured ports, or null if pools, clusters,
+     * ephemeral ports or processes forked by this build are running on them as those are never daemons
+     */
+    private MockServerDaemon runningDaemon() {
+        Integer[] ports = getServerPorts();
+        if (ports == null || ports.length == 0 || PortProbe.isEphemeral(ports) || (poolSize != null && poolSize > 1) || ShardedMockServer.forPorts(ports) != null || ForkedProcessOutput.forPorts(ports) != null) {
+            getLog().info("mockserver:stopForked daemon mode ignored as MockServer on port " + Arrays.toString(ports) + " isn't a daemon");
+            return null;
+        }
+        MockServerDaemon mockServerDaemon = MockServerDaemon.forLease(daemonDirectory, ports);
+        if (mockServerDaemon == null || !mockServerDaemon.isRunning(ports)) {
+            getLog().info("mockserver:stopForked daemon mode ignored as no MockServer daemon is running on port " + Arrays.toString(ports));
+            return null;
+        }
+        return mockServerDaemon;
+    }
+
+    private long stopForked(Integer[] ports) {
+        ForkedProcessOutput forkedProcessOutput = ForkedProcessOutput.forPorts(ports);
+        long stopTime;
+        try {
+            stopTime = getLocalMockServerInstance().stop(ports, false, stopTimeout, SECONDS);
+        } catch (RuntimeException re) {
+            if (forkedProcessOutput != null) {
+                throw new IllegalStateException("Failed to stop MockServer running on port " + Arrays.toString(ports) + " " + re.getMessage() + forkedProcessOutput.describe(), re);
+            }
+            throw re;
+        }
+        ForkedProcessOutput.unregister(ports);
+        return stopTime;
+    }
+
+    private List<Integer[]> shardPorts(ShardedMockServer shardedMockServer) {
+        List<Integer[]> shardPorts = new ArrayList<>();
+        for (Integer shardPort : shardedMockServer.getShardPorts()) {
+            shardPorts.add(new Integer[]{shardPort});
+        }
+        return shardPorts;
+    }
+
+    /**
+     * @return the ports of each forked instance, for a pool the ports of every instance in the pool
+     */
+    private List<Integer[]> forkedInstancePorts() {
+        List<Integer[]> instancePorts = new ArrayList<>();
+        Integer[] ports = getServerPorts();
+        boolean pool = poolSize != null && poolSize > 1;
+        if (PortProbe.isEphemeral(ports)) {
+            // ports were only known once runForked started MockServer
+            if (pool) {
+                for (int instance = 1; instance <= poolSize; instance++) {
+                    Integer[] publishedPorts = getPublishedMockServerPorts(MockServerPort.MOCK_SERVER_PORT_PROPERTY + "." + instance);
+                    if (publishedPorts != null) {
+                        instancePorts.add(publishedPorts);
+                    }
+                }
+            } else if (getPublishedMockServerPorts() != null) {
+                instancePorts.add(getPublishedMockServerPorts());
+            }
+        } else if (ports != null && ports.length > 0) {
+            for (int instance = 1; instance <= (pool ? poolSize : 1); instance++) {
+                instancePorts.add(InstanceHolder.poolPorts(ports, instance));
             }
         }
+        return instancePorts;
     }
 }
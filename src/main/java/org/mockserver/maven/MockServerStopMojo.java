@@ -3,6 +3,8 @@ package org.mockserver.maven;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 /**
  * Stop the MockServer in the verify phase of the build after any integration tests have completed
  *
@@ -16,7 +18,14 @@ public class MockServerStopMojo extends MockServerAbstractMojo {
             getLog().info("Skipping plugin execution");
         } else {
             getLog().info("Stopping the MockServer");
-            getLocalMockServerInstance().stop();
+            // waits for any background start so instances it started are stopped below
+            InstanceHolder instanceHolder = getLocalMockServerInstance();
+            long stopTime = instanceHolder.stop(stopTimeout, SECONDS);
+            removeLocalMockServerInstance(instanceHolder);
+            getLog().info("Stopped the MockServer in " + stopTime + "ms");
+            if (hasInstances()) {
+                stopInstances("mockserver:stop");
+            }
         }
     }
 }
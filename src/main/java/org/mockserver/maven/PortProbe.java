@@ -0,0 +1,111 @@
+package org.mockserver.maven;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Cheap checks of whether anything is accepting connections on a local port
+ */
+public class PortProbe {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 50;
+    private static final long POLL_INTERVAL_MILLIS = 10;
+    // acceptors bound in this JVM that must not be probed by connecting, i.e. the first connection boots a lazy MockServer
+    private static final Map<Integer, BooleanSupplier> ACCEPTORS = new ConcurrentHashMap<>();
+
+    /**
+     * Registers ports bound by an acceptor in this JVM so they are checked against it instead of being connected to
+     *
+     * @param isAccepting true while the acceptor is bound
+     */
+    public static void registerAcceptor(Collection<Integer> ports, BooleanSupplier isAccepting) {
+        for (Integer port : ports) {
+            ACCEPTORS.put(port, isAccepting);
+        }
+    }
+
+    public static void unregisterAcceptor(Collection<Integer> ports, BooleanSupplier isAccepting) {
+        for (Integer port : ports) {
+            ACCEPTORS.remove(port, isAccepting);
+        }
+    }
+
+    /**
+     * @return true if any of the ports is 0 so the port actually bound is only known once MockServer has started
+     */
+    public static boolean isEphemeral(Integer... ports) {
+        if (ports != null) {
+            for (Integer port : ports) {
+                if (port != null && port == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean isListening(Integer port) {
+        if (port == null || port <= 0) {
+            return false;
+        }
+        BooleanSupplier acceptor = ACCEPTORS.get(port);
+        if (acceptor != null) {
+            return acceptor.getAsBoolean();
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("127.0.0.1", port), CONNECT_TIMEOUT_MILLIS);
+            return true;
+        } catch (IOException ioe) {
+            return false;
+        }
+    }
+
+    public static boolean isAnyListening(Integer... ports) {
+        return isAnyListening(ports != null ? Arrays.asList(ports) : null);
+    }
+
+    public static boolean isAnyListening(Collection<Integer> ports) {
+        if (ports != null) {
+            for (Integer port : ports) {
+                if (isListening(port)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static boolean awaitReleased(long timeout, TimeUnit unit, Integer... ports) {
+        return awaitReleased(timeout, unit, ports != null ? Arrays.asList(ports) : null);
+    }
+
+    /**
+     * Blocks until no port is accepting connections or the timeout expires
+     *
+     * @return true if all ports were released before the timeout
+     */
+    public static boolean awaitReleased(long timeout, TimeUnit unit, Collection<Integer> ports) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (isAnyListening(ports)) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,176 @@
+package org.mockserver.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * File based handshake used by a forked MockServer JVM to tell the plugin
+ * it has bound its ports (or failed to), so the plugin doesn't have to poll
+ * the server over HTTP
+ * <p>
+ * Loaded in the forked JVM whose classpath is only mockserver-netty-no-dependencies,
+ * which relocates its libraries, and this plugin so must only use JDK classes
+ */
+public class ReadinessHandshake {
+
+    public static final String READINESS_FILE_PROPERTY = "mockserver.readinessFile";
+    static final String READY = "READY";
+    static final String FAILED = "FAILED";
+    private static final long POLL_INTERVAL_MILLIS = 5;
+
+    private final File file;
+
+    public ReadinessHandshake(File file) {
+        this.file = file;
+    }
+
+    public static ReadinessHandshake forPorts(File directory, Integer[] ports) {
+        String name = "runForked-" + join("-", Arrays.asList(ports));
+        if (PortProbe.isEphemeral(ports)) {
+            // ports configured as 0 don't identify the fork so concurrent forks would share the file
+            name += "-" + UUID.randomUUID();
+        }
+        return new ReadinessHandshake(new File(directory, name + ".ready"));
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void reset() {
+        if (file.exists() && !file.delete()) {
+            throw new IllegalStateException("Unable to delete stale readiness file " + file.getAbsolutePath());
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IllegalStateException("Unable to create directory for readiness file " + file.getAbsolutePath());
+        }
+    }
+
+    public void signalReady(List<Integer> ports) {
+        write(READY + " " + join(",", ports));
+    }
+
+    public void signalFailed(String reason) {
+        write(FAILED + " " + reason);
+    }
+
+    private void write(String content) {
+        try {
+            // write then rename so a reader never sees a partial file
+            File temporaryFile = new File(file.getAbsolutePath() + ".tmp");
+            Files.write(temporaryFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception writing readiness file " + file.getAbsolutePath(), ioe);
+        }
+    }
+
+    /**
+     * Blocks until the forked process signals it is ready, signals it has failed, exits or the timeout expires
+     */
+    public Result await(Process process, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            Result result = read();
+            if (result != null) {
+                return result;
+            }
+            if (process != null && !process.isAlive()) {
+                // process may have signalled just before exiting
+                result = read();
+                return result != null ? result : Result.failed("forked MockServer exited with status " + process.exitValue());
+            }
+            if (System.nanoTime() >= deadline) {
+                return Result.failed("timed out after " + unit.toMillis(timeout) + "ms waiting for forked MockServer to signal it is ready");
+            }
+            try {
+                MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return Result.failed("interrupted waiting for forked MockServer to signal it is ready");
+            }
+        }
+    }
+
+    private Result read() {
+        if (file.isFile()) {
+            try {
+                String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+                if (content.startsWith(READY)) {
+                    return Result.ready(toPorts(content.substring(READY.length()).trim()));
+                } else if (content.startsWith(FAILED)) {
+                    return Result.failed(content.substring(FAILED.length()).trim());
+                }
+            } catch (IOException ioe) {
+                // rename not yet visible, try again on next poll
+            }
+        }
+        return null;
+    }
+
+    static String join(String separator, List<?> values) {
+        StringBuilder joined = new StringBuilder();
+        for (Object value : values) {
+            if (joined.length() > 0) {
+                joined.append(separator);
+            }
+            joined.append(value);
+        }
+        return joined.toString();
+    }
+
+    static List<Integer> toPorts(String ports) {
+        List<Integer> portList = new ArrayList<>();
+        for (String port : ports.split(",")) {
+            if (!port.trim().isEmpty()) {
+                portList.add(Integer.parseInt(port.trim()));
+            }
+        }
+        return portList;
+    }
+
+    public static class Result {
+
+        private final boolean ready;
+        private final List<Integer> ports;
+        private final String failure;
+
+        private Result(boolean ready, List<Integer> ports, String failure) {
+            this.ready = ready;
+            this.ports = ports;
+            this.failure = failure;
+        }
+
+        static Result ready(List<Integer> ports) {
+            return new Result(true, ports, null);
+        }
+
+        static Result failed(String failure) {
+            return new Result(false, Collections.emptyList(), failure);
+        }
+
+        public boolean isReady() {
+            return ready;
+        }
+
+        public List<Integer> getPorts() {
+            return ports;
+        }
+
+        public String getFailure() {
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.mockserver.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the resolved classpath of the forked MockServer so an unchanged configuration
+ * skips artifact resolution, the cache is keyed by a hash of the configuration and each
+ * resolved file is recorded with its size and last modified time so a changed or deleted
+ * file invalidates the cache
+ * <p>
+ * Configurations with SNAPSHOT coordinates are never cached as a newer snapshot may have
+ * been deployed to the remote repository, so they are always resolved again
+ */
+public class ResolvedClasspathCache {
+
+    private static final String SEPARATOR = "|";
+    // -SNAPSHOT or the timestamped version of a snapshot i.e. 1.0-20240101.120000-1
+    private static final Pattern SNAPSHOT_VERSION = Pattern.compile("SNAPSHOT|\\d{8}\\.\\d{6}-\\d+");
+
+    private final File file;
+    private final String identity;
+    private final boolean cacheable;
+
+    ResolvedClasspathCache(File file, String identity, boolean cacheable) {
+        this.file = file;
+        this.identity = identity;
+        this.cacheable = cacheable;
+    }
+
+    public static ResolvedClasspathCache forConfiguration(File directory, String configuration) {
+        return new ResolvedClasspathCache(new File(directory, "runForked.classpath"), ClassDataSharingArchive.sha256(configuration), !SNAPSHOT_VERSION.matcher(configuration).find());
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the cached classpath or null if there isn't one for this configuration, any file has changed or the configuration has SNAPSHOT coordinates
+     */
+    public List<String> read() {
+        try {
+            if (cacheable && file.isFile()) {
+                List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                if (!lines.isEmpty() && identity.equals(lines.get(0))) {
+                    List<String> classPath = new ArrayList<>();
+                    for (String line : lines.subList(1, lines.size())) {
+                        String[] entry = line.split("\\|");
+                        if (entry.length != 3 || !fingerprint(new File(entry[0])).equals(line)) {
+                            return null;
+                        }
+                        classPath.add(entry[0]);
+                    }
+                    return classPath;
+                }
+            }
+        } catch (IOException ignore) {
+            // resolve again
+        }
+        return null;
+    }
+
+    public void write(List<String> classPath) {
+        if (!cacheable) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(identity);
+        for (String entry : classPath) {
+            lines.add(fingerprint(new File(entry)));
+        }
+        try {
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Unable to create directory " + directory.getAbsolutePath());
+            }
+            Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        } catch (IOException ignore) {
+            // only an optimisation, resolve again next time
+        }
+    }
+
+    private static String fingerprint(File file) {
+        return file.getAbsolutePath() + SEPARATOR + file.length() + SEPARATOR + file.lastModified();
+    }
+}
@@ -0,0 +1,187 @@
+package org.mockserver.maven;
+
+import org.mockserver.configuration.Configuration;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MockServer performance settings configured in the POM using a serverConfiguration block, i.e.
+ * <pre>
+ * &lt;serverConfiguration&gt;
+ *     &lt;nioEventLoopThreadCount&gt;4&lt;/nioEventLoopThreadCount&gt;
+ *     &lt;maxExpectations&gt;500&lt;/maxExpectations&gt;
+ * &lt;/serverConfiguration&gt;
+ * </pre>
+ * used as the {@link Configuration} of each embedded MockServer, rather than the JVM wide {@link ConfigurationProperties},
+ * and passed as system properties to forked MockServer
+ */
+public class ServerConfiguration {
+
+    /**
+     * Number of threads for the Netty event loop accepting and handling requests
+     */
+    Integer nioEventLoopThreadCount;
+
+    /**
+     * Number of threads for handling actions, i.e. forwards and callbacks
+     */
+    Integer actionHandlerThreadCount;
+
+    /**
+     * Number of threads for the Netty event loop used to forward requests
+     */
+    Integer clientNioEventLoopThreadCount;
+
+    /**
+     * Number of threads for the event loop of the web socket client used for object callbacks
+     */
+    Integer webSocketClientEventLoopThreadCount;
+
+    /**
+     * Maximum number of expectations held in the in-memory ring buffer
+     */
+    Integer maxExpectations;
+
+    /**
+     * Maximum number of log entries held in the in-memory ring buffer
+     */
+    Integer maxLogEntries;
+
+    /**
+     * Maximum number of remote (web socket) closure expectations
+     */
+    Integer maxWebSocketExpectations;
+
+    /**
+     * Maximum time in milliseconds to wait for a response when forwarding or proxying requests
+     */
+    Long maxSocketTimeout;
+
+    /**
+     * Maximum time in milliseconds to wait to connect when forwarding or proxying requests
+     */
+    Long socketConnectionTimeout;
+
+    /**
+     * If true all logging, including the in-memory log used for verification, is disabled
+     */
+    Boolean disableLogging;
+
+    /**
+     * Thread counts sized for the given number of CPUs, used by the auto sizing mode
+     */
+    public static ServerConfiguration autoSized(int processors) {
+        ServerConfiguration serverConfiguration = new ServerConfiguration();
+        serverConfiguration.nioEventLoopThreadCount = Math.max(2, processors);
+        serverConfiguration.actionHandlerThreadCount = Math.max(2, processors);
+        serverConfiguration.clientNioEventLoopThreadCount = Math.max(2, processors);
+        serverConfiguration.webSocketClientEventLoopThreadCount = Math.max(1, processors / 2);
+        return serverConfiguration;
+    }
+
+    /**
+     * @return a copy of this configuration with every value explicitly set in the other configuration replaced
+     */
+    public ServerConfiguration overriddenBy(ServerConfiguration explicit) {
+        ServerConfiguration merged = new ServerConfiguration();
+        merged.nioEventLoopThreadCount = explicit != null && explicit.nioEventLoopThreadCount != null ? explicit.nioEventLoopThreadCount : nioEventLoopThreadCount;
+        merged.actionHandlerThreadCount = explicit != null && explicit.actionHandlerThreadCount != null ? explicit.actionHandlerThreadCount : actionHandlerThreadCount;
+        merged.clientNioEventLoopThreadCount = explicit != null && explicit.clientNioEventLoopThreadCount != null ? explicit.clientNioEventLoopThreadCount : clientNioEventLoopThreadCount;
+        merged.webSocketClientEventLoopThreadCount = explicit != null && explicit.webSocketClientEventLoopThreadCount != null ? explicit.webSocketClientEventLoopThreadCount : webSocketClientEventLoopThreadCount;
+        merged.maxExpectations = explicit != null && explicit.maxExpectations != null ? explicit.maxExpectations : maxExpectations;
+        merged.maxLogEntries = explicit != null && explicit.maxLogEntries != null ? explicit.maxLogEntries : maxLogEntries;
+        merged.maxWebSocketExpectations = explicit != null && explicit.maxWebSocketExpectations != null ? explicit.maxWebSocketExpectations : maxWebSocketExpectations;
+        merged.maxSocketTimeout = explicit != null && explicit.maxSocketTimeout != null ? explicit.maxSocketTimeout : maxSocketTimeout;
+        merged.socketConnectionTimeout = explicit != null && explicit.socketConnectionTimeout != null ? explicit.socketConnectionTimeout : socketConnectionTimeout;
+        merged.disableLogging = explicit != null && explicit.disableLogging != null ? explicit.disableLogging : disableLogging;
+        return merged;
+    }
+
+    /**
+     * Checks every configured value so a misconfiguration fails before MockServer is started
+     */
+    public ServerConfiguration validate() {
+        positive("nioEventLoopThreadCount", nioEventLoopThreadCount);
+        positive("actionHandlerThreadCount", actionHandlerThreadCount);
+        positive("clientNioEventLoopThreadCount", clientNioEventLoopThreadCount);
+        positive("webSocketClientEventLoopThreadCount", webSocketClientEventLoopThreadCount);
+        positive("maxExpectations", maxExpectations);
+        positive("maxLogEntries", maxLogEntries);
+        positive("maxWebSocketExpectations", maxWebSocketExpectations);
+        positive("maxSocketTimeout", maxSocketTimeout);
+        positive("socketConnectionTimeout", socketConnectionTimeout);
+        return this;
+    }
+
+    private static void positive(String name, Number value) {
+        if (value != null && value.longValue() <= 0) {
+            throw new IllegalArgumentException("serverConfiguration " + name + " must be greater than 0 but was " + value);
+        }
+    }
+
+    /**
+     * @return the configured values as the configuration of a single MockServer in this JVM, so MockServer instances
+     * of different projects in the same JVM each keep their own settings, values that aren't configured fall back to
+     * {@link ConfigurationProperties} as usual
+     */
+    public Configuration toConfiguration() {
+        Configuration configuration = Configuration.configuration();
+        if (nioEventLoopThreadCount != null) {
+            configuration.nioEventLoopThreadCount(nioEventLoopThreadCount);
+        }
+        if (actionHandlerThreadCount != null) {
+            configuration.actionHandlerThreadCount(actionHandlerThreadCount);
+        }
+        if (clientNioEventLoopThreadCount != null) {
+            configuration.clientNioEventLoopThreadCount(clientNioEventLoopThreadCount);
+        }
+        if (webSocketClientEventLoopThreadCount != null) {
+            configuration.webSocketClientEventLoopThreadCount(webSocketClientEventLoopThreadCount);
+        }
+        if (maxExpectations != null) {
+            configuration.maxExpectations(maxExpectations);
+        }
+        if (maxLogEntries != null) {
+            configuration.maxLogEntries(maxLogEntries);
+        }
+        if (maxWebSocketExpectations != null) {
+            configuration.maxWebSocketExpectations(maxWebSocketExpectations);
+        }
+        if (maxSocketTimeout != null) {
+            configuration.maxSocketTimeoutInMillis(maxSocketTimeout);
+        }
+        if (socketConnectionTimeout != null) {
+            configuration.socketConnectionTimeoutInMillis(socketConnectionTimeout);
+        }
+        if (disableLogging != null) {
+            configuration.disableLogging(disableLogging);
+        }
+        return configuration;
+    }
+
+    /**
+     * @return the configured values as the system properties read by ConfigurationProperties in a forked MockServer
+     */
+    public Map<String, String> toSystemProperties() {
+        Map<String, String> systemProperties = new LinkedHashMap<>();
+        put(systemProperties, "mockserver.nioEventLoopThreadCount", nioEventLoopThreadCount);
+        put(systemProperties, "mockserver.actionHandlerThreadCount", actionHandlerThreadCount);
+        put(systemProperties, "mockserver.clientNioEventLoopThreadCount", clientNioEventLoopThreadCount);
+        put(systemProperties, "mockserver.webSocketClientEventLoopThreadCount", webSocketClientEventLoopThreadCount);
+        put(systemProperties, "mockserver.maxExpectations", maxExpectations);
+        put(systemProperties, "mockserver.maxLogEntries", maxLogEntries);
+        put(systemProperties, "mockserver.maxWebSocketExpectations", maxWebSocketExpectations);
+        put(systemProperties, "mockserver.maxSocketTimeout", maxSocketTimeout);
+        put(systemProperties, "mockserver.socketConnectionTimeout", socketConnectionTimeout);
+        put(systemProperties, "mockserver.disableLogging", disableLogging);
+        return systemProperties;
+    }
+
+    private static void put(Map<String, String> systemProperties, String name, Object value) {
+        if (value != null) {
+            systemProperties.put(name, String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.mockserver.maven;
+
+import com.google.common.hash.Hashing;
+
+import java.net.InetAddress;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binds the cluster ports with a lightweight NIO acceptor and spreads the accepted connections
+ * across the MockServer shards, round robin or by a consistent hash of the client address so a
+ * client keeps using the same shard, each connection is relayed to its shard until it closes
+ * <p>
+ * Every client on the same host has the same address so clientAddress only spreads connections
+ * from several hosts, the tests of a single build all use one shard
+ * <p>
+ * The front end runs in the JVM that created it so the cluster is only reachable until that JVM exits
+ */
+public class ShardedMockServer {
+
+    public static final String ROUND_ROBIN = "roundRobin";
+    public static final String CLIENT_ADDRESS = "clientAddress";
+    private static final ConcurrentMap<String, ShardedMockServer> shardedMockServers = new ConcurrentHashMap<>();
+
+    private final List<Integer> shardPorts;
+    private final String balancing;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final TcpRelay relay;
+
+    public ShardedMockServer(Integer[] ports, List<Integer> shardPorts, String balancing) {
+        this(ports, shardPorts, balancing, TcpRelay.DEFAULT_MAX_CONNECTIONS);
+    }
+
+    /**
+     * @param maxConnections the most connections relayed at once, those beyond it are closed as soon as they are accepted
+     */
+    public ShardedMockServer(Integer[] ports, List<Integer> shardPorts, String balancing, int maxConnections) {
+        validateBalancing(balancing);
+        if (shardPorts.isEmpty()) {
+            throw new IllegalArgumentException("MockServer cluster requires at least one shard");
+        }
+        this.shardPorts = Collections.unmodifiableList(new ArrayList<>(shardPorts));
+        this.balancing = balancing;
+        this.relay = new TcpRelay("sharded", ports, maxConnections, client -> CompletableFuture.completedFuture(shardPort(client)));
+    }
+
+    public static void validateBalancing(String balancing) {
+        if (!ROUND_ROBIN.equals(balancing) && !CLIENT_ADDRESS.equals(balancing)) {
+            throw new IllegalArgumentException("MockServer cluster balancing \"" + balancing + "\" is not one of " + Arrays.asList(ROUND_ROBIN, CLIENT_ADDRESS));
+        }
+    }
+
+    private int shardPort(SocketChannel client) {
+        if (CLIENT_ADDRESS.equals(balancing)) {
+            return shardPort(client.socket().getInetAddress());
+        }
+        return shardPorts.get(Math.floorMod(nextShard.getAndIncrement(), shardPorts.size()));
+    }
+
+    int shardPort(InetAddress clientAddress) {
+        // consistent hashing moves as few clients as possible if the number of shards changes between builds
+        return shardPorts.get(Hashing.consistentHash(Arrays.hashCode(clientAddress.getAddress()), shardPorts.size()));
+    }
+
+    public List<Integer> getLocalPorts() {
+        return relay.getLocalPorts();
+    }
+
+    public List<Integer> getShardPorts() {
+        return shardPorts;
+    }
+
+    public boolean isRunning() {
+        return relay.isRunning();
+    }
+
+    /**
+     * Records the cluster on the given ports so the stopForked goal can find its shards
+     */
+    public ShardedMockServer register(Integer[] ports) {
+        shardedMockServers.put(Arrays.toString(ports), this);
+        return this;
+    }
+
+    /**
+     * @return the cluster on the given ports started by this build or null if there isn't one
+     */
+    public static ShardedMockServer forPorts(Integer[] ports) {
+        return ports != null ? shardedMockServers.get(Arrays.toString(ports)) : null;
+    }
+
+    /**
+     * Closes the front end and any relayed connections, the shards are left running
+     */
+    public void stop() {
+        shardedMockServers.values().remove(this);
+        relay.stop();
+    }
+}
@@ -8,6 +8,17 @@ import org.mockserver.client.MockServerClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 /**
@@ -98,20 +109,55 @@ public class StopMockServerTestListener extends RunListener {
 
     @Override
     public void testRunFinished(Result result) {
-        if (!MockServerPort.mockServerPort().isEmpty()) {
-            logger.info("Stopping the MockServer in Listener");
-            new MockServerClient("127.0.0.1", MockServerPort.mockServerPort().get(0)).stop();
-
+        Set<Integer> ports = publishedPorts();
+        if (!ports.isEmpty()) {
+            logger.info("Stopping the MockServer in Listener on ports " + ports);
+            long startTime = System.currentTimeMillis();
+            long stopTimeoutMillis = SECONDS.toMillis(Integer.getInteger("mockserver.stopTimeout", 10));
+            // every port is stopped concurrently as pools and instances lists run separate MockServer instances
+            ExecutorService executorService = Executors.newFixedThreadPool(ports.size());
             try {
-                // ensure that shutdown has actually completed and won't
-                // cause class loader error if JVM starts unloading classes
-                SECONDS.sleep(3);
-            } catch (InterruptedException ignore) {
-                // ignore
+                Map<Integer, Future<?>> stopFutures = new LinkedHashMap<>();
+                for (Integer port : ports) {
+                    stopFutures.put(port, executorService.submit(() -> new MockServerClient("127.0.0.1", port).stop(true).get(stopTimeoutMillis, MILLISECONDS)));
+                }
+                for (Map.Entry<Integer, Future<?>> stopFuture : stopFutures.entrySet()) {
+                    try {
+                        stopFuture.getValue().get(Math.max(0, stopTimeoutMillis - (System.currentTimeMillis() - startTime)), MILLISECONDS);
+                        logger.info("Stopped the MockServer in Listener on port " + stopFuture.getKey() + " after " + (System.currentTimeMillis() - startTime) + "ms");
+                    } catch (ExecutionException | TimeoutException exception) {
+                        logger.warn("Exception stopping MockServer on port " + stopFuture.getKey(), exception);
+                    }
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } finally {
+                executorService.shutdownNow();
+            }
+            // ensure that shutdown has actually completed and won't
+            // cause class loader error if JVM starts unloading classes
+            long remainingMillis = Math.max(0, stopTimeoutMillis - (System.currentTimeMillis() - startTime));
+            if (PortProbe.awaitReleased(remainingMillis, MILLISECONDS, ports)) {
+                logger.info("Stopped the MockServer in Listener in " + (System.currentTimeMillis() - startTime) + "ms");
+            } else {
+                logger.warn("MockServer ports " + ports + " were not released within " + stopTimeoutMillis + "ms");
             }
         } else {
             logger.info("Failed to stop MockServer as HTTP port is unknown");
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * @return the ports published by the plugin, including those of each instance of a pool or instances list
+     */
+    static Set<Integer> publishedPorts() {
+        Set<Integer> ports = new LinkedHashSet<>(MockServerPort.mockServerPort());
+        for (String property : System.getProperties().stringPropertyNames()) {
+            if (property.startsWith(MockServerPort.MOCK_SERVER_PORT_PROPERTY + ".")) {
+                ports.addAll(MockServerPort.toList(System.getProperty(property)));
+            }
+        }
+        return ports;
+    }
+
+}
@@ -0,0 +1,436 @@
+package org.mockserver.maven;
+
+import org.mockserver.log.model.LogEntry;
+import org.mockserver.logging.MockServerLogger;
+import org.slf4j.event.Level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Binds ports with a lightweight NIO acceptor and relays each accepted connection to an
+ * upstream port, used by {@link LazyMockServer} and {@link ShardedMockServer} to put
+ * MockServer behind ports it doesn't bind itself
+ * <p>
+ * Connections are relayed by a few selector threads with non-blocking reads and writes so an
+ * idle or keep-alive connection doesn't hold a thread, once maxConnections are being relayed
+ * any further connection is closed as soon as it is accepted rather than left waiting
+ */
+class TcpRelay {
+
+    private static final MockServerLogger MOCK_SERVER_LOGGER = new MockServerLogger(TcpRelay.class);
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // copying bytes is cheap compared to what MockServer does with them so a few threads are enough
+    private static final int MAX_SELECTOR_THREADS = 4;
+    private static final long UPSTREAM_CHECK_MILLIS = 100;
+    static final int DEFAULT_MAX_CONNECTIONS = 4096;
+
+    private final String name;
+    private final Function<SocketChannel, CompletableFuture<Integer>> upstreamPorts;
+    private final int maxConnections;
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final List<ServerSocketChannel> serverSocketChannels = new ArrayList<>();
+    private final List<Integer> localPorts = new ArrayList<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final List<SelectorLoop> selectorLoops = new ArrayList<>();
+    private final AtomicInteger nextSelectorLoop = new AtomicInteger();
+    private final ExecutorService taskExecutor;
+    private final BooleanSupplier accepting = this::isRunning;
+    private volatile boolean running = true;
+    private volatile boolean stopped;
+
+    TcpRelay(String name, Integer[] ports, Function<SocketChannel, CompletableFuture<Integer>> upstreamPorts) {
+        this(name, ports, DEFAULT_MAX_CONNECTIONS, upstreamPorts);
+    }
+
+    /**
+     * @param maxConnections the most connections relayed at once, those accepted beyond it are closed straight away
+     * @param upstreamPorts  called on a selector thread for each accepted connection so it must not block, returns
+     *                       the upstream port as a future the connection waits for, i.e. while MockServer boots
+     */
+    TcpRelay(String name, Integer[] ports, int maxConnections, Function<SocketChannel, CompletableFuture<Integer>> upstreamPorts) {
+        this.name = name;
+        this.upstreamPorts = upstreamPorts;
+        this.maxConnections = maxConnections;
+        this.taskExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MockServer-" + name + "-task");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            int selectorThreads = Math.min(MAX_SELECTOR_THREADS, ContainerResources.detect().getProcessors());
+            for (int selectorThread = 0; selectorThread < selectorThreads; selectorThread++) {
+                selectorLoops.add(new SelectorLoop(Selector.open()));
+            }
+            for (Integer port : ports) {
+                ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+                serverSocketChannels.add(serverSocketChannel);
+                serverSocketChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                serverSocketChannel.bind(new InetSocketAddress(port));
+                serverSocketChannel.configureBlocking(false);
+                serverSocketChannel.register(selectorLoops.get(0).selector, SelectionKey.OP_ACCEPT);
+                localPorts.add(((InetSocketAddress) serverSocketChannel.getLocalAddress()).getPort());
+            }
+        } catch (IOException ioe) {
+            running = false;
+            stopped = true;
+            serverSocketChannels.forEach(TcpRelay::close);
+            selectorLoops.forEach(selectorLoop -> close(selectorLoop.selector));
+            taskExecutor.shutdownNow();
+            throw new RuntimeException("Exception binding " + name + " MockServer to port(s) " + localPorts, ioe);
+        }
+        for (int selectorThread = 0; selectorThread < selectorLoops.size(); selectorThread++) {
+            Thread thread = new Thread(selectorLoops.get(selectorThread), "MockServer-" + name + "-relay-" + selectorThread);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        // probing these ports by connecting would be relayed, and would boot a lazy MockServer
+        PortProbe.registerAcceptor(localPorts, accepting);
+    }
+
+    List<Integer> getLocalPorts() {
+        return localPorts;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Runs a task that may block, i.e. booting MockServer, off the selector threads
+     */
+    void execute(Runnable runnable) {
+        taskExecutor.execute(runnable);
+    }
+
+    /**
+     * Stops the relay, releasing its ports, once the upstream has stopped
+     */
+    void stopWhen(BooleanSupplier upstreamStopped) {
+        taskExecutor.execute(() -> {
+            try {
+                while (!stopped) {
+                    if (upstreamStopped.getAsBoolean()) {
+                        MOCK_SERVER_LOGGER.logEvent(
+                                new LogEntry()
+                                        .setType(LogEntry.LogMessageType.SERVER_CONFIGURATION)
+                                        .setLogLevel(Level.INFO)
+                                        .setMessageFormat("stopped " + name + " MockServer acceptor on port(s) " + localPorts + " as MockServer has stopped")
+                        );
+                        stop();
+                        return;
+                    }
+                    MILLISECONDS.sleep(UPSTREAM_CHECK_MILLIS);
+                }
+            } catch (InterruptedException ie) {
+                // the relay was stopped
+            }
+        });
+    }
+
+    private void accept(ServerSocketChannel serverSocketChannel) throws IOException {
+        SocketChannel client;
+        while ((client = serverSocketChannel.accept()) != null) {
+            if (connectionCount.incrementAndGet() > maxConnections) {
+                connectionCount.decrementAndGet();
+                refuse(client);
+                continue;
+            }
+            Connection connection = new Connection(client);
+            connections.add(connection);
+            // connections are spread across the selector threads, each is then only touched by its own thread
+            SelectorLoop selectorLoop = selectorLoops.get(Math.floorMod(nextSelectorLoop.getAndIncrement(), selectorLoops.size()));
+            CompletableFuture<Integer> upstreamPort;
+            try {
+                upstreamPort = upstreamPorts.apply(client);
+            } catch (RuntimeException re) {
+                connection.close();
+                continue;
+            }
+            upstreamPort.whenComplete((port, throwable) -> selectorLoop.execute(() -> {
+                if (throwable != null) {
+                    // i.e. MockServer failed to start
+                    connection.close();
+                } else {
+                    connection.connect(selectorLoop.selector, port);
+                }
+            }));
+        }
+    }
+
+    private void refuse(SocketChannel client) {
+        MOCK_SERVER_LOGGER.logEvent(
+                new LogEntry()
+                        .setType(LogEntry.LogMessageType.WARN)
+                        .setLogLevel(Level.WARN)
+                        .setMessageFormat("Closing connection to " + name + " MockServer on port(s) " + localPorts + " as " + maxConnections + " connections are already being relayed")
+        );
+        close(client);
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignore) {
+                // already closed
+            }
+        }
+    }
+
+    /**
+     * Stops accepting connections, connections already accepted are still relayed
+     */
+    void closeAcceptor() {
+        running = false;
+        PortProbe.unregisterAcceptor(localPorts, accepting);
+        serverSocketChannels.forEach(TcpRelay::close);
+        if (!selectorLoops.isEmpty()) {
+            // a closed channel only releases its port once its selector has deregistered it
+            selectorLoops.get(0).selector.wakeup();
+        }
+    }
+
+    /**
+     * Closes the acceptor, every relayed connection and stops the relay threads
+     */
+    void stop() {
+        closeAcceptor();
+        stopped = true;
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        for (SelectorLoop selectorLoop : selectorLoops) {
+            selectorLoop.selector.wakeup();
+        }
+        taskExecutor.shutdownNow();
+    }
+
+    private final class SelectorLoop implements Runnable {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+        private SelectorLoop(Selector selector) {
+            this.selector = selector;
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped) {
+                    selector.select();
+                    for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                        task.run();
+                    }
+                    for (Iterator<SelectionKey> keys = selector.selectedKeys().iterator(); keys.hasNext(); ) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        if (key.isValid() && key.isAcceptable()) {
+                            try {
+                                accept((ServerSocketChannel) key.channel());
+                            } catch (IOException ioe) {
+                                if (running) {
+                                    logException("Exception accepting connection for", ioe);
+                                }
+                            }
+                        } else if (key.attachment() instanceof Endpoint) {
+                            Endpoint endpoint = (Endpoint) key.attachment();
+                            try {
+                                endpoint.connection.handle(endpoint, key);
+                            } catch (IOException | CancelledKeyException exception) {
+                                // connection reset or closed while it was handled
+                                endpoint.connection.close();
+                            }
+                        }
+                    }
+                }
+            } catch (IOException | ClosedSelectorException exception) {
+                if (!stopped) {
+                    logException("Exception relaying connections for", exception);
+                }
+            } finally {
+                try {
+                    for (SelectionKey key : selector.keys()) {
+                        close(key.channel());
+                    }
+                } catch (ClosedSelectorException ignore) {
+                    // already closed
+                }
+                close(selector);
+            }
+        }
+
+        private void logException(String message, Exception exception) {
+            MOCK_SERVER_LOGGER.logEvent(
+                    new LogEntry()
+                            .setType(LogEntry.LogMessageType.EXCEPTION)
+                            .setLogLevel(Level.ERROR)
+                            .setMessageFormat(message + " " + name + " MockServer on port(s) " + localPorts)
+                            .setThrowable(exception)
+            );
+        }
+    }
+
+    /**
+     * One side of a relayed connection, the buffer holds what was read from this side and not yet written to its peer
+     */
+    private static final class Endpoint {
+
+        private final Connection connection;
+        private final SocketChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private Endpoint peer;
+        private SelectionKey key;
+        private boolean inputClosed;
+        private boolean outputShutdown;
+
+        private Endpoint(Connection connection, SocketChannel channel) {
+            this.connection = connection;
+            this.channel = channel;
+        }
+
+        private boolean isDone() {
+            return inputClosed && buffer.position() == 0;
+        }
+    }
+
+    private final class Connection {
+
+        private final Endpoint client;
+        private Endpoint upstream;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Connection(SocketChannel client) {
+            this.client = new Endpoint(this, client);
+        }
+
+        /**
+         * Connects to the upstream port, nothing is read from the client until the connection is made
+         */
+        private void connect(Selector selector, int port) {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                SocketChannel upstreamChannel = SocketChannel.open();
+                upstream = new Endpoint(this, upstreamChannel);
+                client.peer = upstream;
+                upstream.peer = client;
+                for (Endpoint endpoint : new Endpoint[]{client, upstream}) {
+                    endpoint.channel.configureBlocking(false);
+                    endpoint.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                }
+                client.key = client.channel.register(selector, 0, client);
+                upstream.key = upstreamChannel.register(selector, SelectionKey.OP_CONNECT, upstream);
+                if (upstreamChannel.connect(new InetSocketAddress("127.0.0.1", port))) {
+                    connected();
+                }
+                if (closed.get()) {
+                    // closed by stop while connecting
+                    close();
+                }
+            } catch (IOException | CancelledKeyException exception) {
+                close();
+            }
+        }
+
+        private void connected() {
+            interest(client);
+            interest(upstream);
+        }
+
+        private void handle(Endpoint endpoint, SelectionKey key) throws IOException {
+            if (key.isConnectable()) {
+                if (endpoint.channel.finishConnect()) {
+                    connected();
+                }
+                return;
+            }
+            if (key.isReadable()) {
+                if (endpoint.channel.read(endpoint.buffer) == -1) {
+                    endpoint.inputClosed = true;
+                }
+                flush(endpoint);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush(endpoint.peer);
+            }
+        }
+
+        /**
+         * Writes what was read from one side to the other, half closes the other side once the first has ended
+         */
+        private void flush(Endpoint from) throws IOException {
+            from.buffer.flip();
+            from.peer.channel.write(from.buffer);
+            from.buffer.compact();
+            if (from.isDone() && !from.peer.outputShutdown) {
+                // propagate half close so request / response framing that relies on it still works
+                from.peer.channel.shutdownOutput();
+                from.peer.outputShutdown = true;
+            }
+            if (client.isDone() && upstream.isDone()) {
+                close();
+            } else {
+                interest(from);
+                interest(from.peer);
+            }
+        }
+
+        /**
+         * Reads only while there is room to buffer what is read and writes only while there is something to write
+         */
+        private void interest(Endpoint endpoint) {
+            int interestOps = 0;
+            if (!endpoint.inputClosed && endpoint.buffer.hasRemaining()) {
+                interestOps |= SelectionKey.OP_READ;
+            }
+            if (endpoint.peer.buffer.position() > 0) {
+                interestOps |= SelectionKey.OP_WRITE;
+            }
+            endpoint.key.interestOps(interestOps);
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                connections.remove(this);
+                connectionCount.decrementAndGet();
+            }
+            TcpRelay.close(client.channel);
+            if (upstream != null) {
+                TcpRelay.close(upstream.channel);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class ClassDataSharingArchiveTest {
+
+    private final File cacheDirectory = new File("target", "mockserver-cds-test");
+
+    @Test
+    public void shouldKeyArchiveByVersionAndClasspath() throws IOException {
+        // given
+        File jar = File.createTempFile("mockserver", ".jar");
+        jar.deleteOnExit();
+
+        // when
+        ClassDataSharingArchive archiveOne = ClassDataSharingArchive.forClasspath(cacheDirectory, "5.15.0", Collections.singletonList(jar.getAbsolutePath()));
+        ClassDataSharingArchive archiveTwo = ClassDataSharingArchive.forClasspath(cacheDirectory, "5.15.1", Collections.singletonList(jar.getAbsolutePath()));
+        ClassDataSharingArchive archiveThree = ClassDataSharingArchive.forClasspath(cacheDirectory, "5.15.0", Collections.singletonList(jar.getAbsolutePath()));
+
+        // then
+        assertThat(archiveOne.getArchiveFile(), not(archiveTwo.getArchiveFile()));
+        assertThat(archiveOne.getArchiveFile(), is(archiveThree.getArchiveFile()));
+        assertThat(archiveOne.getArchiveFile().getName(), containsString("mockserver-5.15.0-java" + ClassDataSharingArchive.javaVersion()));
+    }
+
+    @Test
+    public void shouldDumpArchiveWhenMissingAndMapArchiveWhenPresent() throws IOException {
+        // given
+        File jar = File.createTempFile("mockserver", ".jar");
+        jar.deleteOnExit();
+        ClassDataSharingArchive archive = ClassDataSharingArchive.forClasspath(cacheDirectory, "5.15.0", Collections.singletonList(jar.getAbsolutePath()));
+        Files.deleteIfExists(archive.getArchiveFile().toPath());
+
+        // then
+        assertThat(archive.jvmArguments(), is(Collections.singletonList("-XX:ArchiveClassesAtExit=" + archive.getArchiveFile().getAbsolutePath())));
+
+        // when
+        Files.write(archive.getArchiveFile().toPath(), new byte[]{1});
+
+        // then
+        assertThat(archive.jvmArguments().contains("-XX:SharedArchiveFile=" + archive.getArchiveFile().getAbsolutePath()), is(true));
+        Files.delete(archive.getArchiveFile().toPath());
+    }
+
+    @Test
+    public void shouldNotSupportDirectoriesOnClasspath() {
+        // when
+        ClassDataSharingArchive archive = ClassDataSharingArchive.forClasspath(cacheDirectory, "5.15.0", Collections.singletonList(new File("target").getAbsolutePath()));
+
+        // then
+        assertThat(archive.unsupportedReason(), containsString("is not a jar file"));
+    }
+
+    @Test
+    public void shouldRecordStartupTimeWithoutArchive() throws IOException {
+        // given
+        File jar = File.createTempFile("mockserver", ".jar");
+        jar.deleteOnExit();
+        ClassDataSharingArchive archive = ClassDataSharingArchive.forClasspath(cacheDirectory, "5.15.0", Collections.singletonList(jar.getAbsolutePath()));
+        cacheDirectory.mkdirs();
+
+        // when
+        archive.recordStartupTimeWithoutArchive(1234);
+
+        // then
+        assertThat(archive.startupTimeWithoutArchive(), is(1234L));
+    }
+
+    @Test
+    public void shouldHandleMissingStartupTime() {
+        // when
+        ClassDataSharingArchive archive = ClassDataSharingArchive.forClasspath(cacheDirectory, "unknown", Collections.emptyList());
+
+        // then
+        assertThat(archive.startupTimeWithoutArchive(), nullValue());
+    }
+}
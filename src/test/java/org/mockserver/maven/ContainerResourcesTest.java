@@ -0,0 +1,168 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class ContainerResourcesTest {
+
+    private static final long GIGABYTE = 1024L * 1024 * 1024;
+
+    private final File directory = new File("target", "mockserver-cgroup-test");
+
+    @Test
+    public void shouldReadCgroupV2Limits() throws IOException {
+        // given
+        File cgroupRoot = cgroup("v2");
+        write(new File(cgroupRoot, "cpu.max"), "150000 100000\n");
+        write(new File(cgroupRoot, "memory.max"), (4 * GIGABYTE) + "\n");
+
+        // when
+        ContainerResources containerResources = ContainerResources.detect(cgroupRoot, new File(cgroupRoot, "missing"), 64, 256 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.getProcessors(), is(2));
+        assertThat(containerResources.getMemory(), is(4 * GIGABYTE));
+    }
+
+    @Test
+    public void shouldIgnoreUnlimitedCgroupV2() throws IOException {
+        // given
+        File cgroupRoot = cgroup("v2-unlimited");
+        write(new File(cgroupRoot, "cpu.max"), "max 100000\n");
+        write(new File(cgroupRoot, "memory.max"), "max\n");
+
+        // when
+        ContainerResources containerResources = ContainerResources.detect(cgroupRoot, new File(cgroupRoot, "missing"), 8, 16 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.getProcessors(), is(8));
+        assertThat(containerResources.getMemory(), is(16 * GIGABYTE));
+    }
+
+    @Test
+    public void shouldReadCgroupV1Limits() throws IOException {
+        // given
+        File cgroupRoot = cgroup("v1");
+        write(new File(cgroupRoot, "cpu/cpu.cfs_quota_us"), "200000\n");
+        write(new File(cgroupRoot, "cpu/cpu.cfs_period_us"), "100000\n");
+        write(new File(cgroupRoot, "memory/memory.limit_in_bytes"), (2 * GIGABYTE) + "\n");
+
+        // when
+        ContainerResources containerResources = ContainerResources.detect(cgroupRoot, new File(cgroupRoot, "missing"), 64, 256 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.getProcessors(), is(2));
+        assertThat(containerResources.getMemory(), is(2 * GIGABYTE));
+    }
+
+    @Test
+    public void shouldIgnoreUnlimitedCgroupV1() throws IOException {
+        // given
+        File cgroupRoot = cgroup("v1-unlimited");
+        write(new File(cgroupRoot, "cpu/cpu.cfs_quota_us"), "-1\n");
+        write(new File(cgroupRoot, "cpu/cpu.cfs_period_us"), "100000\n");
+        write(new File(cgroupRoot, "memory/memory.limit_in_bytes"), "9223372036854771712\n");
+
+        // when
+        ContainerResources containerResources = ContainerResources.detect(cgroupRoot, new File(cgroupRoot, "missing"), 4, 8 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.getProcessors(), is(4));
+        assertThat(containerResources.getMemory(), is(8 * GIGABYTE));
+    }
+
+    @Test
+    public void shouldReadCgroupV2LimitsOfProcessCgroupAndParents() throws IOException {
+        // given
+        File cgroupRoot = cgroup("v2-process");
+        File procSelfCgroup = new File(cgroupRoot, "proc-self-cgroup");
+        write(procSelfCgroup, "0::/build.slice/maven.service\n");
+        write(new File(cgroupRoot, "build.slice/cpu.max"), "300000 100000\n");
+        write(new File(cgroupRoot, "build.slice/memory.max"), (2 * GIGABYTE) + "\n");
+        write(new File(cgroupRoot, "build.slice/maven.service/cpu.max"), "max 100000\n");
+        write(new File(cgroupRoot, "build.slice/maven.service/memory.max"), (3 * GIGABYTE) + "\n");
+
+        // when
+        ContainerResources containerResources = ContainerResources.detect(cgroupRoot, procSelfCgroup, 64, 256 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.getProcessors(), is(3));
+        assertThat(containerResources.getMemory(), is(2 * GIGABYTE));
+    }
+
+    @Test
+    public void shouldReadCgroupV1LimitsOfProcessCgroup() throws IOException {
+        // given
+        File cgroupRoot = cgroup("v1-process");
+        File procSelfCgroup = new File(cgroupRoot, "proc-self-cgroup");
+        write(procSelfCgroup, "12:memory:/build\n4:cpu,cpuacct:/build\n1:name=systemd:/build\n");
+        write(new File(cgroupRoot, "cpu/build/cpu.cfs_quota_us"), "100000\n");
+        write(new File(cgroupRoot, "cpu/build/cpu.cfs_period_us"), "100000\n");
+        write(new File(cgroupRoot, "memory/build/memory.limit_in_bytes"), GIGABYTE + "\n");
+
+        // when
+        ContainerResources containerResources = ContainerResources.detect(cgroupRoot, procSelfCgroup, 64, 256 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.getProcessors(), is(1));
+        assertThat(containerResources.getMemory(), is(GIGABYTE));
+    }
+
+    @Test
+    public void shouldFallBackToRootCgroupWhenProcessCgroupIsNotMounted() throws IOException {
+        // given - without a cgroup namespace /proc/self/cgroup has the path on the host
+        File cgroupRoot = cgroup("v1-container");
+        File procSelfCgroup = new File(cgroupRoot, "proc-self-cgroup");
+        write(procSelfCgroup, "12:memory:/docker/0123456789ab\n4:cpu,cpuacct:/docker/0123456789ab\n");
+        write(new File(cgroupRoot, "cpu/cpu.cfs_quota_us"), "200000\n");
+        write(new File(cgroupRoot, "cpu/cpu.cfs_period_us"), "100000\n");
+        write(new File(cgroupRoot, "memory/memory.limit_in_bytes"), (2 * GIGABYTE) + "\n");
+
+        // when
+        ContainerResources containerResources = ContainerResources.detect(cgroupRoot, procSelfCgroup, 64, 256 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.getProcessors(), is(2));
+        assertThat(containerResources.getMemory(), is(2 * GIGABYTE));
+    }
+
+    @Test
+    public void shouldShareResourcesBetweenInstances() {
+        // given
+        ContainerResources containerResources = new ContainerResources(2, 4 * GIGABYTE);
+
+        // then
+        assertThat(containerResources.processorsPerInstance(1), is(2));
+        assertThat(containerResources.processorsPerInstance(4), is(1));
+        assertThat(containerResources.maxHeapMegabytesPerInstance(1), is(1536L));
+        assertThat(containerResources.maxHeapMegabytesPerInstance(4), is(384L));
+        assertThat(containerResources.maxHeapMegabytesPerInstance(64), is(64L));
+        assertThat(new ContainerResources(2, Long.MAX_VALUE).maxHeapMegabytesPerInstance(1), is(nullValue()));
+    }
+
+    @Test
+    public void shouldOnlySupportAutoSizing() {
+        assertThat(ContainerResources.unsupportedReason(null), is(nullValue()));
+        assertThat(ContainerResources.unsupportedReason("auto"), is(nullValue()));
+        assertThat(ContainerResources.unsupportedReason("large"), is("sizing \"large\" is not auto"));
+    }
+
+    private File cgroup(String name) {
+        return new File(directory, name);
+    }
+
+    private void write(File file, String content) throws IOException {
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Unable to create directory " + file.getParentFile().getAbsolutePath());
+        }
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,129 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.client.initialize.PluginExpectationInitializer;
+import org.mockserver.mock.Expectation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class ExpectationSnapshotTest {
+
+    private final File directory = new File("target", "mockserver-expectation-snapshot-test");
+
+    @Test
+    public void shouldKeySnapshotByJsonContent() throws IOException {
+        // given
+        File file = write("expectations.json", "/first");
+        String firstKey = ExpectationSnapshot.key(null, InitializationJson.ofFile(file), Collections.emptyList());
+
+        // when
+        write("expectations.json", "/second");
+
+        // then
+        assertThat(ExpectationSnapshot.key(null, InitializationJson.ofFile(file), Collections.emptyList()), is(not(firstKey)));
+        assertThat(ExpectationSnapshot.key(null, InitializationJson.ofFile(file), Collections.emptyList()), is(ExpectationSnapshot.key(null, InitializationJson.ofFile(file), Collections.emptyList())));
+    }
+
+    @Test
+    public void shouldKeySnapshotByInitializerClass() {
+        assertThat(ExpectationSnapshot.key(new ExampleInitializationClass(), null, Collections.emptyList()), is(not(ExpectationSnapshot.key(new RecordedInitializationClass(), null, Collections.emptyList()))));
+        assertThat(ExpectationSnapshot.key(new RecordedInitializationClass(), null, Collections.emptyList()), is(ExpectationSnapshot.key(new RecordedInitializationClass(), null, Collections.emptyList())));
+    }
+
+    @Test
+    public void shouldKeepKeyWhenClasspathIsRecompiled() throws IOException {
+        // given
+        File classes = new File(directory, "classes");
+        File compiledClass = writeClasspathFile(classes, "org/example/Other.class");
+        File resource = writeClasspathFile(classes, "expectations/response.json");
+        List<String> classpath = Collections.singletonList(classes.getAbsolutePath());
+        String firstKey = ExpectationSnapshot.key(new RecordedInitializationClass(), null, classpath);
+
+        // when
+        assertThat(compiledClass.setLastModified(compiledClass.lastModified() + 10000), is(true));
+
+        // then
+        assertThat(ExpectationSnapshot.key(new RecordedInitializationClass(), null, classpath), is(firstKey));
+
+        // when
+        Files.write(resource.toPath(), "{\"changed\": true}".getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertThat(ExpectationSnapshot.key(new RecordedInitializationClass(), null, classpath), is(not(firstKey)));
+    }
+
+    @Test
+    public void shouldWriteExpectationsOfClassAndJsonInitializers() throws IOException {
+        // given
+        InitializationJson initializerJson = InitializationJson.ofFile(write("expectations.json", "/json"));
+        ExpectationSnapshot expectationSnapshot = ExpectationSnapshot.forInitializers(new File(directory, "snapshots"), new RecordedInitializationClass(), initializerJson, Collections.emptyList());
+
+        // when
+        int count = expectationSnapshot.write();
+
+        // then
+        assertThat(count, is(2));
+        assertThat(expectationSnapshot.exists(), is(true));
+        assertThat(expectationSnapshot.getFile().getName().endsWith(".json.gz"), is(true));
+        List<Expectation> expectations = new ArrayList<>();
+        expectationSnapshot.load().forEachBatch(InitializationJson.BATCH_SIZE, batch -> Collections.addAll(expectations, batch));
+        assertThat(expectations.size(), is(2));
+        assertThat(expectations.get(0).getHttpRequest().toString().contains("/class"), is(true));
+        assertThat(expectations.get(1).getHttpRequest().toString().contains("/json"), is(true));
+    }
+
+    @Test
+    public void shouldReplaceStaleSnapshot() throws IOException {
+        // given
+        File snapshots = new File(directory, "stale-snapshots");
+        ExpectationSnapshot firstSnapshot = ExpectationSnapshot.forInitializers(snapshots, null, InitializationJson.ofFile(write("stale.json", "/first")), Collections.emptyList());
+        firstSnapshot.write();
+
+        // when
+        ExpectationSnapshot secondSnapshot = ExpectationSnapshot.forInitializers(snapshots, null, InitializationJson.ofFile(write("stale.json", "/second")), Collections.emptyList());
+        secondSnapshot.write();
+
+        // then
+        assertThat(firstSnapshot.exists(), is(false));
+        assertThat(secondSnapshot.exists(), is(true));
+    }
+
+    private File write(String name, String path) throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory.getAbsolutePath());
+        }
+        File file = new File(directory, name);
+        Files.write(file.toPath(), ("[{\"httpRequest\": {\"path\": \"" + path + "\"}, \"httpResponse\": {\"statusCode\": 200}}]").getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private File writeClasspathFile(File classes, String name) throws IOException {
+        File file = new File(classes, name);
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Unable to create directory " + file.getParentFile().getAbsolutePath());
+        }
+        Files.write(file.toPath(), name.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    public static class RecordedInitializationClass implements PluginExpectationInitializer {
+
+        @Override
+        public void initializeExpectations(MockServerClient mockServerClient) {
+            mockServerClient.when(request().withPath("/class")).respond(response().withStatusCode(201));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.mockserver.maven;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.netty.MockServer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockserver.model.HttpRequest.request;
+
+public class ExpectationUploaderTest {
+
+    private MockServer mockServer;
+
+    @Before
+    public void startMockServer() {
+        mockServer = new MockServer(0);
+    }
+
+    @After
+    public void stopMockServer() {
+        mockServer.stop();
+    }
+
+    @Test
+    public void shouldUploadExpectationsInBatches() {
+        // when
+        int count = new ExpectationUploader(2, 1, false).upload("127.0.0.1", mockServer.getLocalPort(), expectations(5));
+
+        // then
+        assertThat(count, is(5));
+        assertThat(new MockServerClient("127.0.0.1", mockServer.getLocalPort()).retrieveActiveExpectations(request()).length, is(5));
+    }
+
+    @Test
+    public void shouldUploadGzipBatchesConcurrently() {
+        // when
+        int count = new ExpectationUploader(3, 4, true).upload("127.0.0.1", mockServer.getLocalPort(), expectations(20));
+
+        // then
+        assertThat(count, is(20));
+        assertThat(new MockServerClient("127.0.0.1", mockServer.getLocalPort()).retrieveActiveExpectations(request()).length, is(20));
+    }
+
+    @Test
+    public void shouldFailWhenMockServerRejectsBatch() {
+        try {
+            // when
+            new ExpectationUploader(2, 2, false).upload("127.0.0.1", mockServer.getLocalPort(), InitializationJson.ofContent("[{\"httpRequest\": {\"path\": 1}, \"httpResponse\": {\"statusCode\": \"ok\"}}]"));
+            fail("expected exception");
+        } catch (IllegalStateException ise) {
+            // then
+            assertThat(ise.getMessage(), containsString("MockServer on port " + mockServer.getLocalPort() + " rejected expectations with status 400"));
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidSettings() {
+        try {
+            // when
+            new ExpectationUploader(0, 1, false);
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("initialization batchSize must be greater than 0 but was 0"));
+        }
+        try {
+            // when
+            new ExpectationUploader(1, 0, false);
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("initialization concurrency must be greater than 0 but was 0"));
+        }
+    }
+
+    private InitializationJson expectations(int expectations) {
+        StringBuilder json = new StringBuilder("[");
+        for (int expectation = 0; expectation < expectations; expectation++) {
+            json.append(expectation > 0 ? "," : "").append("{\"httpRequest\": {\"path\": \"/path_").append(expectation).append("\"}, \"httpResponse\": {\"statusCode\": 200}}");
+        }
+        return InitializationJson.ofContent(json.append("]").toString());
+    }
+}
@@ -0,0 +1,68 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarFile;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class ForkedClasspathTest {
+
+    private final File directory = new File("target", "mockserver-classpath-test");
+    private final List<String> classPath = Arrays.asList(
+        new File("mockserver-netty-no-dependencies.jar").getAbsolutePath(),
+        new File("target/classes").getAbsolutePath()
+    );
+
+    @Test
+    public void shouldPassClasspathInline() {
+        assertThat(new ForkedClasspath(directory, classPath).jvmArguments(ForkedClasspath.INLINE), is(Arrays.asList("-cp", classPath.get(0) + File.pathSeparator + classPath.get(1))));
+    }
+
+    @Test
+    public void shouldPassClasspathInArgFile() throws IOException {
+        // when
+        List<String> arguments = new ForkedClasspath(directory, classPath).jvmArguments(ForkedClasspath.ARG_FILE);
+
+        // then
+        File argFile = new ForkedClasspath(directory, classPath).argFile();
+        assertThat(arguments, is(Arrays.asList("@" + argFile.getAbsolutePath())));
+        String expectedClassPath = (classPath.get(0) + File.pathSeparator + classPath.get(1)).replace("\\", "\\\\");
+        assertThat(new String(Files.readAllBytes(argFile.toPath()), StandardCharsets.UTF_8), is("-cp \"" + expectedClassPath + "\""));
+    }
+
+    @Test
+    public void shouldPassClasspathInManifestJar() throws IOException {
+        // when
+        List<String> arguments = new ForkedClasspath(directory, classPath).jvmArguments(ForkedClasspath.MANIFEST_JAR);
+
+        // then
+        File manifestJar = new ForkedClasspath(directory, classPath).manifestJar();
+        assertThat(arguments, is(Arrays.asList("-cp", manifestJar.getAbsolutePath())));
+        try (JarFile jarFile = new JarFile(manifestJar)) {
+            assertThat(jarFile.getManifest().getMainAttributes().getValue("Class-Path"), is(new File(classPath.get(0)).toURI() + " " + new File(classPath.get(1)).toURI()));
+        }
+    }
+
+    @Test
+    public void shouldNameLaunchFilesByClasspath() {
+        assertThat(new ForkedClasspath(directory, classPath).argFile(), is(new ForkedClasspath(directory, classPath).argFile()));
+        assertThat(new ForkedClasspath(directory, classPath).argFile(), not(new ForkedClasspath(directory, classPath.subList(0, 1)).argFile()));
+    }
+
+    @Test
+    public void shouldRejectUnknownLaunchMode() {
+        assertThat(ForkedClasspath.unsupportedReason(ForkedClasspath.MANIFEST_JAR), nullValue());
+        assertThat(ForkedClasspath.unsupportedReason("spawn"), containsString("launch mode \"spawn\" is not one of [inline, argFile, manifestJar]"));
+    }
+}
@@ -0,0 +1,107 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class ForkedJvmOptionsTest {
+
+    @Test
+    public void shouldOnlyAddConfiguredOptionsWithoutProfile() {
+        // when
+        ForkedJvmOptions forkedJvmOptions = new ForkedJvmOptions(null, null, null, "-Dfoo=bar", Arrays.asList("-Done=1", " -Dtwo=2 "));
+
+        // then
+        assertThat(forkedJvmOptions.getProfile(), is("default"));
+        assertThat(forkedJvmOptions.arguments(), is(Arrays.asList("-Dfoo=bar", "-Done=1", "-Dtwo=2")));
+    }
+
+    @Test
+    public void shouldAddFastStartProfile() {
+        // when
+        ForkedJvmOptions forkedJvmOptions = new ForkedJvmOptions(ForkedJvmOptions.FAST_START, null, "128m", null, Collections.singletonList("-Dfoo=bar"));
+
+        // then
+        assertThat(forkedJvmOptions.getProfile(), is("fast-start"));
+        assertThat(forkedJvmOptions.arguments(), is(Arrays.asList(
+            "-XX:TieredStopAtLevel=1",
+            "-Xshare:auto",
+            "-XX:-UsePerfData",
+            "-XX:+UseSerialGC",
+            "-Xms128m",
+            "-Xmx128m",
+            "-Dfoo=bar"
+        )));
+    }
+
+    @Test
+    public void shouldReplaceProfileGarbageCollector() {
+        // when
+        ForkedJvmOptions forkedJvmOptions = new ForkedJvmOptions(ForkedJvmOptions.FAST_START, "epsilon", null, null, null);
+
+        // then
+        assertThat(forkedJvmOptions.arguments(), not(hasItem("-XX:+UseSerialGC")));
+        assertThat(forkedJvmOptions.arguments(), hasItem("-XX:+UseEpsilonGC"));
+    }
+
+    @Test
+    public void shouldAddLowLatencyProfile() {
+        // when
+        ForkedJvmOptions forkedJvmOptions = new ForkedJvmOptions(ForkedJvmOptions.LOW_LATENCY, null, null, null, null);
+
+        // then
+        assertThat(forkedJvmOptions.arguments(), hasItem("-XX:+AlwaysPreTouch"));
+        assertThat(forkedJvmOptions.arguments(), hasItem(ClassDataSharingArchive.javaVersion() >= 15 ? "-XX:+UseZGC" : "-XX:+UseG1GC"));
+    }
+
+    @Test
+    public void shouldAddContainerLimits() {
+        // when
+        ForkedJvmOptions forkedJvmOptions = new ForkedJvmOptions(null, null, null, null, null).withContainerLimits(2, 384L);
+
+        // then
+        assertThat(forkedJvmOptions.arguments(), hasItem("-Xmx384m"));
+        if (ClassDataSharingArchive.javaVersion() >= 10) {
+            assertThat(forkedJvmOptions.arguments(), hasItem("-XX:ActiveProcessorCount=2"));
+        }
+    }
+
+    @Test
+    public void shouldNotReplaceExplicitHeapWithContainerLimits() {
+        // when
+        ForkedJvmOptions heapSize = new ForkedJvmOptions(null, null, "128m", null, null).withContainerLimits(2, 384L);
+        ForkedJvmOptions jvmArguments = new ForkedJvmOptions(null, null, null, null, Arrays.asList("-Xmx1g", "-XX:ActiveProcessorCount=4")).withContainerLimits(2, 384L);
+
+        // then
+        assertThat(heapSize.arguments(), not(hasItem("-Xmx384m")));
+        assertThat(heapSize.arguments(), hasItem("-Xmx128m"));
+        assertThat(jvmArguments.arguments(), is(Arrays.asList("-Xmx1g", "-XX:ActiveProcessorCount=4")));
+    }
+
+    @Test
+    public void shouldRejectUnknownProfile() {
+        try {
+            new ForkedJvmOptions("turbo", null, null, null, null);
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            assertThat(iae.getMessage(), is("jvmProfile \"turbo\" is not one of [fast-start, low-latency]"));
+        }
+    }
+
+    @Test
+    public void shouldRejectUnknownGarbageCollector() {
+        try {
+            new ForkedJvmOptions(null, "cms", null, null, null);
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            assertThat(iae.getMessage(), is("garbageCollector \"cms\" is not one of [serial, parallel, g1, z, shenandoah, epsilon]"));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+
+public class ForkedMockServerLauncherTest {
+
+    // mockserver-netty-no-dependencies relocates everything else it bundles, i.e. guava and slf4j
+    private static final List<String> FORKED_CLASSPATH_PACKAGES = Arrays.asList(
+        "java/",
+        "org/mockserver/cli/",
+        "org/mockserver/configuration/",
+        "org/mockserver/netty/"
+    );
+    private static final Pattern DESCRIPTOR_TYPE = Pattern.compile("L([\\w/$]+);");
+
+    @Test
+    public void shouldOnlyUseClassesOnForkedClasspath() throws IOException {
+        // given
+        Set<String> pluginClasses = new TreeSet<>();
+        Set<String> unavailableClasses = new TreeSet<>();
+        Deque<String> classesToCheck = new ArrayDeque<>();
+        classesToCheck.add(ForkedMockServerLauncher.class.getName().replace('.', '/'));
+
+        // when
+        while (!classesToCheck.isEmpty()) {
+            String pluginClass = classesToCheck.poll();
+            if (pluginClasses.add(pluginClass)) {
+                for (String referencedClass : referencedClasses(pluginClass)) {
+                    if (referencedClass.startsWith("org/mockserver/maven/")) {
+                        classesToCheck.add(referencedClass);
+                    } else if (FORKED_CLASSPATH_PACKAGES.stream().noneMatch(referencedClass::startsWith)) {
+                        unavailableClasses.add(pluginClass + " -> " + referencedClass);
+                    }
+                }
+            }
+        }
+
+        // then
+        assertThat(unavailableClasses, is(empty()));
+        assertThat(pluginClasses.contains("org/mockserver/maven/MockServerPort"), is(false));
+    }
+
+    @Test
+    public void shouldParseServerPorts() {
+        assertThat(ForkedMockServerLauncher.serverPorts("-serverPort", "1080, 0", "-logLevel", "INFO"), is(Arrays.asList(1080, 0)));
+        assertThat(ForkedMockServerLauncher.serverPorts("-logLevel", "INFO").isEmpty(), is(true));
+    }
+
+    /**
+     * Reads the class and descriptor entries of the constant pool of a compiled class
+     */
+    private static Set<String> referencedClasses(String className) throws IOException {
+        try (InputStream inputStream = ForkedMockServerLauncherTest.class.getClassLoader().getResourceAsStream(className + ".class")) {
+            if (inputStream == null) {
+                throw new IOException("Unable to read " + className);
+            }
+            DataInputStream classFile = new DataInputStream(inputStream);
+            classFile.skipBytes(8);
+            int constantPoolCount = classFile.readUnsignedShort();
+            Map<Integer, String> utf8 = new HashMap<>();
+            Set<Integer> classNameIndexes = new LinkedHashSet<>();
+            for (int index = 1; index < constantPoolCount; index++) {
+                int tag = classFile.readUnsignedByte();
+                switch (tag) {
+                    case 1:
+                        utf8.put(index, classFile.readUTF());
+                        break;
+                    case 7:
+                        classNameIndexes.add(classFile.readUnsignedShort());
+                        break;
+                    case 8:
+                    case 16:
+                    case 19:
+                    case 20:
+                        classFile.skipBytes(2);
+                        break;
+                    case 15:
+                        classFile.skipBytes(3);
+                        break;
+                    case 3:
+                    case 4:
+                    case 9:
+                    case 10:
+                    case 11:
+                    case 12:
+                    case 17:
+                    case 18:
+                        classFile.skipBytes(4);
+                        break;
+                    case 5:
+                    case 6:
+                        classFile.skipBytes(8);
+                        // longs and doubles take two entries
+                        index++;
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag " + tag + " in " + className);
+                }
+            }
+            Set<String> referencedClasses = new TreeSet<>();
+            for (Integer classNameIndex : classNameIndexes) {
+                String referencedClass = utf8.get(classNameIndex);
+                // array classes are named by their descriptor
+                if (!referencedClass.startsWith("[")) {
+                    referencedClasses.add(referencedClass);
+                }
+            }
+            for (String value : utf8.values()) {
+                if (value.startsWith("(") || value.startsWith("L") || value.startsWith("[")) {
+                    Matcher descriptorType = DESCRIPTOR_TYPE.matcher(value);
+                    while (descriptorType.find()) {
+                        referencedClasses.add(descriptorType.group(1));
+                    }
+                }
+            }
+            return referencedClasses;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.mockserver.maven;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+
+public class ForkedProcessOutputTest {
+
+    private final File directory = new File("target", "mockserver-output-test");
+    private final File logFile = new File(directory, "runForked-1080.log");
+
+    @Before
+    public void deleteLogFiles() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void shouldWriteOutputToLogFileAndKeepTail() throws Exception {
+        // given
+        ForkedProcessOutput forkedProcessOutput = new ForkedProcessOutput(logFile, 1024 * 1024, 3, 2);
+
+        // when
+        forkedProcessOutput.drain(output("one", "two", "three")).awaitEnd(10000);
+
+        // then
+        assertThat(read(logFile), is(lines("one", "two", "three")));
+        assertThat(forkedProcessOutput.tail(), is("two" + System.lineSeparator() + "three"));
+        assertThat(forkedProcessOutput.describe(), containsString(logFile.getAbsolutePath()));
+        assertThat(forkedProcessOutput.describe(), containsString("two" + System.lineSeparator() + "three"));
+    }
+
+    @Test
+    public void shouldRotateLogFileWhenFull() throws Exception {
+        // given
+        int lineLength = lines("line-0").length();
+        ForkedProcessOutput forkedProcessOutput = new ForkedProcessOutput(logFile, lineLength * 2L, 2, 10);
+
+        // when
+        forkedProcessOutput.drain(output("line-0", "line-1", "line-2", "line-3", "line-4", "line-5", "line-6")).awaitEnd(10000);
+
+        // then
+        assertThat(read(logFile), is(lines("line-6")));
+        assertThat(read(forkedProcessOutput.rotatedFile(1)), is(lines("line-4", "line-5")));
+        assertThat(read(forkedProcessOutput.rotatedFile(2)), is(lines("line-2", "line-3")));
+        assertThat(forkedProcessOutput.rotatedFile(3).exists(), is(false));
+    }
+
+    @Test
+    public void shouldRotateLogOfEarlierRunBeforeFirstWrite() throws Exception {
+        // given
+        Files.createDirectories(directory.toPath());
+        Files.write(logFile.toPath(), lines("earlier run").getBytes(StandardCharsets.UTF_8));
+        ForkedProcessOutput forkedProcessOutput = new ForkedProcessOutput(logFile, 1024 * 1024, 2, 10);
+
+        // when
+        forkedProcessOutput.drain(output("this run")).awaitEnd(10000);
+
+        // then
+        assertThat(read(logFile), is(lines("this run")));
+        assertThat(read(forkedProcessOutput.rotatedFile(1)), is(lines("earlier run")));
+    }
+
+    @Test
+    public void shouldAppendWhenLogFileIsReopened() throws Exception {
+        // given
+        ForkedProcessOutput forkedProcessOutput = new ForkedProcessOutput(logFile, 1024 * 1024, 2, 10);
+        forkedProcessOutput.drain(output("before")).awaitEnd(10000);
+
+        // when - the log file is closed, as it is after an error, and opened again by the next line
+        forkedProcessOutput.drain(output("after")).awaitEnd(10000);
+
+        // then
+        assertThat(read(logFile), is(lines("before", "after")));
+        assertThat(forkedProcessOutput.rotatedFile(1).exists(), is(false));
+    }
+
+    @Test
+    public void shouldRegisterOutputForPorts() {
+        // given
+        ForkedProcessOutput forkedProcessOutput = new ForkedProcessOutput(logFile, 1024, 1, 1);
+
+        // when
+        forkedProcessOutput.register(new Integer[]{1080});
+
+        // then
+        assertThat(ForkedProcessOutput.forPorts(new Integer[]{1080}), is(forkedProcessOutput));
+        ForkedProcessOutput.unregister(new Integer[]{1080});
+        assertThat(ForkedProcessOutput.forPorts(new Integer[]{1080}), is(nullValue()));
+    }
+
+    private ByteArrayInputStream output(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", Arrays.asList(lines)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String lines(String... lines) {
+        StringBuilder content = new StringBuilder();
+        for (String line : lines) {
+            content.append(line).append(System.lineSeparator());
+        }
+        return content.toString();
+    }
+
+    private String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,56 @@
+package org.mockserver.maven;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.mock.Expectation;
+import org.mockserver.netty.MockServer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class InProcessMockServerClientTest {
+
+    private MockServer mockServer;
+
+    @Before
+    public void startMockServer() {
+        mockServer = new MockServer(0);
+    }
+
+    @After
+    public void stopMockServer() {
+        mockServer.stop();
+    }
+
+    @Test
+    public void shouldAddExpectationsToInMemoryState() {
+        // given
+        InProcessMockServerClient inProcessMockServerClient = InProcessMockServerClient.forMockServer(mockServer);
+        assertThat(inProcessMockServerClient, is(notNullValue()));
+
+        // when
+        inProcessMockServerClient.when(request().withPath("/in-process")).respond(response().withStatusCode(202));
+
+        // then
+        MockServerClient mockServerClient = new MockServerClient("127.0.0.1", mockServer.getLocalPort());
+        assertThat(mockServerClient.retrieveActiveExpectations(request().withPath("/in-process")).length, is(1));
+    }
+
+    @Test
+    public void shouldUseHttpForOtherOperations() {
+        // given
+        InProcessMockServerClient inProcessMockServerClient = InProcessMockServerClient.forMockServer(mockServer);
+        inProcessMockServerClient.upsert(new Expectation(request().withPath("/reset")).thenRespond(response()));
+
+        // when
+        inProcessMockServerClient.reset();
+
+        // then
+        assertThat(inProcessMockServerClient.retrieveActiveExpectations(request()).length, is(0));
+    }
+}
@@ -0,0 +1,259 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+import org.mockserver.mock.Expectation;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.fail;
+
+public class InitializationJsonTest {
+
+    private final File directory = new File("target", "mockserver-initialization-json-test");
+
+    @Test
+    public void shouldReadExpectationsInBatches() throws IOException {
+        // given
+        File file = write("expectations.json", false, 5);
+        List<Expectation[]> batches = new ArrayList<>();
+
+        // when
+        int count = InitializationJson.ofFile(file).forEachBatch(2, batches::add);
+
+        // then
+        assertThat(count, is(5));
+        assertThat(batches.size(), is(3));
+        assertThat(batches.get(0).length, is(2));
+        assertThat(batches.get(2).length, is(1));
+        assertThat(batches.get(2)[0].getHttpRequest().toString().contains("/path_4"), is(true));
+    }
+
+    @Test
+    public void shouldReadGzipCompressedExpectations() throws IOException {
+        // given
+        File file = write("expectations.json.gz", true, 3);
+        List<Expectation[]> batches = new ArrayList<>();
+
+        // when
+        int count = InitializationJson.ofFile(file).forEachBatch(InitializationJson.BATCH_SIZE, batches::add);
+
+        // then
+        assertThat(count, is(3));
+        assertThat(batches.size(), is(1));
+        assertThat(batches.get(0).length, is(3));
+    }
+
+    @Test
+    public void shouldReadSingleExpectation() {
+        // given
+        List<Expectation[]> batches = new ArrayList<>();
+
+        // when
+        int count = InitializationJson.ofContent("{\"httpRequest\": {\"path\": \"/single\"}, \"httpResponse\": {\"statusCode\": 202}}").forEachBatch(InitializationJson.BATCH_SIZE, batches::add);
+
+        // then
+        assertThat(count, is(1));
+        assertThat(batches.get(0).length, is(1));
+    }
+
+    @Test
+    public void shouldRejectJsonThatIsNotExpectations() {
+        try {
+            // when
+            InitializationJson.ofContent("\"expectations\"").forEachBatch(InitializationJson.BATCH_SIZE, batch -> {
+            });
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("initializationJson inline json must contain a json array of expectations or a single expectation"));
+        }
+    }
+
+    @Test
+    public void shouldRejectArrayWithValueThatIsNotExpectation() {
+        try {
+            // when
+            InitializationJson.ofContent("[{\"httpRequest\": {\"path\": \"/first\"}, \"httpResponse\": {\"statusCode\": 200}},\n 3]").forEachBatch(InitializationJson.BATCH_SIZE, batch -> {
+            });
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("initializationJson inline json is invalid at line 2 column 2, expected an expectation or the end of the array but found VALUE_NUMBER_INT"));
+        }
+    }
+
+    @Test
+    public void shouldRejectContentAfterExpectations() {
+        try {
+            // when
+            InitializationJson.ofContent("[{\"httpRequest\": {\"path\": \"/first\"}, \"httpResponse\": {\"statusCode\": 200}}] []").forEachBatch(InitializationJson.BATCH_SIZE, batch -> {
+            });
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("initializationJson inline json is invalid at line 1 column 76, expected the end of the file but found START_ARRAY"));
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void shouldFailForMissingFile() throws FileNotFoundException {
+        InitializationJson.ofFile(new File(directory, "missing.json"));
+    }
+
+    @Test
+    public void shouldReadMultipleFilesInOrder() throws IOException {
+        // given
+        List<File> files = new ArrayList<>();
+        for (int file = 0; file < 6; file++) {
+            files.add(write("multiple/expectations_" + file + ".json", false, file + 1));
+        }
+        List<String> paths = new ArrayList<>();
+
+        // when
+        int count = InitializationJson.ofFiles(files).forEachBatch(InitializationJson.BATCH_SIZE, batch -> {
+            for (Expectation expectation : batch) {
+                paths.add(expectation.getHttpRequest().toString());
+            }
+        });
+
+        // then
+        assertThat(count, is(21));
+        assertThat(paths.size(), is(21));
+        // each file's expectations follow those of the file before it
+        assertThat(paths.get(0).contains("/path_0"), is(true));
+        assertThat(paths.get(1).contains("/path_0"), is(true));
+        assertThat(paths.get(2).contains("/path_1"), is(true));
+        assertThat(paths.get(20).contains("/path_5"), is(true));
+    }
+
+    @Test
+    public void shouldFailForInvalidFileInList() throws IOException {
+        // given
+        List<File> files = new ArrayList<>();
+        for (int file = 0; file < 6; file++) {
+            files.add(write("invalid/expectations_" + file + ".json", false, 3));
+        }
+        Files.write(files.get(3).toPath(), "[{\"httpRequest\": ".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            // when
+            InitializationJson.ofFiles(files).forEachBatch(1, batch -> {
+            });
+            fail("expected exception");
+        } catch (RuntimeException re) {
+            // then
+            assertThat(re.getMessage().contains("expectations_3.json"), is(true));
+        }
+    }
+
+    @Test
+    public void shouldResolveListAndGlobPatterns() throws IOException {
+        // given
+        File compileResources = new File(directory, "classes");
+        File testResources = new File(directory, "test-classes");
+        write("classes/first.json", false, 1);
+        write("classes/mocks/payments/b.json", false, 2);
+        write("test-classes/mocks/a.json", false, 3);
+        write("test-classes/mocks/payments/b.json", false, 4);
+        write("test-classes/mocks/payments/notes.txt", false, 5);
+        List<Expectation[]> batches = new ArrayList<>();
+
+        // when
+        int count = InitializationJson.resolve("first.json, mocks/**/*.json", Arrays.asList(compileResources, testResources)).forEachBatch(InitializationJson.BATCH_SIZE, batches::add);
+
+        // then
+        assertThat(batches.size(), is(3));
+        assertThat(batches.get(0).length, is(1));
+        assertThat(batches.get(1).length, is(3));
+        // mocks/payments/b.json in the compile resources hides the one in the test resources
+        assertThat(batches.get(2).length, is(2));
+        assertThat(count, is(6));
+    }
+
+    @Test
+    public void shouldResolveAbsolutePathWithoutResourceDirectories() throws IOException {
+        // given
+        File file = write("absolute.json", false, 2);
+
+        // when
+        InitializationJson initializationJson = InitializationJson.resolve(file.getAbsolutePath(), Collections.emptyList());
+
+        // then
+        assertThat(initializationJson.getFile(), is(file.getAbsoluteFile()));
+        assertThat(InitializationJson.resolve("relative.json", Collections.emptyList()), is(nullValue()));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void shouldFailForGlobWithoutMatches() throws FileNotFoundException {
+        InitializationJson.resolve("missing/**/*.json", Collections.singletonList(directory));
+    }
+
+    @Test
+    public void shouldLeaveOutMissingFilesWhenResolvingExisting() throws IOException {
+        // given
+        File resources = new File(directory, "existing");
+        write("existing/present.json", false, 2);
+
+        // when
+        InitializationJson initializationJson = InitializationJson.resolveExisting("present.json, deleted.json, unmatched/**/*.json", Collections.singletonList(resources));
+        InitializationJson noFiles = InitializationJson.resolveExisting("deleted.json", Collections.singletonList(resources));
+
+        // then
+        assertThat(initializationJson.getFiles(), is(Collections.singletonList(new File(resources, "present.json"))));
+        assertThat(noFiles.getFiles().isEmpty(), is(true));
+        assertThat(noFiles.forEachBatch(InitializationJson.BATCH_SIZE, batch -> fail("no expectations expected")), is(0));
+        assertThat(InitializationJson.resolveExisting("deleted.json", Collections.emptyList()), is(nullValue()));
+    }
+
+    @Test
+    public void shouldFindDirectoriesFilesCanBeAddedTo() throws IOException {
+        // given
+        File resources = new File(directory, "watched");
+        write("watched/mocks/payments/a.json", false, 1);
+        write("watched/first.json", false, 1);
+
+        // when
+        Set<File> directories = InitializationJson.directories("first.json, missing/second.json, mocks/**/*.json, later/*.json", Collections.singletonList(resources));
+
+        // then
+        assertThat(directories, is(new LinkedHashSet<>(Arrays.asList(
+            resources.getAbsoluteFile(),
+            new File(resources, "mocks").getAbsoluteFile(),
+            new File(resources, "mocks/payments").getAbsoluteFile()
+        ))));
+    }
+
+    private File write(String name, boolean gzip, int expectations) throws IOException {
+        File file = new File(directory, name);
+        if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Unable to create directory " + file.getParentFile().getAbsolutePath());
+        }
+        OutputStream outputStream = new FileOutputStream(file);
+        try (Writer writer = new OutputStreamWriter(gzip ? new GZIPOutputStream(outputStream) : outputStream, StandardCharsets.UTF_8)) {
+            writer.write("[");
+            for (int expectation = 0; expectation < expectations; expectation++) {
+                writer.write((expectation > 0 ? "," : "") + "{\"httpRequest\": {\"path\": \"/path_" + expectation + "\"}, \"httpResponse\": {\"statusCode\": 200}}");
+            }
+            writer.write("]");
+        }
+        return file;
+    }
+}
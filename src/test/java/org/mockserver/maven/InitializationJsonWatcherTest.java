@@ -0,0 +1,187 @@
+package org.mockserver.maven;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.netty.MockServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.model.HttpRequest.request;
+
+public class InitializationJsonWatcherTest {
+
+    private final File directory = new File("target", "mockserver-initialization-json-watcher-test");
+    private final File file = new File(directory, "expectations.json");
+    private MockServer mockServer;
+    private MockServerClient mockServerClient;
+
+    @Before
+    public void startMockServer() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory.getAbsolutePath());
+        }
+        mockServer = new MockServer(0);
+        mockServerClient = new MockServerClient("127.0.0.1", mockServer.getLocalPort());
+    }
+
+    @After
+    public void stopMockServer() {
+        mockServer.stop();
+    }
+
+    @Test
+    public void shouldApplyOnlyChangedExpectations() throws IOException {
+        // given
+        write(expectation("payments", "/payments", 200), expectation(null, "/accounts", 200));
+        InitializationJsonWatcher initializationJsonWatcher = new InitializationJsonWatcher(file.getAbsolutePath(), Collections.emptyList(), mockServerClient);
+        assertThat(initializationJsonWatcher.reload(), is(2));
+        assertThat(statusCode("/accounts"), is(200));
+
+        // when
+        write(expectation("payments", "/payments", 201), expectation(null, "/orders", 200));
+
+        // then
+        assertThat(initializationJsonWatcher.reload(), is(3));
+        assertThat(statusCode("/payments"), is(201));
+        assertThat(statusCode("/accounts"), is(404));
+        assertThat(statusCode("/orders"), is(200));
+        assertThat(mockServerClient.retrieveActiveExpectations(request()).length, is(2));
+        // the request log is kept
+        assertThat(mockServerClient.retrieveRecordedRequests(request()).length, is(4));
+    }
+
+    @Test
+    public void shouldNotApplyUnchangedExpectations() throws IOException {
+        // given
+        write(expectation(null, "/accounts", 200), expectation(null, "/accounts", 200));
+        InitializationJsonWatcher initializationJsonWatcher = new InitializationJsonWatcher(file.getAbsolutePath(), Collections.emptyList(), mockServerClient);
+        assertThat(initializationJsonWatcher.reload(), is(2));
+
+        // when
+        write(expectation(null, "/accounts", 200), expectation(null, "/accounts", 200));
+
+        // then
+        assertThat(initializationJsonWatcher.reload(), is(0));
+        assertThat(mockServerClient.retrieveActiveExpectations(request()).length, is(2));
+    }
+
+    @Test
+    public void shouldKeepExpectationsWhenJsonIsInvalid() throws IOException {
+        // given
+        write(expectation("payments", "/payments", 200));
+        InitializationJsonWatcher initializationJsonWatcher = new InitializationJsonWatcher(file.getAbsolutePath(), Collections.emptyList(), mockServerClient);
+        initializationJsonWatcher.reload();
+
+        // when
+        Files.write(file.toPath(), "[{\"httpRequest\": ".getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertThat(initializationJsonWatcher.reload(), is(0));
+        assertThat(statusCode("/payments"), is(200));
+    }
+
+    @Test
+    public void shouldReloadWhenFileChanges() throws IOException, InterruptedException {
+        // given
+        write(expectation("payments", "/payments", 200));
+        try (InitializationJsonWatcher initializationJsonWatcher = new InitializationJsonWatcher(file.getAbsolutePath(), Collections.emptyList(), mockServerClient)) {
+            assertThat(initializationJsonWatcher.start(), is(1));
+
+            // when
+            write(expectation("payments", "/payments", 202));
+
+            // then
+            awaitStatusCode("/payments", 202);
+            assertThat(statusCode("/payments"), is(202));
+        }
+    }
+
+    @Test
+    public void shouldRemoveExpectationsOfDeletedFile() throws IOException {
+        // given
+        File otherFile = new File(directory, "other-expectations.json");
+        write(expectation("payments", "/payments", 200));
+        Files.write(otherFile.toPath(), ("[" + expectation("accounts", "/accounts", 200) + "]").getBytes(StandardCharsets.UTF_8));
+        InitializationJsonWatcher initializationJsonWatcher = new InitializationJsonWatcher(file.getAbsolutePath() + "," + otherFile.getAbsolutePath(), Collections.emptyList(), mockServerClient);
+        assertThat(initializationJsonWatcher.reload(), is(2));
+
+        // when
+        Files.delete(otherFile.toPath());
+
+        // then
+        assertThat(initializationJsonWatcher.reload(), is(1));
+        assertThat(statusCode("/payments"), is(200));
+        assertThat(statusCode("/accounts"), is(404));
+    }
+
+    @Test
+    public void shouldReloadFilesInDirectoriesCreatedBelowGlob() throws IOException, InterruptedException {
+        // given
+        File mocks = new File(directory, "mocks");
+        deleteRecursively(mocks);
+        if (!mocks.mkdirs()) {
+            throw new IOException("Unable to create directory " + mocks.getAbsolutePath());
+        }
+        try (InitializationJsonWatcher initializationJsonWatcher = new InitializationJsonWatcher("mocks/**/*.json", Collections.singletonList(directory), mockServerClient)) {
+            assertThat(initializationJsonWatcher.start(), is(0));
+
+            // when
+            File payments = new File(mocks, "payments");
+            assertThat(payments.mkdirs(), is(true));
+            Files.write(new File(payments, "payments.json").toPath(), ("[" + expectation("payments", "/payments", 200) + "]").getBytes(StandardCharsets.UTF_8));
+            awaitStatusCode("/payments", 200);
+            // a change in the new directory is seen once it is watched
+            Files.write(new File(payments, "payments.json").toPath(), ("[" + expectation("payments", "/payments", 202) + "]").getBytes(StandardCharsets.UTF_8));
+
+            // then
+            awaitStatusCode("/payments", 202);
+            assertThat(statusCode("/payments"), is(202));
+        }
+    }
+
+    private void awaitStatusCode(String path, int statusCode) throws IOException, InterruptedException {
+        // the polling watch service used on some platforms only checks every few seconds
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (statusCode(path) != statusCode && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+    }
+
+    private void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private int statusCode(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "127.0.0.1", mockServer.getLocalPort(), path).openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private String expectation(String id, String path, int statusCode) {
+        return "{" + (id != null ? "\"id\": \"" + id + "\", " : "") + "\"httpRequest\": {\"path\": \"" + path + "\"}, \"httpResponse\": {\"statusCode\": " + statusCode + "}}";
+    }
+
+    private void write(String... expectations) throws IOException {
+        Files.write(file.toPath(), ("[" + String.join(",", expectations) + "]").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -16,6 +16,13 @@ import org.mockserver.model.HttpResponse;
 import org.mockserver.socket.PortFactory;
 import org.slf4j.event.Level;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.HOST;
@@ -23,6 +30,7 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.fail;
 import static org.mockserver.configuration.Configuration.configuration;
 import static org.mockserver.model.HttpRequest.request;
@@ -66,7 +74,7 @@ public class InstanceHolderTest {
                     null,
                     "DEBUG",
                     null,
-                    "");
+                    null);
 
             // then
             assertThat(mockServerClient.hasStarted(), is(true));
@@ -93,7 +101,7 @@ public class InstanceHolderTest {
                     "127.0.0.1",
                     "DEBUG",
                     null,
-                    "");
+                    null);
             final HttpResponse response =
                     httpClient
                             .sendRequest(
@@ -127,7 +135,7 @@ public class InstanceHolderTest {
                     "",
                     "DEBUG",
                     null,
-                    "");
+                    null);
             final HttpResponse response =
                     httpClient
                             .sendRequest(
@@ -145,6 +153,248 @@ public class InstanceHolderTest {
         }
     }
 
+    @Test
+    public void shouldLoadJsonInitializerInProcess() {
+        // given
+        InstanceHolder instanceHolder = new InstanceHolder();
+
+        try {
+            // when
+            instanceHolder.start(
+                    new Integer[]{0},
+                    -1,
+                    null,
+                    "INFO",
+                    null,
+                    InitializationJson.ofContent("[{\"httpRequest\": {\"path\": \"/first\"}, \"httpResponse\": {\"statusCode\": 201}}, {\"httpRequest\": {\"path\": \"/second\"}, \"httpResponse\": {\"statusCode\": 202}}]"));
+
+            // then
+            Integer boundPort = instanceHolder.getLocalPorts().get(0)[0];
+            assertThat(new MockServerClient("127.0.0.1", boundPort).retrieveActiveExpectations(request()).length, is(2));
+        } finally {
+            instanceHolder.stop(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldStopMockServerAndReleasePort() {
+        // given
+        final int freePort = PortFactory.findFreePort();
+        InstanceHolder instanceHolder = new InstanceHolder();
+        instanceHolder.start(
+                new Integer[]{freePort},
+                -1,
+                null,
+                "INFO",
+                null,
+                null);
+        assertThat(PortProbe.isListening(freePort), is(true));
+
+        // when
+        long stopTime = instanceHolder.stop(10, TimeUnit.SECONDS);
+
+        // then
+        assertThat(PortProbe.isListening(freePort), is(false));
+        assertThat(stopTime < TimeUnit.SECONDS.toMillis(10), is(true));
+    }
+
+    @Test
+    public void shouldStopEveryInstanceBeforeReportingAllFailures() {
+        // given
+        InstanceHolder instanceHolder = new InstanceHolder();
+        List<Integer[]> poolPorts = instanceHolder.startPool(2, new Integer[]{0}, -1, null, "INFO", null, null);
+        Integer[] ports = {poolPorts.get(0)[0], poolPorts.get(1)[0]};
+
+        try {
+            // when - nothing can stop within no time at all
+            instanceHolder.stop(0, MILLISECONDS);
+            fail("expected exception");
+        } catch (IllegalStateException ise) {
+            // then
+            assertThat(ise.getMessage().contains(String.valueOf(ports[0])), is(true));
+            assertThat(ise.getMessage().contains(String.valueOf(ports[1])), is(true));
+        }
+
+        // then - the failure of the first instance didn't leave the second running
+        assertThat(PortProbe.awaitReleased(10, TimeUnit.SECONDS, ports), is(true));
+        assertThat(instanceHolder.isRunning(), is(false));
+    }
+
+    @Test
+    public void shouldStopEveryMockServerListeningOnPorts() {
+        // given
+        InstanceHolder poolInstanceHolder = new InstanceHolder();
+        List<Integer[]> poolPorts = poolInstanceHolder.startPool(2, new Integer[]{0}, -1, null, "INFO", null, null);
+        Integer[] ports = {poolPorts.get(0)[0], poolPorts.get(1)[0]};
+
+        try {
+            // when
+            new InstanceHolder().stop(ports, false, 10, TimeUnit.SECONDS);
+
+            // then
+            assertThat(PortProbe.isListening(ports[0]), is(false));
+            assertThat(PortProbe.isListening(ports[1]), is(false));
+        } finally {
+            poolInstanceHolder.stop(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldKillForkedMockServerThatDoesNotStop() throws IOException {
+        // given - a port that accepts connections but never responds
+        ServerSocket unresponsiveServer = new ServerSocket(0);
+        Integer[] ports = {unresponsiveServer.getLocalPort()};
+        ForkedProcesses.register(ports, new Process() {
+            private volatile boolean alive = true;
+
+            public OutputStream getOutputStream() {
+                return new ByteArrayOutputStream();
+            }
+
+            public InputStream getInputStream() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            public InputStream getErrorStream() {
+                return new ByteArrayInputStream(new byte[0]);
+            }
+
+            public int waitFor() {
+                return 0;
+            }
+
+            public int exitValue() {
+                if (alive) {
+                    throw new IllegalThreadStateException("process hasn't exited");
+                }
+                return 143;
+            }
+
+            public void destroy() {
+                try {
+                    unresponsiveServer.close();
+                } catch (IOException ignore) {
+                    // already closed
+                }
+                alive = false;
+            }
+        });
+
+        // when
+        new InstanceHolder().stop(ports, false, 2, TimeUnit.SECONDS);
+
+        // then
+        assertThat(PortProbe.isListening(ports[0]), is(false));
+        assertThat(ForkedProcesses.forPorts(ports), is(nullValue()));
+    }
+
+    @Test
+    public void shouldStartPoolOfMockServers() {
+        // given
+        final int freePort = PortFactory.findFreePort();
+        InstanceHolder instanceHolder = new InstanceHolder();
+
+        try {
+            // when
+            List<Integer[]> poolPorts = instanceHolder.startPool(
+                    3,
+                    new Integer[]{freePort},
+                    -1,
+                    null,
+                    "INFO",
+                    null,
+                    null);
+
+            // then
+            assertThat(poolPorts.size(), is(3));
+            for (int instance = 1; instance <= 3; instance++) {
+                assertThat(poolPorts.get(instance - 1), is(new Integer[]{freePort + instance - 1}));
+                assertThat(new MockServerClient("127.0.0.1", freePort + instance - 1).hasStarted(), is(true));
+            }
+        } finally {
+            instanceHolder.stop(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldOffsetPoolPortsByNumberOfPorts() {
+        assertThat(InstanceHolder.poolPorts(new Integer[]{1080, 1081}, 1), is(new Integer[]{1080, 1081}));
+        assertThat(InstanceHolder.poolPorts(new Integer[]{1080, 1081}, 3), is(new Integer[]{1084, 1085}));
+    }
+
+    @Test
+    public void shouldStartOnEphemeralPort() {
+        // given
+        InstanceHolder instanceHolder = new InstanceHolder();
+
+        try {
+            // when
+            instanceHolder.start(
+                    new Integer[]{0},
+                    -1,
+                    null,
+                    "INFO",
+                    null,
+                    null);
+
+            // then
+            Integer boundPort = instanceHolder.getLocalPorts().get(0)[0];
+            assertThat(boundPort > 0, is(true));
+            assertThat(new MockServerClient("127.0.0.1", boundPort).hasStarted(), is(true));
+        } finally {
+            instanceHolder.stop(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldNotOffsetEphemeralPoolPorts() {
+        assertThat(InstanceHolder.poolPorts(new Integer[]{0, 1081}, 3), is(new Integer[]{0, 1085}));
+    }
+
+    @Test
+    public void shouldStartInBackgroundAndAwaitStart() {
+        // given
+        final int freePort = PortFactory.findFreePort();
+        InstanceHolder instanceHolder = new InstanceHolder();
+
+        try {
+            // when
+            instanceHolder.startInBackground(() -> instanceHolder.start(
+                    new Integer[]{freePort},
+                    -1,
+                    null,
+                    "INFO",
+                    null,
+                    null));
+            List<Integer[]> ports = instanceHolder.awaitStart(30, TimeUnit.SECONDS);
+
+            // then
+            assertThat(ports.get(0), is(new Integer[]{freePort}));
+            assertThat(new MockServerClient("127.0.0.1", freePort).hasStarted(), is(true));
+        } finally {
+            instanceHolder.stop(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldReportBackgroundStartFailureWhenAwaitingStart() {
+        // given
+        InstanceHolder instanceHolder = new InstanceHolder();
+        instanceHolder.startInBackground(() -> {
+            throw new IllegalArgumentException("invalid port");
+        });
+
+        try {
+            // when
+            instanceHolder.awaitStart(30, TimeUnit.SECONDS);
+            fail("expected exception");
+        } catch (RuntimeException re) {
+            // then
+            assertThat(re.getMessage(), is("Exception while starting MockServer invalid port"));
+            assertThat(re.getCause(), instanceOf(IllegalArgumentException.class));
+        }
+    }
+
     @Test
     public void shouldPrintOutUsageForInvalidLogLevel() {
         // given
@@ -158,7 +408,7 @@ public class InstanceHolderTest {
                     "",
                     "WRONG",
                     null,
-                    "");
+                    null);
             fail();
         } catch (Exception iae) {
             // then
@@ -0,0 +1,159 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.netty.MockServer;
+import org.mockserver.socket.PortFactory;
+
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+
+public class LazyMockServerTest {
+
+    @Test
+    public void shouldOnlyStartMockServerOnFirstConnection() throws Exception {
+        // given
+        int port = PortFactory.findFreePort();
+        AtomicInteger starts = new AtomicInteger();
+        LazyMockServer lazyMockServer = new LazyMockServer(new Integer[]{port}, () -> {
+            starts.incrementAndGet();
+            return new MockServer(0);
+        });
+
+        try {
+            // then - port bound but MockServer not started, probing it doesn't connect
+            assertThat(PortProbe.isListening(port), is(true));
+            assertThat(PortProbe.isAnyListening(port), is(true));
+            MILLISECONDS.sleep(100);
+            assertThat(lazyMockServer.isStarted(), is(false));
+            assertThat(starts.get(), is(0));
+
+            // when
+            MockServerClient mockServerClient = new MockServerClient("127.0.0.1", port);
+            mockServerClient.when(request().withPath("/lazy")).respond(response().withBody("relayed"));
+
+            // then
+            assertThat(lazyMockServer.isStarted(), is(true));
+            assertThat(mockServerClient.hasStarted(), is(true));
+            assertThat(mockServerClient.retrieveRecordedRequests(request().withPath("/lazy")).length, is(0));
+            assertThat(starts.get(), is(1));
+        } finally {
+            lazyMockServer.stopAsync(10, SECONDS).get(10, SECONDS);
+        }
+
+        // then
+        assertThat(PortProbe.awaitReleased(10, SECONDS, port), is(true));
+    }
+
+    @Test
+    public void shouldReleasePortWhenStoppedBeforeFirstConnection() throws Exception {
+        // given
+        int port = PortFactory.findFreePort();
+        AtomicInteger starts = new AtomicInteger();
+        LazyMockServer lazyMockServer = new LazyMockServer(new Integer[]{port}, () -> {
+            starts.incrementAndGet();
+            return new MockServer(0);
+        });
+
+        // when
+        lazyMockServer.stopAsync(10, SECONDS).get(10, SECONDS);
+
+        // then
+        assertThat(PortProbe.awaitReleased(10, SECONDS, port), is(true));
+        assertThat(lazyMockServer.isRunning(), is(false));
+        assertThat(starts.get(), is(0));
+    }
+
+    @Test
+    public void shouldReleasePortsWhenMockServerIsStoppedThroughRelay() throws Exception {
+        // given
+        int port = PortFactory.findFreePort();
+        LazyMockServer lazyMockServer = new LazyMockServer(new Integer[]{port}, () -> new MockServer(0));
+
+        try {
+            MockServerClient mockServerClient = new MockServerClient("127.0.0.1", port);
+            assertThat(mockServerClient.hasStarted(), is(true));
+
+            // when
+            mockServerClient.stop();
+
+            // then
+            assertThat(PortProbe.awaitReleased(10, SECONDS, port), is(true));
+            assertThat(lazyMockServer.isRunning(), is(false));
+        } finally {
+            lazyMockServer.stopAsync(10, SECONDS).get(10, SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldNotWaitForBootBeyondStopTimeout() throws Exception {
+        // given
+        int port = PortFactory.findFreePort();
+        CountDownLatch bootBlocked = new CountDownLatch(1);
+        AtomicReference<MockServer> mockServer = new AtomicReference<>();
+        LazyMockServer lazyMockServer = new LazyMockServer(new Integer[]{port}, () -> {
+            try {
+                bootBlocked.await();
+            } catch (InterruptedException ie) {
+                // stopping interrupts the boot, MockServer is still started so it must be stopped
+            }
+            mockServer.set(new MockServer(0));
+            return mockServer.get();
+        });
+        try (Socket socket = new Socket("127.0.0.1", port)) {
+            long deadline = System.currentTimeMillis() + SECONDS.toMillis(10);
+            while (!lazyMockServer.isBooting() && System.currentTimeMillis() < deadline) {
+                MILLISECONDS.sleep(10);
+            }
+
+            // when
+            long startTime = System.currentTimeMillis();
+            Future<?> stopFuture = lazyMockServer.stopAsync(100, MILLISECONDS);
+
+            // then
+            assertThat(System.currentTimeMillis() - startTime < SECONDS.toMillis(5), is(true));
+            try {
+                stopFuture.get(10, SECONDS);
+                fail("expected boot timeout");
+            } catch (ExecutionException ee) {
+                assertThat(ee.getCause() instanceof IllegalStateException, is(true));
+            }
+        } finally {
+            bootBlocked.countDown();
+        }
+
+        // then - MockServer is stopped once the boot completes
+        long deadline = System.currentTimeMillis() + SECONDS.toMillis(10);
+        while ((mockServer.get() == null || mockServer.get().isRunning()) && System.currentTimeMillis() < deadline) {
+            MILLISECONDS.sleep(10);
+        }
+        assertThat(mockServer.get().isRunning(), is(false));
+        assertThat(PortProbe.awaitReleased(10, SECONDS, port), is(true));
+    }
+
+    @Test
+    public void shouldBindEphemeralPort() throws Exception {
+        // given
+        LazyMockServer lazyMockServer = new LazyMockServer(new Integer[]{0}, () -> new MockServer(0));
+
+        try {
+            // then
+            assertThat(lazyMockServer.getLocalPorts().get(0) > 0, is(true));
+            assertThat(PortProbe.isListening(lazyMockServer.getLocalPorts().get(0)), is(true));
+        } finally {
+            lazyMockServer.stopAsync(10, SECONDS).get(10, SECONDS);
+        }
+    }
+}
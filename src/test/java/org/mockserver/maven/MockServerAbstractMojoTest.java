@@ -1,11 +1,22 @@
 package org.mockserver.maven;
 
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.openMocks;
 
 /**
@@ -28,7 +39,7 @@ public class MockServerAbstractMojoTest {
             }
         };
         openMocks(this);
-        MockServerAbstractMojo.instanceHolder = mockEmbeddedJettyHolder;
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockEmbeddedJettyHolder);
     }
 
     @Test
@@ -50,4 +61,126 @@ public class MockServerAbstractMojoTest {
         // then
         assertSame(mockEmbeddedJettyHolder, mockServerAbstractMojo.getLocalMockServerInstance());
     }
+
+    @Test
+    public void shouldUseSeparateInstanceForEachProject() {
+        // given
+        MockServerAbstractMojo mojoForProjectOne = new MockServerAbstractMojo() {
+            @Override
+            public void execute() {
+                throw new UnsupportedOperationException("method not implemented yet");
+            }
+        };
+        mojoForProjectOne.project = project("one");
+        MockServerAbstractMojo mojoForProjectTwo = new MockServerAbstractMojo() {
+            @Override
+            public void execute() {
+                throw new UnsupportedOperationException("method not implemented yet");
+            }
+        };
+        mojoForProjectTwo.project = project("two");
+
+        // then
+        assertNotSame(mojoForProjectOne.getLocalMockServerInstance(), mojoForProjectTwo.getLocalMockServerInstance());
+        assertNotSame(mockEmbeddedJettyHolder, mojoForProjectOne.getLocalMockServerInstance());
+        assertSame(mojoForProjectOne.getLocalMockServerInstance(), mojoForProjectOne.getLocalMockServerInstance());
+    }
+
+    @Test
+    public void shouldPublishPortsAsProjectProperty() {
+        // given
+        mockServerAbstractMojo.project = project("publish");
+
+        // when
+        mockServerAbstractMojo.publishMockServerPorts(Arrays.asList(new Integer[]{1080, 1081}, new Integer[]{1082, 1083}));
+
+        // then
+        assertEquals("1080,1081", mockServerAbstractMojo.project.getProperties().getProperty("mockserver.mockServerPort"));
+        assertEquals("1080,1081", mockServerAbstractMojo.project.getProperties().getProperty("mockserver.mockServerPort.1"));
+        assertEquals("1082,1083", mockServerAbstractMojo.project.getProperties().getProperty("mockserver.mockServerPort.2"));
+    }
+
+    @Test
+    public void shouldParseAutoServerPortAsZero() {
+        // given
+        mockServerAbstractMojo.serverPort = "1080, auto";
+
+        // then
+        assertArrayEquals(new Integer[]{1080, 0}, mockServerAbstractMojo.getServerPorts());
+    }
+
+    @Test
+    public void shouldAppendPublishedPortsToArgLine() {
+        // given
+        mockServerAbstractMojo.project = project("argLine");
+        mockServerAbstractMojo.project.getProperties().setProperty("argLine", "-javaagent:jacoco.jar");
+
+        // when
+        mockServerAbstractMojo.publishMockServerPorts(Collections.singletonList(new Integer[]{34567}));
+        mockServerAbstractMojo.publishMockServerPorts(Collections.singletonList(new Integer[]{45678}));
+
+        // then
+        assertEquals("45678", mockServerAbstractMojo.project.getProperties().getProperty("mockserver.mockServerPort"));
+        assertEquals("-javaagent:jacoco.jar -Dmockserver.mockServerPort=45678", mockServerAbstractMojo.project.getProperties().getProperty("argLine"));
+    }
+
+    @Test
+    public void shouldNotPublishSystemPropertyInParallelBuild() {
+        // given
+        String property = MockServerPort.MOCK_SERVER_PORT_PROPERTY + ".parallel";
+        mockServerAbstractMojo.project = project("parallel");
+        mockServerAbstractMojo.session = mock(MavenSession.class);
+        when(mockServerAbstractMojo.session.isParallel()).thenReturn(true);
+
+        // when
+        mockServerAbstractMojo.publishMockServerPort(property, 34567);
+
+        // then
+        assertEquals("34567", mockServerAbstractMojo.project.getProperties().getProperty(property));
+        assertNull(System.getProperty(property));
+    }
+
+    @Test
+    public void shouldRemoveHolderOfStoppedInstance() {
+        // given
+        mockServerAbstractMojo.project = project("removed");
+        InstanceHolder instanceHolder = mockServerAbstractMojo.getLocalMockServerInstance();
+
+        // when
+        mockServerAbstractMojo.removeLocalMockServerInstance(instanceHolder);
+
+        // then
+        assertNotSame(instanceHolder, mockServerAbstractMojo.getLocalMockServerInstance());
+        mockServerAbstractMojo.removeLocalMockServerInstance(mockServerAbstractMojo.getLocalMockServerInstance());
+    }
+
+    @Test
+    public void shouldNotAppendPublishedPortsToArgLineWhenDisabled() {
+        // given
+        mockServerAbstractMojo.project = project("noArgLine");
+        mockServerAbstractMojo.argLineProperty = "";
+
+        // when
+        mockServerAbstractMojo.publishMockServerPorts(Collections.singletonList(new Integer[]{34567}));
+
+        // then
+        assertEquals("34567", mockServerAbstractMojo.project.getProperties().getProperty("mockserver.mockServerPort"));
+        assertNull(mockServerAbstractMojo.project.getProperties().getProperty("argLine"));
+    }
+
+    static MavenProject project(String artifactId) {
+        MavenProject project = new MavenProject();
+        project.setGroupId("org.mock-server");
+        project.setArtifactId(artifactId);
+        project.setVersion("1.0");
+        return project;
+    }
+
+    static MockServerInstance instance(String id, String serverPort, String mode) {
+        MockServerInstance instance = new MockServerInstance();
+        instance.id = id;
+        instance.serverPort = serverPort;
+        instance.mode = mode;
+        return instance;
+    }
 }
@@ -0,0 +1,74 @@
+package org.mockserver.maven;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Collections;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class MockServerAwaitMojoTest {
+
+    @Mock
+    private InstanceHolder mockInstanceHolder;
+    @InjectMocks
+    private MockServerAwaitMojo mockServerAwaitMojo;
+
+    @Before
+    public void setupMocks() {
+        openMocks(this);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockInstanceHolder);
+    }
+
+    @Test
+    public void shouldAwaitMockServerStartAndPublishPorts() {
+        // given
+        mockServerAwaitMojo.project = MockServerAbstractMojoTest.project("await");
+        MockServerAbstractMojo.instanceHolders.put(mockServerAwaitMojo.project.getId(), mockInstanceHolder);
+        when(mockInstanceHolder.awaitStart(75, SECONDS)).thenReturn(Collections.singletonList(new Integer[]{34567}));
+
+        // when
+        mockServerAwaitMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).awaitStart(75, SECONDS);
+        assertEquals("34567", mockServerAwaitMojo.project.getProperties().getProperty("mockserver.mockServerPort"));
+    }
+
+    @Test
+    public void shouldFailWhenMockServerFailedToStart() {
+        // given
+        RuntimeException startFailure = new RuntimeException("Exception while starting MockServer Address already in use");
+        when(mockInstanceHolder.awaitStart(75, SECONDS)).thenThrow(startFailure);
+
+        try {
+            // when
+            mockServerAwaitMojo.execute();
+            fail("expected exception");
+        } catch (RuntimeException re) {
+            // then
+            assertSame(startFailure, re);
+        }
+    }
+
+    @Test
+    public void shouldSkipAwaitingMockServer() {
+        // given
+        mockServerAwaitMojo.skip = true;
+
+        // when
+        mockServerAwaitMojo.execute();
+
+        // then
+        verifyNoMoreInteractions(mockInstanceHolder);
+    }
+}
@@ -0,0 +1,103 @@
+package org.mockserver.maven;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.mock.Expectation;
+import org.mockserver.netty.MockServer;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
+import static org.mockserver.verify.VerificationTimes.exactly;
+
+public class MockServerClusterTest {
+
+    private MockServer firstShard;
+    private MockServer secondShard;
+    private MockServerCluster mockServerCluster;
+
+    @Before
+    public void startShards() {
+        firstShard = new MockServer(0);
+        secondShard = new MockServer(0);
+        mockServerCluster = new MockServerCluster("127.0.0.1", Arrays.asList(firstShard.getLocalPort(), secondShard.getLocalPort()));
+    }
+
+    @After
+    public void stopShards() {
+        firstShard.stop();
+        secondShard.stop();
+    }
+
+    @Test
+    public void shouldUpsertExpectationsOnEveryShard() throws IOException {
+        // when
+        mockServerCluster.upsert(new Expectation(request().withPath("/orders")).thenRespond(response().withStatusCode(202)));
+
+        // then
+        assertThat(get(firstShard.getLocalPort(), "/orders"), is(202));
+        assertThat(get(secondShard.getLocalPort(), "/orders"), is(202));
+    }
+
+    @Test
+    public void shouldMergeRecordedRequestsAndVerifyAcrossShards() throws IOException {
+        // given
+        get(firstShard.getLocalPort(), "/orders");
+        get(secondShard.getLocalPort(), "/orders");
+        get(secondShard.getLocalPort(), "/orders");
+
+        // then
+        assertThat(mockServerCluster.retrieveRecordedRequests(request().withPath("/orders")).length, is(3));
+        assertThat(mockServerCluster.retrieveLogMessagesArray(request().withPath("/orders")).length > 0, is(true));
+        mockServerCluster.verify(request().withPath("/orders"), exactly(3));
+        try {
+            mockServerCluster.verify(request().withPath("/orders"), exactly(2));
+            fail("expected exception");
+        } catch (AssertionError ae) {
+            assertThat(ae.getMessage(), containsString("found 3 times"));
+        }
+    }
+
+    @Test
+    public void shouldResetEveryShard() throws IOException {
+        // given
+        get(firstShard.getLocalPort(), "/orders");
+        get(secondShard.getLocalPort(), "/orders");
+
+        // when
+        mockServerCluster.reset();
+
+        // then
+        assertThat(mockServerCluster.retrieveRecordedRequests(request().withPath("/orders")).length, is(0));
+    }
+
+    @Test
+    public void shouldRequireShardPorts() {
+        try {
+            // when
+            new MockServerCluster("127.0.0.1", MockServerPort.mockServerShardPorts());
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("MockServer cluster shard ports have not been published as mockserver.mockServerShardPorts"));
+        }
+    }
+
+    private int get(int port, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.mockserver.maven;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.core.Is.is;
+
+public class MockServerDaemonTest {
+
+    private final File directory = new File("target", "mockserver-daemons");
+
+    @Before
+    public void removeLeases() throws IOException {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.delete(file.toPath());
+            }
+        }
+    }
+
+    @Test
+    public void shouldHaveDifferentIdentityForDifferentConfiguration() {
+        // when
+        MockServerDaemon daemonOne = MockServerDaemon.forConfiguration(directory, new Integer[]{1080}, "5.15.0", "-Xmx64m");
+        MockServerDaemon daemonTwo = MockServerDaemon.forConfiguration(directory, new Integer[]{1080}, "5.15.0", "-Xmx128m");
+        MockServerDaemon daemonThree = MockServerDaemon.forConfiguration(directory, new Integer[]{1080}, "5.15.0", "-Xmx64m");
+
+        // then
+        assertThat(daemonOne.getIdentity(), not(daemonTwo.getIdentity()));
+        assertThat(daemonOne.getIdentity(), is(daemonThree.getIdentity()));
+        assertThat(daemonOne.getLeaseFile(), is(daemonTwo.getLeaseFile()));
+    }
+
+    @Test
+    public void shouldBeRunningWhenLeaseMatchesAndPortsBound() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            // given
+            Integer[] ports = {serverSocket.getLocalPort()};
+            MockServerDaemon daemon = MockServerDaemon.forConfiguration(directory, ports, "5.15.0", null);
+
+            // then
+            assertThat(daemon.isRunning(ports), is(false));
+
+            // when
+            daemon.renewLease();
+
+            // then
+            assertThat(daemon.isRunning(ports), is(true));
+            assertThat(MockServerDaemon.forConfiguration(directory, ports, "5.15.1", null).isRunning(ports), is(false));
+        }
+    }
+
+    @Test
+    public void shouldNotBeRunningWhenPortsNotBound() throws IOException {
+        // given
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        Integer[] ports = {port};
+        MockServerDaemon daemon = MockServerDaemon.forConfiguration(directory, ports, "5.15.0");
+
+        // when
+        daemon.renewLease();
+
+        // then
+        assertThat(daemon.isRunning(ports), is(false));
+    }
+
+    @Test
+    public void shouldOnlyFindLeaseForExactlyTheSamePorts() {
+        // given
+        MockServerDaemon daemon = MockServerDaemon.forConfiguration(directory, new Integer[]{1080, 1081}, "5.15.0");
+
+        // then
+        assertThat(MockServerDaemon.forLease(directory, new Integer[]{1080, 1081}) == null, is(true));
+
+        // when
+        daemon.renewLease();
+
+        // then
+        assertThat(MockServerDaemon.forLease(directory, new Integer[]{1080, 1081}).getIdentity(), is(daemon.getIdentity()));
+        assertThat(MockServerDaemon.forLease(directory, new Integer[]{1080}) == null, is(true));
+        assertThat(MockServerDaemon.forLease(directory, new Integer[]{1081, 1080}) == null, is(true));
+    }
+
+    @Test
+    public void shouldUseLogFileNextToLease() {
+        // when
+        MockServerDaemon daemon = MockServerDaemon.forConfiguration(directory, new Integer[]{1080, 1081}, "5.15.0");
+
+        // then
+        assertThat(daemon.getLeaseFile().getName(), is("daemon-1080-1081.lease"));
+        assertThat(daemon.getLogFile().getName(), is("daemon-1080-1081.log"));
+    }
+}
@@ -0,0 +1,82 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+import org.mockserver.client.MockServerClient;
+import org.mockserver.socket.PortFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Simulates a parallel (-T) reactor build where many modules start and stop their own MockServer at the same time
+ */
+public class MockServerParallelReactorTest {
+
+    private static final int MODULES = 16;
+
+    @Test
+    public void shouldStartAndStopMockServerForEachModuleConcurrently() throws Exception {
+        // given
+        List<Integer> ports = new ArrayList<>();
+        List<MockServerStartMojo> startMojos = new ArrayList<>();
+        List<MockServerStopMojo> stopMojos = new ArrayList<>();
+        for (int module = 0; module < MODULES; module++) {
+            int port = PortFactory.findFreePort();
+            ports.add(port);
+            MockServerStartMojo startMojo = new MockServerStartMojo();
+            startMojo.project = MockServerAbstractMojoTest.project("module-" + module);
+            startMojo.serverPort = "" + port;
+            startMojo.logLevel = "WARN";
+            startMojos.add(startMojo);
+            MockServerStopMojo stopMojo = new MockServerStopMojo();
+            stopMojo.project = startMojo.project;
+            stopMojos.add(stopMojo);
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(MODULES);
+
+        try {
+            // when
+            runConcurrently(executorService, startMojos);
+
+            // then
+            for (int module = 0; module < MODULES; module++) {
+                assertThat(new MockServerClient("127.0.0.1", ports.get(module)).hasStarted(), is(true));
+                assertThat(startMojos.get(module).project.getProperties().getProperty("mockserver.mockServerPort"), is("" + ports.get(module)));
+            }
+
+            // when
+            runConcurrently(executorService, stopMojos);
+
+            // then
+            for (Integer port : ports) {
+                assertThat(PortProbe.isListening(port), is(false));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void runConcurrently(ExecutorService executorService, List<? extends MockServerAbstractMojo> mojos) throws Exception {
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (MockServerAbstractMojo mojo : mojos) {
+            futures.add(executorService.submit(() -> {
+                startLatch.await();
+                mojo.execute();
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, SECONDS);
+        }
+    }
+}
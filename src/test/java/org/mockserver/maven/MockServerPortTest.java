@@ -0,0 +1,55 @@
+package org.mockserver.maven;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class MockServerPortTest {
+
+    @After
+    public void clearProperties() {
+        System.clearProperty("mockserver.mockServerPort");
+        System.clearProperty("mockserver.mockServerPort.2");
+        System.clearProperty("mockserver.forkNumber");
+    }
+
+    @Test
+    public void shouldReturnMockServerPorts() {
+        // given
+        System.setProperty("mockserver.mockServerPort", "1080,1081");
+
+        // then
+        assertThat(MockServerPort.mockServerPort(), is(Arrays.asList(1080, 1081)));
+    }
+
+    @Test
+    public void shouldReturnEmptyListWhenNotSet() {
+        assertThat(MockServerPort.mockServerPort(), is(Collections.emptyList()));
+    }
+
+    @Test
+    public void shouldReturnPortsForFork() {
+        // given
+        System.setProperty("mockserver.mockServerPort", "1080");
+        System.setProperty("mockserver.mockServerPort.2", "1081");
+        System.setProperty("mockserver.forkNumber", "2");
+
+        // then
+        assertThat(MockServerPort.mockServerPort(), is(Collections.singletonList(1081)));
+    }
+
+    @Test
+    public void shouldFallBackWhenNoInstanceForFork() {
+        // given
+        System.setProperty("mockserver.mockServerPort", "1080");
+        System.setProperty("mockserver.forkNumber", "5");
+
+        // then
+        assertThat(MockServerPort.mockServerPort(), is(Collections.singletonList(1080)));
+    }
+}
@@ -1,15 +1,29 @@
 package org.mockserver.maven;
 
+import org.apache.maven.model.Resource;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-
+import org.mockserver.netty.MockServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -29,7 +43,7 @@ public class MockServerRunAndWaitMojoTest {
     public void setupMocks() {
         openMocks(this);
 
-        MockServerAbstractMojo.instanceHolder = mockInstanceHolder;
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockInstanceHolder);
     }
 
     @Test
@@ -45,7 +59,7 @@ public class MockServerRunAndWaitMojoTest {
         mockServerRunAndWaitMojo.execute();
 
         // then
-        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(-1), eq(""), eq("WARN"), any(ExampleInitializationClass.class), eq(""));
+        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(-1), eq(""), eq("WARN"), any(ExampleInitializationClass.class), isNull());
         verify(objectSettableFuture).get();
     }
 
@@ -71,10 +85,66 @@ public class MockServerRunAndWaitMojoTest {
         mockServerRunAndWaitMojo.execute();
 
         // then
-        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(-1), eq(""), eq("INFO"), any(ExampleInitializationClass.class), eq(""));
+        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(-1), eq(""), eq("INFO"), any(ExampleInitializationClass.class), isNull());
         verify(objectSettableFuture).get(2, TimeUnit.SECONDS);
     }
 
+    @Test
+    public void shouldWatchInitializationJsonInsteadOfLoadingItAtStart() throws IOException, ExecutionException, InterruptedException {
+        // given
+        File sourceResources = new File("target", "mockserver-run-watch-test/src/test/resources");
+        if (!sourceResources.exists() && !sourceResources.mkdirs()) {
+            throw new IOException("Unable to create directory " + sourceResources.getAbsolutePath());
+        }
+        File initializerJson = new File(sourceResources, "watch.json");
+        Files.write(initializerJson.toPath(), "[{\"httpRequest\": {\"path\": \"/watch\"}, \"httpResponse\": {\"statusCode\": 200}}]".getBytes(StandardCharsets.UTF_8));
+        mockServerRunAndWaitMojo.project = MockServerAbstractMojoTest.project("watch");
+        Resource testResource = new Resource();
+        testResource.setDirectory(sourceResources.getAbsolutePath());
+        mockServerRunAndWaitMojo.project.getBuild().addTestResource(testResource);
+        MockServerAbstractMojo.instanceHolders.put(mockServerRunAndWaitMojo.project.getId(), mockInstanceHolder);
+        mockServerRunAndWaitMojo.serverPort = "1";
+        mockServerRunAndWaitMojo.timeout = 0;
+        mockServerRunAndWaitMojo.initializationJson = "watch.json";
+        mockServerRunAndWaitMojo.watchInitializationJson = true;
+        mockServerRunAndWaitMojo.initializationSnapshot = true;
+        MockServer mockServer = new MockServer(0);
+        try {
+            when(mockInstanceHolder.getLocalPorts()).thenReturn(Collections.singletonList(new Integer[]{mockServer.getLocalPort()}));
+            List<Integer> statusCodes = new ArrayList<>();
+            when(objectSettableFuture.get()).thenAnswer(invocation -> {
+                statusCodes.add(statusCode(mockServer.getLocalPort(), "/watch"));
+                // edited while run blocks the build
+                Files.write(initializerJson.toPath(), "[{\"httpRequest\": {\"path\": \"/watch\"}, \"httpResponse\": {\"statusCode\": 202}}]".getBytes(StandardCharsets.UTF_8));
+                // the polling watch service used on some platforms only checks every few seconds
+                long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+                while (statusCode(mockServer.getLocalPort(), "/watch") != 202 && System.currentTimeMillis() < deadline) {
+                    TimeUnit.MILLISECONDS.sleep(100);
+                }
+                statusCodes.add(statusCode(mockServer.getLocalPort(), "/watch"));
+                return null;
+            });
+
+            // when
+            mockServerRunAndWaitMojo.execute();
+
+            // then
+            verify(mockInstanceHolder).start(eq(new Integer[]{1}), eq(-1), eq(""), eq("INFO"), isNull(), isNull());
+            assertThat(statusCodes, is(Arrays.asList(200, 202)));
+        } finally {
+            mockServer.stop();
+        }
+    }
+
+    private int statusCode(int port, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "127.0.0.1", port, path).openConnection();
+        try {
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
     @Test
     public void shouldSkipStoppingMockServer() {
         // given
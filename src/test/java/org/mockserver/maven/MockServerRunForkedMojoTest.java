@@ -1,17 +1,35 @@
 package org.mockserver.maven;
 
-import org.apache.maven.artifact.Artifact;
-import org.apache.maven.repository.RepositorySystem;
+import org.apache.maven.model.Dependency;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.resolution.DependencyResult;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockserver.client.MockServerClient;
+import org.mockito.stubbing.Answer;
+import org.mockserver.socket.PortFactory;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -21,19 +39,15 @@ import static org.mockito.MockitoAnnotations.openMocks;
  */
 public class MockServerRunForkedMojoTest {
 
-    private final String jarWithDependenciesPath = "";
+    private final String jarWithDependenciesPath = new File("mockserver-netty-no-dependencies.jar").getAbsolutePath();
     private String javaBinaryPath;
     @Mock
     private RepositorySystem mockRepositorySystem;
     @Mock
     private ProcessBuildFactory mockProcessBuildFactory;
-    @Mock
-    private MockServerClient mockServerClient;
     @InjectMocks
     private MockServerRunForkedMojo mockServerRunForkedMojo;
     private ProcessBuilder processBuilder;
-    @Mock
-    private Artifact mockArtifact;
 
     @Before
     public void setupMocks() {
@@ -43,40 +57,378 @@ public class MockServerRunForkedMojoTest {
 
         openMocks(this);
 
-        when(mockRepositorySystem.createArtifactWithClassifier("org.mock-server", "mockserver-netty-no-dependencies", mockServerRunForkedMojo.getVersion(), "jar", "")).thenReturn(mockArtifact);
-        when(mockServerClient.hasStarted(anyInt(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        mockServerRunForkedMojo.repositorySystemSession = new DefaultRepositorySystemSession();
+        new File("target/mockserver/runForked.classpath").delete();
+        resolveTo(jarWithDependenciesPath);
+    }
+
+    private void resolveTo(String... paths) {
+        try {
+            when(mockRepositorySystem.resolveDependencies(any(), any())).thenAnswer(invocation -> {
+                DependencyRequest dependencyRequest = invocation.getArgument(1);
+                List<ArtifactResult> artifactResults = new ArrayList<>();
+                for (String path : paths) {
+                    artifactResults.add(new ArtifactResult(new ArtifactRequest()).setArtifact(new DefaultArtifact("org.mock-server:" + new File(path).getName() + ":1.0").setFile(new File(path))));
+                }
+                return new DependencyResult(dependencyRequest).setArtifactResults(artifactResults);
+            });
+        } catch (DependencyResolutionException dre) {
+            throw new RuntimeException(dre);
+        }
+    }
+
+    private void verifyResolved(String... artifacts) throws DependencyResolutionException {
+        ArgumentCaptor<DependencyRequest> dependencyRequest = ArgumentCaptor.forClass(DependencyRequest.class);
+        verify(mockRepositorySystem).resolveDependencies(any(), dependencyRequest.capture());
+        List<String> requested = new ArrayList<>();
+        for (org.eclipse.aether.graph.Dependency dependency : dependencyRequest.getValue().getCollectRequest().getDependencies()) {
+            requested.add(dependency.getArtifact().toString());
+        }
+        assertEquals(Arrays.asList(artifacts), requested);
+    }
+
+    private String readinessFile(Integer... ports) {
+        return ReadinessHandshake.forPorts(new File("target", "mockserver"), ports).getFile().getAbsolutePath();
+    }
+
+    private String classPath() {
+        return jarWithDependenciesPath + System.getProperty("path.separator") + mockServerRunForkedMojo.getPluginClasspathEntry();
+    }
+
+    private Answer<ProcessBuilder> signalReady(ProcessBuilder processBuilder) {
+        return invocation -> {
+            Integer[] ports = mockServerRunForkedMojo.getServerPorts();
+            new ReadinessHandshake(new File(readinessFile(ports))).signalReady(Arrays.asList(ports));
+            return processBuilder;
+        };
     }
 
     @Test
-    public void shouldRunMockServerForkedLocalPortSpecified() {
+    public void shouldRunMockServerForkedLocalPortSpecified() throws DependencyResolutionException {
         // given
         mockServerRunForkedMojo.serverPort = "1,2";
         mockServerRunForkedMojo.logLevel = "LEVEL";
         mockServerRunForkedMojo.pipeLogToConsole = true;
         mockServerRunForkedMojo.jvmOptions = "-Dfoo=bar";
-        when(mockProcessBuildFactory.create(anyList())).thenReturn(processBuilder);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
 
 
         // when
         mockServerRunForkedMojo.execute();
 
         // then
-        verify(mockRepositorySystem).createArtifactWithClassifier("org.mock-server", "mockserver-netty-no-dependencies", mockServerRunForkedMojo.getVersion(), "jar", null);
+        verifyResolved("org.mock-server:mockserver-netty-no-dependencies:jar:" + mockServerRunForkedMojo.getVersion());
         verify(mockProcessBuildFactory).create(Arrays.asList(
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dfoo=bar",
-                "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main",
+                "-Dmockserver.readinessFile=" + readinessFile(1, 2),
+                "-cp", classPath(), "org.mockserver.maven.ForkedMockServerLauncher",
                 "-serverPort", "1,2",
                 "-logLevel", "LEVEL"
         ));
-        verify(mockServerClient).hasStarted(anyInt(), anyLong(), any(TimeUnit.class));
         assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectError());
         assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectOutput());
     }
 
     @Test
-    public void shouldRunMockServerForkedPortForwarding() {
+    public void shouldPublishPortsBoundByForkForEphemeralPort() {
+        // given
+        mockServerRunForkedMojo.project = MockServerAbstractMojoTest.project("ephemeral");
+        mockServerRunForkedMojo.serverPort = "auto";
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(invocation -> {
+            for (String argument : invocation.<List<String>>getArgument(0)) {
+                if (argument.startsWith("-Dmockserver.readinessFile=")) {
+                    new ReadinessHandshake(new File(argument.substring("-Dmockserver.readinessFile=".length()))).signalReady(Collections.singletonList(34567));
+                }
+            }
+            return processBuilder;
+        });
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verify(mockProcessBuildFactory).create(argThat(arguments -> arguments.containsAll(Arrays.asList("-serverPort", "0"))));
+        assertEquals("34567", mockServerRunForkedMojo.project.getProperties().getProperty("mockserver.mockServerPort"));
+        assertEquals("-Dmockserver.mockServerPort=34567", mockServerRunForkedMojo.project.getProperties().getProperty("argLine"));
+    }
+
+    @Test
+    public void shouldDrainForkedOutputToLogFile() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        try {
+            // when
+            mockServerRunForkedMojo.execute();
+
+            // then
+            assertTrue(processBuilder.redirectErrorStream());
+            assertEquals(ProcessBuilder.Redirect.PIPE, processBuilder.redirectOutput());
+            ForkedProcessOutput forkedProcessOutput = ForkedProcessOutput.forPorts(new Integer[]{1, 2});
+            assertNotNull(forkedProcessOutput);
+            assertEquals(new File("target/mockserver/runForked-1-2.log").getAbsolutePath(), forkedProcessOutput.getLogFile().getAbsolutePath());
+        } finally {
+            ForkedProcessOutput.unregister(new Integer[]{1, 2});
+        }
+    }
+
+    @Test
+    public void shouldDrainEachForkOfPoolOnEphemeralPortsToItsOwnLogFile() {
+        // given
+        mockServerRunForkedMojo.project = MockServerAbstractMojoTest.project("pool-logs");
+        mockServerRunForkedMojo.serverPort = "auto";
+        mockServerRunForkedMojo.poolSize = 2;
+        AtomicInteger boundPort = new AtomicInteger(34567);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(invocation -> {
+            for (String argument : invocation.<List<String>>getArgument(0)) {
+                if (argument.startsWith("-Dmockserver.readinessFile=")) {
+                    new ReadinessHandshake(new File(argument.substring("-Dmockserver.readinessFile=".length()))).signalReady(Collections.singletonList(boundPort.getAndIncrement()));
+                }
+            }
+            return processBuilder;
+        });
+
+        try {
+            // when
+            mockServerRunForkedMojo.execute();
+
+            // then
+            Set<String> logFiles = new HashSet<>();
+            for (Integer port : Arrays.asList(34567, 34568)) {
+                ForkedProcessOutput forkedProcessOutput = ForkedProcessOutput.forPorts(new Integer[]{port});
+                assertNotNull(forkedProcessOutput);
+                logFiles.add(forkedProcessOutput.getLogFile().getAbsolutePath());
+            }
+            assertEquals(new HashSet<>(Arrays.asList(
+                    new File("target/mockserver/runForked-pool-1.log").getAbsolutePath(),
+                    new File("target/mockserver/runForked-pool-2.log").getAbsolutePath()
+            )), logFiles);
+        } finally {
+            ForkedProcessOutput.unregister(new Integer[]{34567});
+            ForkedProcessOutput.unregister(new Integer[]{34568});
+        }
+    }
+
+    @Test
+    public void shouldAddForkedOutputWhenStartFails() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        mockServerRunForkedMojo.startTimeout = 10;
+        when(mockProcessBuildFactory.create(anyList())).thenReturn(new ProcessBuilder("echo", "Address already in use"));
+
+        try {
+            // when
+            mockServerRunForkedMojo.execute();
+            fail("expected exception");
+        } catch (IllegalStateException ise) {
+            // then
+            assertTrue(ise.getMessage(), ise.getMessage().contains("MockServer failed to start on: serverPort [1, 2] forked MockServer exited with status 0"));
+            assertTrue(ise.getMessage(), ise.getMessage().contains("Address already in use"));
+        }
+    }
+
+    @Test
+    public void shouldForkInstance() throws DependencyResolutionException {
+        // given
+        mockServerRunForkedMojo.project = MockServerAbstractMojoTest.project("instances");
+        MockServerInstance payments = MockServerAbstractMojoTest.instance("payments", "auto", MockServerInstance.FORKED);
+        payments.proxyRemotePort = 3;
+        mockServerRunForkedMojo.instances = Collections.singletonList(payments);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(invocation -> {
+            for (String argument : invocation.<List<String>>getArgument(0)) {
+                if (argument.startsWith("-Dmockserver.readinessFile=")) {
+                    new ReadinessHandshake(new File(argument.substring("-Dmockserver.readinessFile=".length()))).signalReady(Collections.singletonList(34567));
+                }
+            }
+            return processBuilder;
+        });
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verifyResolved("org.mock-server:mockserver-netty-no-dependencies:jar:" + mockServerRunForkedMojo.getVersion());
+        verify(mockProcessBuildFactory).create(argThat(arguments -> arguments.containsAll(Arrays.asList("-serverPort", "0", "-proxyRemotePort", "3"))));
+        assertEquals("34567", mockServerRunForkedMojo.project.getProperties().getProperty("mockserver.mockServerPort.payments"));
+        assertNull(mockServerRunForkedMojo.project.getProperties().getProperty("mockserver.mockServerPort"));
+    }
+
+    @Test
+    public void shouldForkClusterShardsBehindServerPort() {
+        // given
+        mockServerRunForkedMojo.project = MockServerAbstractMojoTest.project("cluster");
+        mockServerRunForkedMojo.serverPort = "auto";
+        mockServerRunForkedMojo.clusterSize = 2;
+        AtomicInteger shardPort = new AtomicInteger(34567);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(invocation -> {
+            for (String argument : invocation.<List<String>>getArgument(0)) {
+                if (argument.startsWith("-Dmockserver.readinessFile=")) {
+                    new ReadinessHandshake(new File(argument.substring("-Dmockserver.readinessFile=".length()))).signalReady(Collections.singletonList(shardPort.getAndIncrement()));
+                }
+            }
+            return processBuilder;
+        });
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        Integer[] clusterPorts = MockServerPort.toList(mockServerRunForkedMojo.project.getProperties().getProperty("mockserver.mockServerPort")).toArray(new Integer[0]);
+        ShardedMockServer shardedMockServer = ShardedMockServer.forPorts(clusterPorts);
+        try {
+            verify(mockProcessBuildFactory, times(2)).create(argThat(arguments -> arguments.containsAll(Arrays.asList("-serverPort", "0"))));
+            assertNotNull(shardedMockServer);
+            assertTrue(PortProbe.isListening(clusterPorts[0]));
+            assertEquals(new HashSet<>(Arrays.asList(34567, 34568)), new HashSet<>(shardedMockServer.getShardPorts()));
+            assertEquals(new HashSet<>(Arrays.asList(34567, 34568)), new HashSet<>(MockServerPort.toList(mockServerRunForkedMojo.project.getProperties().getProperty("mockserver.mockServerShardPorts"))));
+        } finally {
+            if (shardedMockServer != null) {
+                shardedMockServer.stop();
+            }
+            System.clearProperty("mockserver.mockServerPort");
+            System.clearProperty("mockserver.mockServerShardPorts");
+        }
+    }
+
+    @Test
+    public void shouldFailForUnknownClusterBalancingBeforeForking() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1080";
+        mockServerRunForkedMojo.clusterSize = 2;
+        mockServerRunForkedMojo.clusterBalancing = "random";
+
+        try {
+            // when
+            mockServerRunForkedMojo.execute();
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertEquals("MockServer cluster balancing \"random\" is not one of [roundRobin, clientAddress]", iae.getMessage());
+            verifyNoInteractions(mockProcessBuildFactory);
+        }
+    }
+
+    @Test
+    public void shouldRunMockServerForkedWithJvmProfile() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        mockServerRunForkedMojo.logLevel = "LEVEL";
+        mockServerRunForkedMojo.jvmProfile = "fast-start";
+        mockServerRunForkedMojo.heapSize = "64m";
+        mockServerRunForkedMojo.jvmOptions = "-Dfoo=bar";
+        mockServerRunForkedMojo.jvmArguments = Arrays.asList("-Dbar=foo", "-Xss512k");
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verify(mockProcessBuildFactory).create(Arrays.asList(
+                javaBinaryPath,
+                "-Dfile.encoding=UTF-8",
+                "-XX:TieredStopAtLevel=1",
+                "-Xshare:auto",
+                "-XX:-UsePerfData",
+                "-XX:+UseSerialGC",
+                "-Xms64m",
+                "-Xmx64m",
+                "-Dfoo=bar",
+                "-Dbar=foo",
+                "-Xss512k",
+                "-Dmockserver.readinessFile=" + readinessFile(1, 2),
+                "-cp", classPath(), "org.mockserver.maven.ForkedMockServerLauncher",
+                "-serverPort", "1,2",
+                "-logLevel", "LEVEL"
+        ));
+    }
+
+    @Test
+    public void shouldPassServerConfigurationAsSystemProperties() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        mockServerRunForkedMojo.logLevel = "LEVEL";
+        mockServerRunForkedMojo.serverConfiguration = new ServerConfiguration();
+        mockServerRunForkedMojo.serverConfiguration.nioEventLoopThreadCount = 2;
+        mockServerRunForkedMojo.serverConfiguration.maxLogEntries = 1000;
+        mockServerRunForkedMojo.jvmOptions = "-Dfoo=bar";
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verify(mockProcessBuildFactory).create(Arrays.asList(
+                javaBinaryPath,
+                "-Dfile.encoding=UTF-8",
+                "-Dmockserver.nioEventLoopThreadCount=2",
+                "-Dmockserver.maxLogEntries=1000",
+                "-Dfoo=bar",
+                "-Dmockserver.readinessFile=" + readinessFile(1, 2),
+                "-cp", classPath(), "org.mockserver.maven.ForkedMockServerLauncher",
+                "-serverPort", "1,2",
+                "-logLevel", "LEVEL"
+        ));
+    }
+
+    @Test
+    public void shouldAutoSizeForkedMockServerForContainer() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        mockServerRunForkedMojo.logLevel = "LEVEL";
+        mockServerRunForkedMojo.sizing = "auto";
+        mockServerRunForkedMojo.containerResources = new ContainerResources(2, 4L * 1024 * 1024 * 1024);
+        mockServerRunForkedMojo.serverConfiguration = new ServerConfiguration();
+        mockServerRunForkedMojo.serverConfiguration.actionHandlerThreadCount = 8;
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        List<String> expected = new ArrayList<>(Arrays.asList(
+                javaBinaryPath,
+                "-Dfile.encoding=UTF-8",
+                "-Dmockserver.nioEventLoopThreadCount=2",
+                "-Dmockserver.actionHandlerThreadCount=8",
+                "-Dmockserver.clientNioEventLoopThreadCount=2",
+                "-Dmockserver.webSocketClientEventLoopThreadCount=1",
+                "-Xmx1536m"
+        ));
+        if (ClassDataSharingArchive.javaVersion() >= 10) {
+            expected.add("-XX:ActiveProcessorCount=2");
+        }
+        expected.addAll(Arrays.asList(
+                "-Dmockserver.readinessFile=" + readinessFile(1, 2),
+                "-cp", classPath(), "org.mockserver.maven.ForkedMockServerLauncher",
+                "-serverPort", "1,2",
+                "-logLevel", "LEVEL"
+        ));
+        verify(mockProcessBuildFactory).create(expected);
+    }
+
+    @Test
+    public void shouldFailForInvalidServerConfigurationBeforeForking() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        mockServerRunForkedMojo.serverConfiguration = new ServerConfiguration();
+        mockServerRunForkedMojo.serverConfiguration.maxExpectations = -1;
+
+        try {
+            // when
+            mockServerRunForkedMojo.execute();
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertEquals("serverConfiguration maxExpectations must be greater than 0 but was -1", iae.getMessage());
+            verifyNoInteractions(mockProcessBuildFactory);
+        }
+    }
+
+    @Test
+    public void shouldRunMockServerForkedPortForwarding() throws DependencyResolutionException {
         // given
         mockServerRunForkedMojo.serverPort = "1,2";
         mockServerRunForkedMojo.proxyRemotePort = 3;
@@ -84,25 +436,25 @@ public class MockServerRunForkedMojoTest {
         mockServerRunForkedMojo.logLevel = "LEVEL";
         mockServerRunForkedMojo.pipeLogToConsole = true;
         mockServerRunForkedMojo.jvmOptions = "-Dfoo=bar";
-        when(mockProcessBuildFactory.create(anyList())).thenReturn(processBuilder);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
 
 
         // when
         mockServerRunForkedMojo.execute();
 
         // then
-        verify(mockRepositorySystem).createArtifactWithClassifier("org.mock-server", "mockserver-netty-no-dependencies", mockServerRunForkedMojo.getVersion(), "jar", null);
+        verifyResolved("org.mock-server:mockserver-netty-no-dependencies:jar:" + mockServerRunForkedMojo.getVersion());
         verify(mockProcessBuildFactory).create(Arrays.asList(
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dfoo=bar",
-                "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main",
+                "-Dmockserver.readinessFile=" + readinessFile(1, 2),
+                "-cp", classPath(), "org.mockserver.maven.ForkedMockServerLauncher",
                 "-serverPort", "1,2",
                 "-proxyRemotePort", "3",
                 "-proxyRemoteHost", "remoteHost",
                 "-logLevel", "LEVEL"
         ));
-        verify(mockServerClient).hasStarted(anyInt(), anyLong(), any(TimeUnit.class));
         assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectError());
         assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectOutput());
     }
@@ -118,7 +470,7 @@ public class MockServerRunForkedMojoTest {
         mockServerRunForkedMojo.compileClasspath = Collections.singletonList(ExampleInitializationClass.class.getClassLoader().getResource(classLocation).getFile().replaceAll(classLocation, ""));
         mockServerRunForkedMojo.testClasspath = Collections.emptyList();
         mockServerRunForkedMojo.jvmOptions = "-Dfoo=bar";
-        when(mockProcessBuildFactory.create(anyList())).thenReturn(processBuilder);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
 
         // when
         mockServerRunForkedMojo.execute();
@@ -128,16 +480,79 @@ public class MockServerRunForkedMojoTest {
                 javaBinaryPath,
                 "-Dfile.encoding=UTF-8",
                 "-Dfoo=bar",
-                "-cp", jarWithDependenciesPath, "org.mockserver.cli.Main",
+                "-Dmockserver.readinessFile=" + readinessFile(1, 2),
+                "-cp", classPath(), "org.mockserver.maven.ForkedMockServerLauncher",
                 "-serverPort", "1,2",
                 "-logLevel", "INFO"
         ));
-        verify(mockServerClient).hasStarted(anyInt(), anyLong(), any(TimeUnit.class));
         assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectError());
         assertEquals(ProcessBuilder.Redirect.INHERIT, processBuilder.redirectOutput());
         assertNotNull(ExampleInitializationClass.mockServerClient);
     }
 
+    @Test
+    public void shouldResolvePluginDependenciesTransitively() throws DependencyResolutionException {
+        // given
+        String dependencyPath = new File("dependency.jar").getAbsolutePath();
+        String transitiveDependencyPath = new File("transitive-dependency.jar").getAbsolutePath();
+        resolveTo(jarWithDependenciesPath, dependencyPath, transitiveDependencyPath);
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId("dependency");
+        dependency.setVersion("1.0");
+        mockServerRunForkedMojo.dependencies = Collections.singletonList(dependency);
+        mockServerRunForkedMojo.serverPort = "1,2";
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verifyResolved("org.mock-server:mockserver-netty-no-dependencies:jar:" + mockServerRunForkedMojo.getVersion(), "org.example:dependency:jar:1.0");
+        verify(mockProcessBuildFactory).create(argThat(arguments -> arguments.contains(jarWithDependenciesPath + File.pathSeparator + dependencyPath + File.pathSeparator + transitiveDependencyPath + File.pathSeparator + mockServerRunForkedMojo.getPluginClasspathEntry())));
+    }
+
+    @Test
+    public void shouldUseCachedClasspathWhenResolvedFilesUnchanged() throws DependencyResolutionException, IOException {
+        // given
+        File resolvedJar = File.createTempFile("mockserver-netty-no-dependencies", ".jar");
+        resolvedJar.deleteOnExit();
+        resolveTo(resolvedJar.getAbsolutePath());
+        mockServerRunForkedMojo.serverPort = "1,2";
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verify(mockRepositorySystem, times(mockServerRunForkedMojo.getVersion().endsWith("-SNAPSHOT") ? 2 : 1)).resolveDependencies(any(), any());
+        verify(mockProcessBuildFactory, times(2)).create(argThat(arguments -> arguments.contains(resolvedJar.getAbsolutePath() + File.pathSeparator + mockServerRunForkedMojo.getPluginClasspathEntry())));
+    }
+
+    @Test
+    public void shouldNotCacheClasspathWithSnapshotDependency() throws DependencyResolutionException, IOException {
+        // given
+        File resolvedJar = File.createTempFile("mockserver-netty-no-dependencies", ".jar");
+        resolvedJar.deleteOnExit();
+        resolveTo(resolvedJar.getAbsolutePath());
+        Dependency dependency = new Dependency();
+        dependency.setGroupId("org.example");
+        dependency.setArtifactId("dependency");
+        dependency.setVersion("1.0-SNAPSHOT");
+        mockServerRunForkedMojo.dependencies = Collections.singletonList(dependency);
+        mockServerRunForkedMojo.serverPort = "1,2";
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verify(mockRepositorySystem, times(2)).resolveDependencies(any(), any());
+        assertFalse(new File("target/mockserver/runForked.classpath").exists());
+    }
+
     @Test
     public void shouldHandleProcessException() {
         // given
@@ -153,18 +568,17 @@ public class MockServerRunForkedMojoTest {
     }
 
     @Test
-    public void shouldRunMockServerForkedAndNotPipeToConsole() {
+    public void shouldRunMockServerForkedAndNotPipeToConsole() throws DependencyResolutionException {
         // given
         mockServerRunForkedMojo.serverPort = "1,2";
         mockServerRunForkedMojo.pipeLogToConsole = false;
-        when(mockProcessBuildFactory.create(anyList())).thenReturn(processBuilder);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
 
         // when
         mockServerRunForkedMojo.execute();
 
         // then
-        verify(mockRepositorySystem).createArtifactWithClassifier("org.mock-server", "mockserver-netty-no-dependencies", mockServerRunForkedMojo.getVersion(), "jar", null);
-        verify(mockServerClient).hasStarted(anyInt(), anyLong(), any(TimeUnit.class));
+        verifyResolved("org.mock-server:mockserver-netty-no-dependencies:jar:" + mockServerRunForkedMojo.getVersion());
         assertFalse(processBuilder.redirectErrorStream());
     }
 
@@ -175,15 +589,88 @@ public class MockServerRunForkedMojoTest {
         mockServerRunForkedMojo.serverPort = "1,2";
         mockServerRunForkedMojo.pipeLogToConsole = true;
         mockServerRunForkedMojo.initializationClass = "org.mockserver.maven.InvalidClassName";
-        when(mockProcessBuildFactory.create(anyList())).thenReturn(processBuilder);
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
 
         // when
         mockServerRunForkedMojo.execute();
 
-        verify(mockServerClient).hasStarted(anyInt(), anyLong(), any(TimeUnit.class));
         assertNull(ExampleInitializationClass.mockServerClient);
     }
 
+    @Test
+    public void shouldFailWhenForkedMockServerExitsWithoutSignallingReady() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        when(mockProcessBuildFactory.create(anyList())).thenReturn(processBuilder);
+
+        // when
+        long startTime = System.currentTimeMillis();
+        try {
+            mockServerRunForkedMojo.execute();
+            fail("expected exception to be thrown");
+        } catch (IllegalStateException ise) {
+            // then
+            assertTrue(ise.getMessage().contains("forked MockServer exited with status 0"));
+            assertTrue(System.currentTimeMillis() - startTime < 5000);
+        }
+    }
+
+    @Test
+    public void shouldFailWhenForkedMockServerSignalsFailure() {
+        // given
+        mockServerRunForkedMojo.serverPort = "1,2";
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(invocation -> {
+            new ReadinessHandshake(new File(readinessFile(1, 2))).signalFailed("java.net.BindException: Address already in use");
+            return processBuilder;
+        });
+
+        // when
+        try {
+            mockServerRunForkedMojo.execute();
+            fail("expected exception to be thrown");
+        } catch (IllegalStateException ise) {
+            // then
+            assertTrue(ise.getMessage().contains("java.net.BindException: Address already in use"));
+        }
+    }
+
+    @Test
+    public void shouldNotStopExistingMockServerWhenPortIsFree() {
+        // given
+        InstanceHolder mockInstanceHolder = mock(InstanceHolder.class);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockInstanceHolder);
+        mockServerRunForkedMojo.serverPort = "" + PortFactory.findFreePort();
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verify(mockInstanceHolder, times(0)).stop(any(Integer[].class), anyBoolean(), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void shouldStopExistingMockServerWhenPortIsBound() throws IOException {
+        // given
+        ServerSocket existingServer = new ServerSocket(0);
+        Integer port = existingServer.getLocalPort();
+        InstanceHolder mockInstanceHolder = mock(InstanceHolder.class);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockInstanceHolder);
+        doAnswer(invocation -> {
+            existingServer.close();
+            return 0L;
+        }).when(mockInstanceHolder).stop(any(Integer[].class), anyBoolean(), anyLong(), any(TimeUnit.class));
+        mockServerRunForkedMojo.serverPort = "" + port;
+        when(mockProcessBuildFactory.create(anyList())).thenAnswer(signalReady(processBuilder));
+
+        // when
+        mockServerRunForkedMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).stop(new Integer[]{port}, true, 10, SECONDS);
+        assertFalse(PortProbe.isListening(port));
+    }
+
     @Test
     public void shouldSkipStoppingMockServer() {
         // given
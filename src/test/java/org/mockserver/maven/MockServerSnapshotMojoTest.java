@@ -0,0 +1,107 @@
+package org.mockserver.maven;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+public class MockServerSnapshotMojoTest {
+
+    private final File buildDirectory = new File("target", "mockserver-snapshot-mojo-test");
+
+    @Mock
+    private MavenProjectHelper mockProjectHelper;
+    @Mock
+    private MavenProject mockProject;
+    @InjectMocks
+    private MockServerSnapshotMojo mockServerSnapshotMojo;
+
+    @Before
+    public void setupMocks() {
+        openMocks(this);
+        mockServerSnapshotMojo.buildDirectory = buildDirectory;
+    }
+
+    @Test
+    public void shouldWriteAndAttachSnapshot() throws IOException {
+        // given
+        mockServerSnapshotMojo.initializationJson = writeJson().getAbsolutePath();
+        mockServerSnapshotMojo.attachSnapshot = true;
+
+        // when
+        mockServerSnapshotMojo.execute();
+
+        // then
+        ArgumentCaptor<File> snapshot = ArgumentCaptor.forClass(File.class);
+        verify(mockProjectHelper).attachArtifact(eq(mockProject), eq(MockServerSnapshotMojo.SNAPSHOT_TYPE), eq(MockServerSnapshotMojo.SNAPSHOT_CLASSIFIER), snapshot.capture());
+        assertThat(snapshot.getValue().isFile(), is(true));
+        assertThat(snapshot.getValue().getParentFile().getName(), is("snapshots"));
+    }
+
+    @Test
+    public void shouldNotAttachSnapshotByDefault() throws IOException {
+        // given
+        mockServerSnapshotMojo.initializationJson = writeJson().getAbsolutePath();
+
+        // when
+        mockServerSnapshotMojo.execute();
+
+        // then
+        verifyNoInteractions(mockProjectHelper);
+    }
+
+    @Test
+    public void shouldSkipWithoutInitializers() {
+        // when
+        mockServerSnapshotMojo.execute();
+
+        // then
+        verifyNoInteractions(mockProjectHelper);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailForInitializerThatCanNotBeSnapshot() {
+        // given
+        mockServerSnapshotMojo.initializationJson = new File(buildDirectory, "missing.json").getAbsolutePath();
+
+        // when
+        mockServerSnapshotMojo.execute();
+    }
+
+    @Test
+    public void shouldSkipSnapshot() {
+        // given
+        mockServerSnapshotMojo.skip = true;
+        mockServerSnapshotMojo.attachSnapshot = true;
+
+        // when
+        mockServerSnapshotMojo.execute();
+
+        // then
+        verifyNoInteractions(mockProjectHelper, mockProject);
+    }
+
+    private File writeJson() throws IOException {
+        if (!buildDirectory.exists() && !buildDirectory.mkdirs()) {
+            throw new IOException("Unable to create directory " + buildDirectory.getAbsolutePath());
+        }
+        File file = new File(buildDirectory, "expectations.json");
+        Files.write(file.toPath(), "[{\"httpRequest\": {\"path\": \"/snapshot\"}, \"httpResponse\": {\"statusCode\": 200}}]".getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -2,12 +2,31 @@ package org.mockserver.maven;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -25,7 +44,7 @@ public class MockServerStartMojoTest {
     @Before
     public void setupMocks() {
         openMocks(this);
-        MockServerAbstractMojo.instanceHolder = mockInstanceHolder;
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockInstanceHolder);
     }
 
     @Test
@@ -40,7 +59,7 @@ public class MockServerStartMojoTest {
         mockServerStartMojo.execute();
 
         // then
-        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(-1), eq(""), eq("WARN"), any(ExampleInitializationClass.class), eq(""));
+        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(-1), eq(""), eq("WARN"), any(ExampleInitializationClass.class), isNull());
     }
 
     @Test
@@ -57,7 +76,193 @@ public class MockServerStartMojoTest {
         mockServerStartMojo.execute();
 
         // then
-        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(3), eq("remoteHost"), eq("WARN"), any(ExampleInitializationClass.class), eq(""));
+        verify(mockInstanceHolder).start(eq(new Integer[]{1, 2}), eq(3), eq("remoteHost"), eq("WARN"), any(ExampleInitializationClass.class), isNull());
+    }
+
+    @Test
+    public void shouldStartMockServerPool() {
+        // given
+        mockServerStartMojo.serverPort = "1080";
+        mockServerStartMojo.poolSize = 4;
+        mockServerStartMojo.logLevel = "WARN";
+
+        // when
+        mockServerStartMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).startPool(eq(4), eq(new Integer[]{1080}), eq(-1), eq(""), eq("WARN"), isNull(), isNull());
+    }
+
+    @Test
+    public void shouldStartMockServerFromSnapshot() throws IOException {
+        // given
+        File initializerJson = new File("target", "mockserver-start-snapshot-test.json");
+        Files.write(initializerJson.toPath(), "[{\"httpRequest\": {\"path\": \"/snapshot\"}, \"httpResponse\": {\"statusCode\": 200}}]".getBytes(StandardCharsets.UTF_8));
+        mockServerStartMojo.serverPort = "1080";
+        mockServerStartMojo.logLevel = "WARN";
+        mockServerStartMojo.initializationClass = "org.mockserver.maven.ExampleInitializationClass";
+        mockServerStartMojo.initializationJson = initializerJson.getAbsolutePath();
+        mockServerStartMojo.initializationSnapshot = true;
+
+        // when
+        mockServerStartMojo.execute();
+
+        // then
+        ArgumentCaptor<InitializationJson> snapshot = ArgumentCaptor.forClass(InitializationJson.class);
+        verify(mockInstanceHolder).start(eq(new Integer[]{1080}), eq(-1), eq(""), eq("WARN"), isNull(), snapshot.capture());
+        assertThat(snapshot.getValue().getFile().getName().endsWith(".json.gz"), is(true));
+    }
+
+    @Test
+    public void shouldStartMockServerLazily() {
+        // given
+        mockServerStartMojo.serverPort = "1080";
+        mockServerStartMojo.lazyStart = true;
+        mockServerStartMojo.logLevel = "WARN";
+
+        // when
+        mockServerStartMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).startLazy(eq(new Integer[]{1080}), eq(4096), eq(-1), eq(""), eq("WARN"), isNull(), isNull());
+    }
+
+    @Test
+    public void shouldStartMockServerInBackground() {
+        // given
+        mockServerStartMojo.serverPort = "1080";
+        mockServerStartMojo.backgroundStart = true;
+        mockServerStartMojo.logLevel = "WARN";
+
+        // when
+        mockServerStartMojo.execute();
+
+        // then
+        ArgumentCaptor<Runnable> backgroundStart = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockInstanceHolder).startInBackground(backgroundStart.capture());
+        verify(mockInstanceHolder, never()).start(any(), any(), any(), any(), any(), any());
+
+        // when
+        backgroundStart.getValue().run();
+
+        // then
+        verify(mockInstanceHolder).start(eq(new Integer[]{1080}), eq(-1), eq(""), eq("WARN"), isNull(), isNull());
+    }
+
+    @Test
+    public void shouldStartInstancesConcurrently() {
+        // given
+        InstanceHolder paymentsInstanceHolder = mock(InstanceHolder.class);
+        InstanceHolder accountsInstanceHolder = mock(InstanceHolder.class);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#payments", paymentsInstanceHolder);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#accounts", accountsInstanceHolder);
+        MockServerInstance accounts = MockServerAbstractMojoTest.instance("accounts", "1082", MockServerInstance.EMBEDDED);
+        accounts.proxyRemotePort = 3;
+        accounts.proxyRemoteHost = "remoteHost";
+        mockServerStartMojo.instances = Arrays.asList(MockServerAbstractMojoTest.instance("payments", "1080,1081", MockServerInstance.EMBEDDED), accounts);
+        mockServerStartMojo.logLevel = "WARN";
+        // each start only completes once both have started so a sequential start times out
+        CountDownLatch bothStarting = new CountDownLatch(2);
+        Answer<Void> awaitBothStarting = invocation -> {
+            bothStarting.countDown();
+            if (!bothStarting.await(10, SECONDS)) {
+                throw new IllegalStateException("instances not started concurrently");
+            }
+            return null;
+        };
+        doAnswer(awaitBothStarting).when(paymentsInstanceHolder).start(any(), any(), any(), any(), any(), any());
+        doAnswer(awaitBothStarting).when(accountsInstanceHolder).start(any(), any(), any(), any(), any(), any());
+
+        try {
+            // when
+            mockServerStartMojo.execute();
+
+            // then
+            verify(paymentsInstanceHolder).start(eq(new Integer[]{1080, 1081}), eq(-1), isNull(), eq("WARN"), isNull(), isNull());
+            verify(accountsInstanceHolder).start(eq(new Integer[]{1082}), eq(3), eq("remoteHost"), eq("WARN"), isNull(), isNull());
+            verify(mockInstanceHolder, never()).start(any(), any(), any(), any(), any(), any());
+            assertThat(System.getProperty("mockserver.mockServerPort.payments"), is("1080,1081"));
+            assertThat(MockServerPort.mockServerPort("accounts"), is(Collections.singletonList(1082)));
+        } finally {
+            MockServerAbstractMojo.instanceHolders.remove(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#payments");
+            MockServerAbstractMojo.instanceHolders.remove(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#accounts");
+            System.clearProperty("mockserver.mockServerPort.payments");
+            System.clearProperty("mockserver.mockServerPort.accounts");
+        }
+    }
+
+    @Test
+    public void shouldStopStartedInstancesWhenAnInstanceFailsToStart() {
+        // given
+        InstanceHolder paymentsInstanceHolder = mock(InstanceHolder.class);
+        InstanceHolder accountsInstanceHolder = mock(InstanceHolder.class);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#payments", paymentsInstanceHolder);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#accounts", accountsInstanceHolder);
+        mockServerStartMojo.instances = Arrays.asList(
+            MockServerAbstractMojoTest.instance("payments", "1080", MockServerInstance.EMBEDDED),
+            MockServerAbstractMojoTest.instance("accounts", "1081", MockServerInstance.EMBEDDED)
+        );
+        doThrow(new RuntimeException("Address already in use")).when(accountsInstanceHolder).start(any(), any(), any(), any(), any(), any());
+
+        try {
+            // when
+            mockServerStartMojo.execute();
+            fail("expected exception");
+        } catch (RuntimeException re) {
+            // then
+            assertThat(re.getMessage(), is("Exception while starting MockServer instance accounts Address already in use"));
+            verify(paymentsInstanceHolder).stop(10, SECONDS);
+            verify(accountsInstanceHolder).stop(10, SECONDS);
+        } finally {
+            MockServerAbstractMojo.instanceHolders.remove(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#payments");
+            MockServerAbstractMojo.instanceHolders.remove(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#accounts");
+            System.clearProperty("mockserver.mockServerPort.payments");
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidInstances() {
+        // given
+        mockServerStartMojo.instances = Arrays.asList(
+            MockServerAbstractMojoTest.instance("payments", "1080", MockServerInstance.EMBEDDED),
+            MockServerAbstractMojoTest.instance("payments", "1081", MockServerInstance.EMBEDDED)
+        );
+
+        try {
+            // when
+            mockServerStartMojo.execute();
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("MockServer instance id \"payments\" is used more than once"));
+        }
+
+        // given
+        mockServerStartMojo.instances = Collections.singletonList(MockServerAbstractMojoTest.instance("payments", "1080", "remote"));
+
+        try {
+            // when
+            mockServerStartMojo.execute();
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("MockServer instance \"payments\" mode \"remote\" is not one of [embedded, forked]"));
+        }
+    }
+
+    @Test
+    public void shouldRejectForkedInstance() {
+        // given
+        mockServerStartMojo.instances = Collections.singletonList(MockServerAbstractMojoTest.instance("payments", "1080", MockServerInstance.FORKED));
+
+        try {
+            // when
+            mockServerStartMojo.execute();
+            fail("expected exception");
+        } catch (RuntimeException re) {
+            // then
+            assertThat(re.getMessage(), is("Exception while starting MockServer instance payments MockServer instance \"payments\" has mode forked which is only supported by the runForked goal"));
+        }
     }
 
     @Test
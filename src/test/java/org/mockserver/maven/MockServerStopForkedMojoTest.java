@@ -5,6 +5,16 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -13,6 +23,8 @@ import static org.mockito.MockitoAnnotations.openMocks;
  */
 public class MockServerStopForkedMojoTest {
 
+    private final File daemonDirectory = new File("target", "mockserver-stop-forked-daemons");
+
     @Mock
     private InstanceHolder mockInstanceHolder;
     @InjectMocks
@@ -21,7 +33,7 @@ public class MockServerStopForkedMojoTest {
     @Before
     public void setupMocks() {
         openMocks(this);
-        MockServerAbstractMojo.instanceHolder = mockInstanceHolder;
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockInstanceHolder);
     }
 
     @Test
@@ -33,7 +45,151 @@ public class MockServerStopForkedMojoTest {
         mockServerStopForkedMojo.execute();
 
         // then
-        verify(mockInstanceHolder).stop(new Integer[]{1,2}, false);
+        verify(mockInstanceHolder).stop(new Integer[]{1,2}, false, 10, SECONDS);
+    }
+
+    @Test
+    public void shouldStopPublishedPortsWhenServerPortIsEphemeral() {
+        // given
+        mockServerStopForkedMojo.project = MockServerAbstractMojoTest.project("ephemeral");
+        mockServerStopForkedMojo.project.getProperties().setProperty("mockserver.mockServerPort", "34567");
+        MockServerAbstractMojo.instanceHolders.put(mockServerStopForkedMojo.project.getId(), mockInstanceHolder);
+        mockServerStopForkedMojo.serverPort = "auto";
+
+        // when
+        mockServerStopForkedMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).stop(new Integer[]{34567}, false, 10, SECONDS);
+    }
+
+    @Test
+    public void shouldStopEveryInstanceOfPool() {
+        // given
+        mockServerStopForkedMojo.serverPort = "1080,1081";
+        mockServerStopForkedMojo.poolSize = 3;
+
+        // when
+        mockServerStopForkedMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).stop(new Integer[]{1080, 1081}, false, 10, SECONDS);
+        verify(mockInstanceHolder).stop(new Integer[]{1082, 1083}, false, 10, SECONDS);
+        verify(mockInstanceHolder).stop(new Integer[]{1084, 1085}, false, 10, SECONDS);
+    }
+
+    @Test
+    public void shouldStopPublishedPortsOfEveryInstanceOfEphemeralPool() {
+        // given
+        mockServerStopForkedMojo.project = MockServerAbstractMojoTest.project("ephemeral-pool");
+        mockServerStopForkedMojo.project.getProperties().setProperty("mockserver.mockServerPort.1", "34567");
+        mockServerStopForkedMojo.project.getProperties().setProperty("mockserver.mockServerPort.2", "34568");
+        MockServerAbstractMojo.instanceHolders.put(mockServerStopForkedMojo.project.getId(), mockInstanceHolder);
+        mockServerStopForkedMojo.serverPort = "auto";
+        mockServerStopForkedMojo.poolSize = 2;
+
+        // when
+        mockServerStopForkedMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).stop(new Integer[]{34567}, false, 10, SECONDS);
+        verify(mockInstanceHolder).stop(new Integer[]{34568}, false, 10, SECONDS);
+    }
+
+    @Test
+    public void shouldStopClusterFrontEndAndEveryShard() {
+        // given
+        ShardedMockServer shardedMockServer = new ShardedMockServer(new Integer[]{0}, Arrays.asList(34567, 34568), ShardedMockServer.ROUND_ROBIN);
+        Integer[] clusterPorts = shardedMockServer.getLocalPorts().toArray(new Integer[0]);
+        shardedMockServer.register(clusterPorts);
+        mockServerStopForkedMojo.project = MockServerAbstractMojoTest.project("cluster");
+        mockServerStopForkedMojo.project.getProperties().setProperty("mockserver.mockServerPort", String.valueOf(clusterPorts[0]));
+        MockServerAbstractMojo.instanceHolders.put(mockServerStopForkedMojo.project.getId(), mockInstanceHolder);
+        mockServerStopForkedMojo.serverPort = "auto";
+
+        // when
+        mockServerStopForkedMojo.execute();
+
+        // then
+        assertThat(shardedMockServer.isRunning(), is(false));
+        assertThat(ShardedMockServer.forPorts(clusterPorts) == null, is(true));
+        verify(mockInstanceHolder).stop(new Integer[]{34567}, false, 10, SECONDS);
+        verify(mockInstanceHolder).stop(new Integer[]{34568}, false, 10, SECONDS);
+        verifyNoMoreInteractions(mockInstanceHolder);
+    }
+
+    @Test
+    public void shouldAddForkedOutputWhenStopFails() {
+        // given
+        mockServerStopForkedMojo.serverPort = "3,4";
+        ForkedProcessOutput forkedProcessOutput = new ForkedProcessOutput(new File("target", "runForked-3-4.log"), 1024, 1, 10);
+        forkedProcessOutput.register(new Integer[]{3, 4});
+        doThrow(new RuntimeException("connection refused")).when(mockInstanceHolder).stop(new Integer[]{3, 4}, false, 10, SECONDS);
+
+        try {
+            // when
+            mockServerStopForkedMojo.execute();
+            fail("expected exception");
+        } catch (IllegalStateException ise) {
+            // then
+            assertThat(ise.getMessage(), containsString("Failed to stop MockServer running on port [3, 4] connection refused"));
+            assertThat(ise.getMessage(), containsString(new File("target", "runForked-3-4.log").getAbsolutePath()));
+        } finally {
+            ForkedProcessOutput.unregister(new Integer[]{3, 4});
+        }
+    }
+
+    @Test
+    public void shouldLeaveDaemonRunning() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            // given
+            Integer[] ports = {serverSocket.getLocalPort()};
+            MockServerDaemon.forConfiguration(daemonDirectory, ports, "5.15.0").renewLease();
+            mockServerStopForkedMojo.serverPort = String.valueOf(ports[0]);
+            mockServerStopForkedMojo.daemon = true;
+            mockServerStopForkedMojo.daemonDirectory = daemonDirectory;
+
+            // when
+            mockServerStopForkedMojo.execute();
+
+            // then
+            verifyNoMoreInteractions(mockInstanceHolder);
+        }
+    }
+
+    @Test
+    public void shouldStopWhenNoDaemonLeaseForPorts() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            // given
+            Integer[] ports = {serverSocket.getLocalPort()};
+            // a lease for other ports doesn't count
+            MockServerDaemon.forConfiguration(daemonDirectory, new Integer[]{ports[0], ports[0] + 1}, "5.15.0").renewLease();
+            mockServerStopForkedMojo.serverPort = String.valueOf(ports[0]);
+            mockServerStopForkedMojo.daemon = true;
+            mockServerStopForkedMojo.daemonDirectory = daemonDirectory;
+
+            // when
+            mockServerStopForkedMojo.execute();
+
+            // then
+            verify(mockInstanceHolder).stop(ports, false, 10, SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldStopPoolEvenWhenDaemonIsSet() {
+        // given
+        mockServerStopForkedMojo.serverPort = "1080";
+        mockServerStopForkedMojo.poolSize = 2;
+        mockServerStopForkedMojo.daemon = true;
+        mockServerStopForkedMojo.daemonDirectory = daemonDirectory;
+
+        // when
+        mockServerStopForkedMojo.execute();
+
+        // then
+        verify(mockInstanceHolder).stop(new Integer[]{1080}, false, 10, SECONDS);
+        verify(mockInstanceHolder).stop(new Integer[]{1081}, false, 10, SECONDS);
     }
 
     @Test
@@ -5,6 +5,12 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.util.Arrays;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -22,7 +28,7 @@ public class MockServerStopMojoTest {
     @Before
     public void setupMocks() {
         openMocks(this);
-        MockServerAbstractMojo.instanceHolder = mockEmbeddedJettyHolder;
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY, mockEmbeddedJettyHolder);
     }
 
     @Test
@@ -31,7 +37,36 @@ public class MockServerStopMojoTest {
         mockServerStopMojo.execute();
 
         // then
-        verify(mockEmbeddedJettyHolder).stop();
+        verify(mockEmbeddedJettyHolder).stop(10, SECONDS);
+        assertThat(MockServerAbstractMojo.instanceHolders.containsKey(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY), is(false));
+    }
+
+    @Test
+    public void shouldStopInstances() {
+        // given
+        InstanceHolder paymentsInstanceHolder = mock(InstanceHolder.class);
+        InstanceHolder accountsInstanceHolder = mock(InstanceHolder.class);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#payments", paymentsInstanceHolder);
+        MockServerAbstractMojo.instanceHolders.put(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#accounts", accountsInstanceHolder);
+        mockServerStopMojo.instances = Arrays.asList(
+            MockServerAbstractMojoTest.instance("payments", "1080", MockServerInstance.EMBEDDED),
+            MockServerAbstractMojoTest.instance("accounts", "1081", MockServerInstance.EMBEDDED)
+        );
+
+        try {
+            // when
+            mockServerStopMojo.execute();
+
+            // then
+            verify(mockEmbeddedJettyHolder).stop(10, SECONDS);
+            verify(paymentsInstanceHolder).stop(10, SECONDS);
+            verify(accountsInstanceHolder).stop(10, SECONDS);
+            assertThat(MockServerAbstractMojo.instanceHolders.containsKey(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#payments"), is(false));
+            assertThat(MockServerAbstractMojo.instanceHolders.containsKey(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#accounts"), is(false));
+        } finally {
+            MockServerAbstractMojo.instanceHolders.remove(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#payments");
+            MockServerAbstractMojo.instanceHolders.remove(MockServerAbstractMojo.DEFAULT_INSTANCE_KEY + "#accounts");
+        }
     }
 
     @Test
@@ -0,0 +1,83 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+import org.mockserver.socket.PortFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PortProbeTest {
+
+    @Test
+    public void shouldDetectListeningPort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            assertThat(PortProbe.isListening(serverSocket.getLocalPort()), is(true));
+        }
+    }
+
+    @Test
+    public void shouldDetectFreePort() {
+        assertThat(PortProbe.isListening(PortFactory.findFreePort()), is(false));
+    }
+
+    @Test
+    public void shouldIgnoreInvalidPort() {
+        assertThat(PortProbe.isListening(null), is(false));
+        assertThat(PortProbe.isListening(0), is(false));
+    }
+
+    @Test
+    public void shouldCheckRegisteredAcceptorWithoutConnecting() {
+        // given
+        List<Integer> ports = Collections.singletonList(PortFactory.findFreePort());
+        AtomicBoolean accepting = new AtomicBoolean(true);
+        BooleanSupplier acceptor = accepting::get;
+        PortProbe.registerAcceptor(ports, acceptor);
+
+        try {
+            // then - nothing is bound so only the acceptor can report the port as listening
+            assertThat(PortProbe.isListening(ports.get(0)), is(true));
+
+            // when
+            accepting.set(false);
+
+            // then
+            assertThat(PortProbe.isListening(ports.get(0)), is(false));
+        } finally {
+            PortProbe.unregisterAcceptor(ports, acceptor);
+        }
+    }
+
+    @Test
+    public void shouldDetectEphemeralPorts() {
+        assertThat(PortProbe.isEphemeral(1080, 0), is(true));
+        assertThat(PortProbe.isEphemeral(1080, 1081), is(false));
+        assertThat(PortProbe.isEphemeral((Integer[]) null), is(false));
+    }
+
+    @Test
+    public void shouldReturnWhenPortReleased() throws IOException {
+        // given
+        ServerSocket serverSocket = new ServerSocket(0);
+        int port = serverSocket.getLocalPort();
+        serverSocket.close();
+
+        // then
+        assertThat(PortProbe.awaitReleased(500, MILLISECONDS, port), is(true));
+    }
+
+    @Test
+    public void shouldTimeoutWhenPortNotReleased() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            assertThat(PortProbe.awaitReleased(100, MILLISECONDS, serverSocket.getLocalPort()), is(false));
+        }
+    }
+}
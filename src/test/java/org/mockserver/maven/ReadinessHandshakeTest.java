@@ -0,0 +1,85 @@
+package org.mockserver.maven;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.core.Is.is;
+
+public class ReadinessHandshakeTest {
+
+    private ReadinessHandshake readinessHandshake;
+
+    @Before
+    public void createReadinessHandshake() {
+        readinessHandshake = ReadinessHandshake.forPorts(new File("target", "mockserver"), new Integer[]{1080, 1081});
+        readinessHandshake.reset();
+    }
+
+    @Test
+    public void shouldReturnReadyWithPorts() {
+        // given
+        readinessHandshake.signalReady(Arrays.asList(1080, 1081));
+
+        // when
+        ReadinessHandshake.Result result = readinessHandshake.await(null, 1, SECONDS);
+
+        // then
+        assertThat(result.isReady(), is(true));
+        assertThat(result.getPorts(), is(Arrays.asList(1080, 1081)));
+    }
+
+    @Test
+    public void shouldReturnFailureReason() {
+        // given
+        readinessHandshake.signalFailed("java.net.BindException: Address already in use");
+
+        // when
+        ReadinessHandshake.Result result = readinessHandshake.await(null, 1, SECONDS);
+
+        // then
+        assertThat(result.isReady(), is(false));
+        assertThat(result.getFailure(), is("java.net.BindException: Address already in use"));
+    }
+
+    @Test
+    public void shouldFailAsSoonAsProcessExits() throws Exception {
+        // given
+        Process process = new ProcessBuilder("echo", "").start();
+
+        // when
+        ReadinessHandshake.Result result = readinessHandshake.await(process, 30, SECONDS);
+
+        // then
+        assertThat(result.isReady(), is(false));
+        assertThat(result.getFailure(), containsString("exited with status 0"));
+    }
+
+    @Test
+    public void shouldTimeoutWhenNothingSignalled() {
+        // when
+        ReadinessHandshake.Result result = readinessHandshake.await(null, 50, MILLISECONDS);
+
+        // then
+        assertThat(result.isReady(), is(false));
+        assertThat(result.getFailure(), containsString("timed out after 50ms"));
+    }
+
+    @Test
+    public void shouldRemoveStaleSignalOnReset() {
+        // given
+        readinessHandshake.signalReady(Arrays.asList(1080, 1081));
+
+        // when
+        readinessHandshake.reset();
+
+        // then
+        assertThat(readinessHandshake.getFile().exists(), is(false));
+    }
+}
@@ -0,0 +1,89 @@
+package org.mockserver.maven;
+
+import org.junit.Test;
+import org.mockserver.configuration.Configuration;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class ServerConfigurationTest {
+
+    @Test
+    public void shouldConvertToSystemProperties() {
+        // given
+        ServerConfiguration serverConfiguration = new ServerConfiguration();
+        serverConfiguration.nioEventLoopThreadCount = 4;
+        serverConfiguration.maxExpectations = 500;
+        serverConfiguration.maxSocketTimeout = 5000L;
+        serverConfiguration.disableLogging = true;
+
+        // when
+        Map<String, String> systemProperties = serverConfiguration.validate().toSystemProperties();
+
+        // then
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("mockserver.nioEventLoopThreadCount", "4");
+        expected.put("mockserver.maxExpectations", "500");
+        expected.put("mockserver.maxSocketTimeout", "5000");
+        expected.put("mockserver.disableLogging", "true");
+        assertThat(systemProperties, is(expected));
+    }
+
+    @Test
+    public void shouldOverrideAutoSizedWithExplicitValues() {
+        // given
+        ServerConfiguration explicit = new ServerConfiguration();
+        explicit.actionHandlerThreadCount = 16;
+        explicit.maxExpectations = 500;
+
+        // when
+        Map<String, String> systemProperties = ServerConfiguration.autoSized(3).overriddenBy(explicit).toSystemProperties();
+
+        // then
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("mockserver.nioEventLoopThreadCount", "3");
+        expected.put("mockserver.actionHandlerThreadCount", "16");
+        expected.put("mockserver.clientNioEventLoopThreadCount", "3");
+        expected.put("mockserver.webSocketClientEventLoopThreadCount", "1");
+        expected.put("mockserver.maxExpectations", "500");
+        assertThat(systemProperties, is(expected));
+    }
+
+    @Test
+    public void shouldConfigureSingleMockServerWithoutChangingConfigurationProperties() {
+        // given
+        int originalMaxExpectations = ConfigurationProperties.maxExpectations();
+        ServerConfiguration serverConfiguration = new ServerConfiguration();
+        serverConfiguration.maxExpectations = originalMaxExpectations + 123;
+        serverConfiguration.maxSocketTimeout = 5000L;
+
+        // when
+        Configuration configuration = serverConfiguration.toConfiguration();
+
+        // then
+        assertThat(configuration.maxExpectations(), is(originalMaxExpectations + 123));
+        assertThat(configuration.maxSocketTimeoutInMillis(), is(5000L));
+        assertThat(ConfigurationProperties.maxExpectations(), is(originalMaxExpectations));
+    }
+
+    @Test
+    public void shouldRejectNonPositiveValues() {
+        // given
+        ServerConfiguration serverConfiguration = new ServerConfiguration();
+        serverConfiguration.actionHandlerThreadCount = 0;
+
+        try {
+            // when
+            serverConfiguration.validate();
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("serverConfiguration actionHandlerThreadCount must be greater than 0 but was 0"));
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.mockserver.maven;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+public class ShardedMockServerTest {
+
+    private final List<ServerSocket> shards = new ArrayList<>();
+
+    @Before
+    public void startShards() throws IOException {
+        for (int shard = 0; shard < 2; shard++) {
+            ServerSocket serverSocket = new ServerSocket(0);
+            shards.add(serverSocket);
+            Thread thread = new Thread(() -> {
+                // each shard replies with its own port so the test can see where a connection was relayed
+                while (!serverSocket.isClosed()) {
+                    try (Socket socket = serverSocket.accept(); OutputStream outputStream = socket.getOutputStream()) {
+                        outputStream.write((serverSocket.getLocalPort() + "\n").getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException ignore) {
+                        // shard closed
+                    }
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @After
+    public void stopShards() throws IOException {
+        for (ServerSocket shard : shards) {
+            shard.close();
+        }
+    }
+
+    @Test
+    public void shouldSpreadConnectionsRoundRobin() throws IOException {
+        // given
+        ShardedMockServer shardedMockServer = new ShardedMockServer(new Integer[]{0}, shardPorts(), ShardedMockServer.ROUND_ROBIN);
+
+        try {
+            // when
+            int port = shardedMockServer.getLocalPorts().get(0);
+            List<Integer> relayedTo = Arrays.asList(connect(port), connect(port), connect(port), connect(port));
+
+            // then
+            assertThat(relayedTo, is(Arrays.asList(shardPorts().get(0), shardPorts().get(1), shardPorts().get(0), shardPorts().get(1))));
+        } finally {
+            shardedMockServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldSendClientToSameShardByClientAddress() throws IOException {
+        // given
+        ShardedMockServer shardedMockServer = new ShardedMockServer(new Integer[]{0}, shardPorts(), ShardedMockServer.CLIENT_ADDRESS);
+
+        try {
+            // when
+            int port = shardedMockServer.getLocalPorts().get(0);
+            List<Integer> relayedTo = Arrays.asList(connect(port), connect(port), connect(port));
+
+            // then
+            Integer shardPort = shardedMockServer.shardPort(InetAddress.getByName("127.0.0.1"));
+            assertThat(relayedTo, is(Arrays.asList(shardPort, shardPort, shardPort)));
+        } finally {
+            shardedMockServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldRelayManyOpenConnectionsAtOnce() throws IOException {
+        // given
+        ShardedMockServer shardedMockServer = new ShardedMockServer(new Integer[]{0}, shardPorts(), ShardedMockServer.ROUND_ROBIN);
+        List<Socket> sockets = new ArrayList<>();
+
+        try {
+            // when - more connections are held open than a thread per connection relay could afford
+            for (int connection = 0; connection < 600; connection++) {
+                sockets.add(new Socket("127.0.0.1", shardedMockServer.getLocalPorts().get(0)));
+            }
+
+            // then
+            Set<String> relayedTo = new HashSet<>();
+            for (Socket socket : sockets) {
+                relayedTo.add(readLine(socket));
+            }
+            assertThat(relayedTo, is(new HashSet<>(Arrays.asList(String.valueOf(shardPorts().get(0)), String.valueOf(shardPorts().get(1))))));
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            shardedMockServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldCloseConnectionsBeyondMaxConnections() throws Exception {
+        // given
+        CompletableFuture<Integer> upstreamPort = new CompletableFuture<>();
+        TcpRelay relay = new TcpRelay("test", new Integer[]{0}, 1, client -> upstreamPort);
+
+        try (Socket first = new Socket("127.0.0.1", relay.getLocalPorts().get(0))) {
+            // when - the first connection waits for its upstream port
+            try (Socket second = new Socket("127.0.0.1", relay.getLocalPorts().get(0))) {
+                second.setSoTimeout((int) SECONDS.toMillis(10));
+
+                // then - the second is closed rather than left waiting
+                assertThat(second.getInputStream().read(), is(-1));
+            }
+
+            // when
+            upstreamPort.complete(shardPorts().get(0));
+
+            // then
+            assertThat(readLine(first), is(String.valueOf(shardPorts().get(0))));
+        } finally {
+            relay.stop();
+        }
+    }
+
+    @Test
+    public void shouldReleasePortsAndUnregisterWhenStopped() {
+        // given
+        ShardedMockServer shardedMockServer = new ShardedMockServer(new Integer[]{0}, shardPorts(), ShardedMockServer.ROUND_ROBIN);
+        Integer[] ports = shardedMockServer.getLocalPorts().toArray(new Integer[0]);
+        shardedMockServer.register(ports);
+        assertThat(ShardedMockServer.forPorts(ports) == shardedMockServer, is(true));
+
+        // when
+        shardedMockServer.stop();
+
+        // then
+        assertThat(PortProbe.awaitReleased(10, SECONDS, ports), is(true));
+        assertThat(shardedMockServer.isRunning(), is(false));
+        assertThat(ShardedMockServer.forPorts(ports) == null, is(true));
+    }
+
+    @Test
+    public void shouldRejectUnknownBalancing() {
+        try {
+            // when
+            new ShardedMockServer(new Integer[]{0}, shardPorts(), "random");
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("MockServer cluster balancing \"random\" is not one of [roundRobin, clientAddress]"));
+        }
+    }
+
+    @Test
+    public void shouldRejectClusterWithoutShards() {
+        try {
+            // when
+            new ShardedMockServer(new Integer[]{0}, Collections.<Integer>emptyList(), ShardedMockServer.ROUND_ROBIN);
+            fail("expected exception");
+        } catch (IllegalArgumentException iae) {
+            // then
+            assertThat(iae.getMessage(), is("MockServer cluster requires at least one shard"));
+        }
+    }
+
+    private List<Integer> shardPorts() {
+        List<Integer> shardPorts = new ArrayList<>();
+        for (ServerSocket shard : shards) {
+            shardPorts.add(shard.getLocalPort());
+        }
+        return shardPorts;
+    }
+
+    private String readLine(Socket socket) throws IOException {
+        socket.setSoTimeout((int) SECONDS.toMillis(10));
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)).readLine();
+    }
+
+    private Integer connect(int port) throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port); BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            return Integer.parseInt(reader.readLine());
+        }
+    }
+}